@@ -0,0 +1,76 @@
+package com.koroli.queryconverter.catalog;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import org.bson.Document;
+
+import java.util.Map;
+
+/**
+ * Describes the size and the value distribution of a single collection, as used to estimate
+ * the cardinality of joins.
+ */
+@Value
+@Builder
+public class CollectionStatistics {
+
+    /**
+     * Number of documents in the collection.
+     */
+    long documentCount;
+
+    /**
+     * Average size of a document in bytes.
+     */
+    double averageDocumentSize;
+
+    /**
+     * Number of distinct values of a field, keyed by field path.
+     */
+    @Singular
+    Map<String, Long> distinctCounts;
+
+    /**
+     * Creates a {@link CollectionStatistics} from one entry of a statistics snapshot, in the shape of the
+     * {@code collStats} output extended with distinct counts:
+     * <pre>
+     * { "count": 1000000, "avgObjSize": 512, "distinct": { "customerId": 50000, "status": 4 } }
+     * </pre>
+     *
+     * @param document the statistics document.
+     * @return the parsed {@link CollectionStatistics}.
+     * @throws IllegalArgumentException if the document has no document count.
+     */
+    public static CollectionStatistics fromDocument(Document document) {
+        if (!(document.get("count") instanceof Number count)) {
+            throw new IllegalArgumentException("Statistics must contain a numeric 'count'");
+        }
+
+        CollectionStatisticsBuilder builder = CollectionStatistics.builder()
+                .documentCount(count.longValue())
+                .averageDocumentSize(document.get("avgObjSize") instanceof Number size ? size.doubleValue() : 0);
+
+        Document distinct = document.get("distinct", Document.class);
+        if (distinct != null) {
+            for (Map.Entry<String, Object> entry : distinct.entrySet()) {
+                if (entry.getValue() instanceof Number distinctCount) {
+                    builder.distinctCount(entry.getKey(), distinctCount.longValue());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Estimates the number of distinct values of a field. A field without statistics is assumed to be unique,
+     * which makes an equality on it as selective as possible.
+     *
+     * @param field the field path.
+     * @return the number of distinct values, at least {@code 1}.
+     */
+    public long estimateDistinctCount(String field) {
+        Long distinctCount = distinctCounts.get(field);
+        return Math.max(1, distinctCount != null ? distinctCount : documentCount);
+    }
+}
@@ -0,0 +1,102 @@
+package com.koroli.queryconverter.catalog;
+
+import lombok.NonNull;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the indexes available on each collection.
+ * <p>
+ * The JSON form is a document keyed by collection name, where each value is the array
+ * returned by {@code db.collection.getIndexes()} / {@code listIndexes}:
+ * <pre>
+ * { "users": [ { "v": 2, "key": { "_id": 1 }, "name": "_id_" },
+ *              { "v": 2, "key": { "email": 1, "status": 1 }, "name": "email_1_status_1" } ] }
+ * </pre>
+ */
+public final class IndexCatalog {
+
+    private static final IndexCatalog EMPTY = new IndexCatalog(Collections.emptyMap());
+
+    private final Map<String, List<IndexInfo>> indexesByCollection;
+
+    private IndexCatalog(Map<String, List<IndexInfo>> indexesByCollection) {
+        this.indexesByCollection = indexesByCollection;
+    }
+
+    /**
+     * Returns a catalog without any indexes.
+     *
+     * @return the empty {@link IndexCatalog}.
+     */
+    public static IndexCatalog empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a catalog from already parsed index descriptions.
+     *
+     * @param indexesByCollection indexes grouped by collection name.
+     * @return the new {@link IndexCatalog}.
+     */
+    public static IndexCatalog of(@NonNull Map<String, List<IndexInfo>> indexesByCollection) {
+        Map<String, List<IndexInfo>> copy = new HashMap<>();
+        indexesByCollection.forEach((collection, indexes) -> copy.put(collection, List.copyOf(indexes)));
+        return new IndexCatalog(Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * Creates a catalog from a JSON snapshot of {@code listIndexes} output.
+     *
+     * @param json the JSON snapshot, keyed by collection name.
+     * @return the new {@link IndexCatalog}.
+     * @throws IllegalArgumentException if the snapshot is malformed.
+     */
+    public static IndexCatalog fromJson(@NonNull String json) {
+        Document snapshot;
+        try {
+            snapshot = Document.parse(json);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Invalid index catalog snapshot", e);
+        }
+
+        Map<String, List<IndexInfo>> indexesByCollection = new HashMap<>();
+
+        for (Map.Entry<String, Object> entry : snapshot.entrySet()) {
+            if (!(entry.getValue() instanceof List<?> specs)) {
+                throw new IllegalArgumentException("Indexes of collection '" + entry.getKey() + "' must be an array");
+            }
+
+            List<IndexInfo> indexes = new ArrayList<>();
+            for (Object spec : specs) {
+                if (spec instanceof Document document) {
+                    indexes.add(IndexInfo.fromDocument(document));
+                }
+            }
+            indexesByCollection.put(entry.getKey(), indexes);
+        }
+
+        return of(indexesByCollection);
+    }
+
+    /**
+     * Retrieves the indexes of a collection.
+     *
+     * @param collection the collection name.
+     * @return the indexes of the collection, or an empty list if unknown.
+     */
+    public List<IndexInfo> getIndexes(String collection) {
+        return indexesByCollection.getOrDefault(collection, Collections.emptyList());
+    }
+
+    /**
+     * Checks if the catalog has no indexes at all.
+     *
+     * @return {@code true} if the catalog is empty, otherwise {@code false}.
+     */
+    public boolean isEmpty() {
+        return indexesByCollection.isEmpty();
+    }
+}
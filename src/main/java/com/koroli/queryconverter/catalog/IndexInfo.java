@@ -0,0 +1,85 @@
+package com.koroli.queryconverter.catalog;
+
+import lombok.Builder;
+import lombok.Value;
+import org.bson.Document;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes a single index of a collection, as reported by {@code listIndexes}.
+ * <p>
+ * {@code listIndexes} does not tell whether an index is multikey, i.e. indexes an array field; a snapshot may record it
+ * with a {@code "multikey": true} entry, taken from the {@code isMultiKey} flag of an {@code explain} output.
+ */
+@Value
+@Builder
+public class IndexInfo {
+
+    /**
+     * Index key types that never store the original field value and therefore cannot cover a query.
+     */
+    private static final Set<String> NON_COVERING_KEY_TYPES = Set.of("hashed", "text", "2d", "2dsphere", "geoHaystack");
+
+    String name;
+    Map<String, Object> keys;
+    boolean unique;
+    boolean sparse;
+    boolean partial;
+    boolean multikey;
+    Document collation;
+
+    /**
+     * Creates an {@link IndexInfo} from one entry of the {@code listIndexes} output.
+     *
+     * @param document the index specification document.
+     * @return the parsed {@link IndexInfo}.
+     */
+    public static IndexInfo fromDocument(Document document) {
+        Document key = document.get("key", Document.class);
+
+        return IndexInfo.builder()
+                .name(document.getString("name"))
+                .keys(key != null
+                        ? Collections.unmodifiableMap(new LinkedHashMap<>(key))
+                        : Collections.emptyMap())
+                .unique(document.getBoolean("unique", false))
+                .sparse(document.getBoolean("sparse", false))
+                .partial(document.containsKey("partialFilterExpression"))
+                .multikey(document.getBoolean("multikey", document.getBoolean("isMultiKey", false)))
+                .collation(document.get("collation", Document.class))
+                .build();
+    }
+
+    /**
+     * Checks if the index contains the given field in its key pattern.
+     *
+     * @param field the field path.
+     * @return {@code true} if the field is part of the index key, otherwise {@code false}.
+     */
+    public boolean containsField(String field) {
+        return keys.containsKey(field);
+    }
+
+    /**
+     * Checks if the index is able to answer a query without fetching documents.
+     * Hashed, text, geo and wildcard keys, as well as sparse, partial and multikey indexes, are excluded.
+     *
+     * @return {@code true} if the index may cover a query, otherwise {@code false}.
+     */
+    public boolean isCoverable() {
+        if (sparse || partial || multikey || keys.isEmpty()) {
+            return false;
+        }
+
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            if (key.getKey().contains("$**") || NON_COVERING_KEY_TYPES.contains(String.valueOf(key.getValue()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
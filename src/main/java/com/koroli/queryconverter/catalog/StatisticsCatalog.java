@@ -0,0 +1,138 @@
+package com.koroli.queryconverter.catalog;
+
+import com.mongodb.client.MongoDatabase;
+import lombok.NonNull;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the statistics of each collection, used to order joins by their estimated cardinality.
+ * <p>
+ * The JSON form is a document keyed by collection name, where each value is described in
+ * {@link CollectionStatistics#fromDocument(Document)}:
+ * <pre>
+ * { "orders":    { "count": 1000000, "avgObjSize": 512, "distinct": { "customerId": 50000 } },
+ *   "customers": { "count": 50000,   "avgObjSize": 300, "distinct": { "country": 40 } } }
+ * </pre>
+ */
+public final class StatisticsCatalog {
+
+    private static final StatisticsCatalog EMPTY = new StatisticsCatalog(Collections.emptyMap());
+
+    private final Map<String, CollectionStatistics> statisticsByCollection;
+
+    private StatisticsCatalog(Map<String, CollectionStatistics> statisticsByCollection) {
+        this.statisticsByCollection = statisticsByCollection;
+    }
+
+    /**
+     * Returns a catalog without any statistics.
+     *
+     * @return the empty {@link StatisticsCatalog}.
+     */
+    public static StatisticsCatalog empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a catalog from already collected statistics.
+     *
+     * @param statisticsByCollection statistics keyed by collection name.
+     * @return the new {@link StatisticsCatalog}.
+     */
+    public static StatisticsCatalog of(@NonNull Map<String, CollectionStatistics> statisticsByCollection) {
+        return new StatisticsCatalog(Map.copyOf(statisticsByCollection));
+    }
+
+    /**
+     * Creates a catalog from a JSON snapshot.
+     *
+     * @param json the JSON snapshot, keyed by collection name.
+     * @return the new {@link StatisticsCatalog}.
+     * @throws IllegalArgumentException if the snapshot is malformed.
+     */
+    public static StatisticsCatalog fromJson(@NonNull String json) {
+        Document snapshot;
+        try {
+            snapshot = Document.parse(json);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Invalid statistics catalog snapshot", e);
+        }
+
+        Map<String, CollectionStatistics> statisticsByCollection = new HashMap<>();
+
+        for (Map.Entry<String, Object> entry : snapshot.entrySet()) {
+            if (!(entry.getValue() instanceof Document statistics)) {
+                throw new IllegalArgumentException("Statistics of collection '" + entry.getKey() + "' must be a document");
+            }
+            statisticsByCollection.put(entry.getKey(), CollectionStatistics.fromDocument(statistics));
+        }
+
+        return of(statisticsByCollection);
+    }
+
+    /**
+     * Collects the statistics of the given collections from a database: the document count and average size
+     * from {@code $collStats}, and the exact distinct counts of the given fields. Counting distinct values scans
+     * the collection, so the catalog is meant to be collected periodically and kept as a snapshot.
+     *
+     * @param database             the database.
+     * @param fieldsByCollection   the fields to count distinct values of, keyed by collection name;
+     *                             typically the fields used in join conditions and equality filters.
+     * @return the new {@link StatisticsCatalog}.
+     */
+    public static StatisticsCatalog collect(
+            @NonNull MongoDatabase database,
+            @NonNull Map<String, ? extends Collection<String>> fieldsByCollection
+    ) {
+        Map<String, CollectionStatistics> statisticsByCollection = new HashMap<>();
+
+        for (Map.Entry<String, ? extends Collection<String>> entry : fieldsByCollection.entrySet()) {
+            var collection = database.getCollection(entry.getKey());
+
+            Document collStats = collection
+                    .aggregate(List.of(new Document("$collStats", new Document("storageStats", new Document()))))
+                    .first();
+            Document storageStats = collStats != null ? collStats.get("storageStats", Document.class) : null;
+
+            Document statistics = new Document()
+                    .append("count", storageStats != null ? storageStats.get("count") : collection.estimatedDocumentCount())
+                    .append("avgObjSize", storageStats != null ? storageStats.get("avgObjSize") : 0);
+
+            Document distinct = new Document();
+            for (String field : entry.getValue()) {
+                Document counted = collection.aggregate(List.of(
+                        new Document("$group", new Document("_id", "$" + field)),
+                        new Document("$count", "distinct")
+                )).allowDiskUse(true).first();
+                distinct.append(field, counted != null ? counted.get("distinct") : 0);
+            }
+            statistics.append("distinct", distinct);
+
+            statisticsByCollection.put(entry.getKey(), CollectionStatistics.fromDocument(statistics));
+        }
+
+        return of(statisticsByCollection);
+    }
+
+    /**
+     * Retrieves the statistics of a collection.
+     *
+     * @param collection the collection name.
+     * @return the statistics of the collection, or {@code null} if unknown.
+     */
+    public CollectionStatistics getStatistics(String collection) {
+        return statisticsByCollection.get(collection);
+    }
+
+    /**
+     * Checks if the catalog has no statistics at all.
+     *
+     * @return {@code true} if the catalog is empty, otherwise {@code false}.
+     */
+    public boolean isEmpty() {
+        return statisticsByCollection.isEmpty();
+    }
+}
@@ -1,26 +1,43 @@
 package com.koroli.queryconverter.converters;
 
+import com.koroli.queryconverter.catalog.IndexCatalog;
+import com.koroli.queryconverter.catalog.StatisticsCatalog;
 import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.functions.FunctionRegistry;
+import com.koroli.queryconverter.functions.FunctionTranslator;
 import com.koroli.queryconverter.holders.AliasHolder;
+import com.koroli.queryconverter.holders.ConversionBudget;
+import com.koroli.queryconverter.holders.ConversionOptions;
 import com.koroli.queryconverter.holders.SQLCommandInfo;
+import com.koroli.queryconverter.holders.SelectListInfo;
 import com.koroli.queryconverter.model.FieldType;
+import com.koroli.queryconverter.model.SelectItemKind;
+import com.koroli.queryconverter.optimizers.JoinOrderOptimizer;
+import com.koroli.queryconverter.parsers.FastSelectParser;
 import com.koroli.queryconverter.processors.*;
+import com.koroli.queryconverter.query.ConversionResult;
+import com.koroli.queryconverter.query.IndexCoverage;
 import com.koroli.queryconverter.query.MongoQueryHolder;
+import com.koroli.queryconverter.utils.BudgetUtils;
 import com.koroli.queryconverter.utils.MongoQueryFormatter;
 import com.koroli.queryconverter.utils.ValidationUtils;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.parser.ParseException;
 import net.sf.jsqlparser.statement.Statement;
-import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.statement.select.PlainSelect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Main class responsible for query conversion.
@@ -35,6 +52,16 @@ public final class QueryConverter {
     private final Boolean aggregationAllowDiskUse;
     private final Integer aggregationBatchSize;
 
+    private final IndexCatalog indexCatalog;
+
+    private final StatisticsCatalog statisticsCatalog;
+
+    private final ConversionOptions conversionOptions;
+
+    private final ConversionBudget budget;
+
+    private final boolean fastParserEnabled;
+
     private final List<QueryProcessor> processors;
 
     private final boolean logQueryEnabled;
@@ -48,6 +75,21 @@ public final class QueryConverter {
             FieldType defaultFieldType,
             Boolean aggregationAllowDiskUse,
             Integer aggregationBatchSize,
+            IndexCatalog indexCatalog,
+            StatisticsCatalog statisticsCatalog,
+            Integer parallelThreshold,
+            ForkJoinPool parallelPool,
+            Boolean sortInLists,
+            Integer inChunkSize,
+            Integer maxInChunkBytes,
+            Map<String, FunctionTranslator> functionTranslators,
+            String collationLocale,
+            Map<String, String> objectIdTimeFields,
+            Clock clock,
+            Boolean canonicalShapes,
+            Boolean letParameters,
+            ConversionBudget budget,
+            Boolean fastParserEnabled,
             Boolean logQueryEnabled
     ) {
         this.defaultFieldType = defaultFieldType != null
@@ -61,17 +103,71 @@ public final class QueryConverter {
         this.aggregationAllowDiskUse = aggregationAllowDiskUse;
         this.aggregationBatchSize = aggregationBatchSize;
 
+        this.indexCatalog = indexCatalog != null
+                ? indexCatalog
+                : IndexCatalog.empty();
+
+        this.statisticsCatalog = statisticsCatalog != null
+                ? statisticsCatalog
+                : StatisticsCatalog.empty();
+
+        ConversionOptions.ConversionOptionsBuilder optionsBuilder = ConversionOptions.builder();
+        if (parallelThreshold != null) {
+            optionsBuilder.parallelThreshold(parallelThreshold);
+        }
+        if (parallelPool != null) {
+            optionsBuilder.parallelPool(parallelPool);
+        }
+        if (sortInLists != null) {
+            optionsBuilder.sortInLists(sortInLists);
+        } else if (canonicalShapes != null) {
+            optionsBuilder.sortInLists(canonicalShapes);
+        }
+        if (inChunkSize != null) {
+            optionsBuilder.inChunkSize(inChunkSize);
+        }
+        if (maxInChunkBytes != null) {
+            optionsBuilder.maxInChunkBytes(maxInChunkBytes);
+        }
+        if (collationLocale != null) {
+            optionsBuilder.collationLocale(collationLocale);
+        }
+        if (objectIdTimeFields != null) {
+            optionsBuilder.objectIdTimeFields(Map.copyOf(objectIdTimeFields));
+        }
+        if (clock != null) {
+            optionsBuilder.clock(clock);
+        }
+        if (canonicalShapes != null) {
+            optionsBuilder.canonicalShapes(canonicalShapes);
+        }
+        if (letParameters != null) {
+            optionsBuilder.letParameters(letParameters);
+        }
+        optionsBuilder.functionRegistry(FunctionRegistry.standard().withAll(functionTranslators));
+        this.conversionOptions = optionsBuilder.build();
+
+        this.budget = budget != null
+                ? budget
+                : ConversionBudget.unlimited();
+
+        this.fastParserEnabled = fastParserEnabled != null
+                ? fastParserEnabled
+                : false;
+
         this.processors = List.of(
                 new FromSubQueryProcessor(),
                 new DistinctProcessor(),
                 new GroupByProcessor(),
                 new TotalGroupProcessor(),
-                new ProjectionProcessor(),
+                new ProjectionProcessor(this.conversionOptions),
                 new CountAllProcessor(),
-                new JoinProcessor(),
+                new JoinProcessor(this.indexCatalog),
                 new OrderByProcessor(),
-                new WhereProcessor(this.defaultFieldType, this.fieldNameToFieldTypeMapping, false, new AliasHolder()),
-                new HavingProcessor(this.defaultFieldType, this.fieldNameToFieldTypeMapping, true, new AliasHolder())
+                new WhereProcessor(this.defaultFieldType, this.fieldNameToFieldTypeMapping, false, new AliasHolder(), this.conversionOptions),
+                new HavingProcessor(this.defaultFieldType, this.fieldNameToFieldTypeMapping, this.conversionOptions),
+                new InListChunkProcessor(this.conversionOptions),
+                new CanonicalShapeProcessor(this.defaultFieldType, this.fieldNameToFieldTypeMapping, this.conversionOptions)
         );
 
         this.logQueryEnabled = logQueryEnabled != null
@@ -79,6 +175,32 @@ public final class QueryConverter {
                 : true;
     }
 
+    /**
+     * Parses and converts a single SQL query into a MongoDB query.
+     *
+     * @param sql SQL query text.
+     * @return The resulting mongo query.
+     * @throws QueryConversionException if parsing or conversion fails.
+     */
+    public String convert(@NonNull String sql) throws QueryConversionException {
+        return convertWithDetails(sql).getQuery();
+    }
+
+    /**
+     * Parses and converts a single SQL query into a MongoDB query, together with the information
+     * collected about it during the conversion.
+     * <p>
+     * If the fast parser is enabled, simple SELECT statements are parsed by {@link FastSelectParser};
+     * everything else is parsed by JSqlParser.
+     *
+     * @param sql SQL query text.
+     * @return The {@link ConversionResult}.
+     * @throws QueryConversionException if parsing or conversion fails.
+     */
+    public ConversionResult convertWithDetails(@NonNull String sql) throws QueryConversionException {
+        return convertWithDetails(parse(sql));
+    }
+
     /**
      * Converts a single SQL query into a MongoDB query.
      *
@@ -87,13 +209,27 @@ public final class QueryConverter {
      * @throws QueryConversionException if parsing or conversion fails.
      */
     public String convert(@NonNull Statement statement) throws QueryConversionException {
+        return convertWithDetails(statement).getQuery();
+    }
+
+    /**
+     * Converts a single SQL query into a MongoDB query, together with the information
+     * collected about it during the conversion (e.g. index coverage).
+     *
+     * @param statement SQL query as a {@link Statement}.
+     * @return The {@link ConversionResult}.
+     * @throws QueryConversionException if parsing or conversion fails.
+     */
+    public ConversionResult convertWithDetails(@NonNull Statement statement) throws QueryConversionException {
         UUID convertId = UUID.randomUUID();
         long startTime = System.nanoTime();
 
         try {
-            SQLCommandInfo sqlCommandInfo = SQLCommandInfo.builderWithDefaults(this.defaultFieldType, this.fieldNameToFieldTypeMapping)
-                    .build()
-                    .fromStatement(statement);
+            BudgetUtils.checkStatement(statement, budget);
+
+            PlainSelect reordered = reorderJoins(statement);
+
+            SQLCommandInfo sqlCommandInfo = getSqlCommandInfo(reordered != null ? reordered : statement);
 
             validate(sqlCommandInfo);
 
@@ -101,19 +237,43 @@ public final class QueryConverter {
             queryHolder.getFilterWrapper().setOffset(sqlCommandInfo.getOffset());
             queryHolder.getFilterWrapper().setLimit(sqlCommandInfo.getLimit());
 
+            BudgetUtils.checkPipelineStages(MongoQueryFormatter.countPipelineStages(queryHolder, sqlCommandInfo), budget);
+
             String mongoQuery = MongoQueryFormatter.formatQuery(
                     queryHolder,
-                    getSqlCommandInfo(statement),
+                    sqlCommandInfo,
                     getAggregationAllowDiskUse(),
-                    getAggregationBatchSize()
+                    getAggregationBatchSize(),
+                    getIndexCatalog(),
+                    budget.getMaxOutputBytes()
             );
 
-            printQuery(convertId, "Original SQL Query",      statement.toString());
+            List<String> chunkedQueries = MongoQueryFormatter.formatChunkedQueries(
+                    queryHolder,
+                    sqlCommandInfo,
+                    getAggregationAllowDiskUse(),
+                    getAggregationBatchSize(),
+                    budget.getMaxOutputBytes()
+            );
+
+            printQuery(convertId, "Original SQL Query",      statement);
             printQuery(convertId, "Converted MongoDB Query", mongoQuery);
+            printIndexCoverage(convertId, queryHolder.getIndexCoverage());
+            printAlwaysEmpty(convertId, queryHolder.isAlwaysEmpty());
+            printChunkCount(convertId, queryHolder.getFilterWrapper().getChunkFilters().size());
+            printJoinOrder(convertId, reordered);
 
             printConversionDuration(convertId, System.nanoTime() - startTime);
 
-            return mongoQuery;
+            return ConversionResult.builder()
+                    .query(mongoQuery)
+                    .indexCoverage(queryHolder.getIndexCoverage())
+                    .alwaysEmpty(queryHolder.isAlwaysEmpty())
+                    .likeIndexBounded(queryHolder.getLikeIndexBounded())
+                    .collation(queryHolder.getCollation())
+                    .letVariables(queryHolder.getLetVariables())
+                    .chunkedQueries(chunkedQueries)
+                    .build();
         } catch (ParseException e) {
             LOGGER.error("[convertId={}]: {}", convertId, e.getMessage());
             throw new QueryConversionException(e);
@@ -127,22 +287,18 @@ public final class QueryConverter {
      * @throws QueryConversionException if parsing errors occur
      */
     private void validate(SQLCommandInfo sqlCommandInfo) throws QueryConversionException {
-        List<SelectItem<?>> selectItems = sqlCommandInfo.getSelectItems();
-
-        List<SelectItem<?>> filteredItems = selectItems.stream()
-                .filter(selectItem -> selectItem.getExpression() != null)
-                .toList();
+        SelectListInfo selectList = sqlCommandInfo.getSelectList();
 
         ValidationUtils.validateFalse(
-                (selectItems.size() > 1 || ValidationUtils.isSelectAllQuery(selectItems)) && sqlCommandInfo.isDistinct(),
+                (selectList.size() > 1 || selectList.isSelectAll()) && sqlCommandInfo.isDistinct(),
                 "Cannot run DISTINCT on more than one column."
         );
 
         ValidationUtils.validateFalse(
                 sqlCommandInfo.getGroupByFields().isEmpty()
-                        && selectItems.size() != filteredItems.size()
-                        && !ValidationUtils.isSelectAllQuery(selectItems)
-                        && !ValidationUtils.isCountAllQuery(selectItems)
+                        && selectList.count(SelectItemKind.EMPTY) > 0
+                        && !selectList.isSelectAll()
+                        && !selectList.isCountAll()
                         && !sqlCommandInfo.isTotalGroup(),
                 "Illegal expressions found in SELECT clause. Only column names are supported."
         );
@@ -171,6 +327,56 @@ public final class QueryConverter {
         return mongoQueryHolder;
     }
 
+    /**
+     * Parses SQL text, with the fast parser first if enabled.
+     *
+     * @param sql SQL query text.
+     * @return the parsed {@link Statement}.
+     * @throws QueryConversionException if the SQL cannot be parsed.
+     */
+    private Statement parse(String sql) throws QueryConversionException {
+        if (fastParserEnabled) {
+            Statement statement = FastSelectParser.parse(sql);
+            if (statement != null) {
+                return statement;
+            }
+        }
+
+        try {
+            return CCJSqlParserUtil.parse(sql);
+        } catch (JSQLParserException e) {
+            throw new QueryConversionException(e);
+        }
+    }
+
+    /**
+     * Reorders the joins of a SELECT by estimated cardinality. The optimizer works on a copy,
+     * so the statement of the caller is never modified.
+     *
+     * @param statement the statement to convert.
+     * @return the reordered copy of the SELECT, or {@code null} if the order is kept.
+     * @throws QueryConversionException if the copy cannot be parsed.
+     */
+    private PlainSelect reorderJoins(Statement statement) throws QueryConversionException {
+        if (statisticsCatalog.isEmpty()
+                || !(statement instanceof PlainSelect plainSelect)
+                || plainSelect.getJoins() == null
+                || plainSelect.getJoins().isEmpty()
+        ) {
+            return null;
+        }
+
+        PlainSelect copy;
+        try {
+            copy = (PlainSelect) CCJSqlParserUtil.parse(plainSelect.toString());
+        } catch (JSQLParserException e) {
+            throw new QueryConversionException(e);
+        }
+        return new JoinOrderOptimizer(statisticsCatalog, indexCatalog).reorder(copy)
+                ? copy
+                : null;
+    }
+
     private SQLCommandInfo getSqlCommandInfo(Statement statement)
             throws QueryConversionException, ParseException {
 
@@ -184,9 +390,9 @@ public final class QueryConverter {
      *
      * @param convertId The unique conversion ID for tracking.
      * @param message   message of the log.
-     * @param query     The actual query string.
+     * @param query     The actual query; only rendered to a string when logging is enabled.
      */
-    private void printQuery(UUID convertId, String message, String query) {
+    private void printQuery(UUID convertId, String message, Object query) {
         if (!logQueryEnabled) {
             return;
         }
@@ -195,6 +401,67 @@ public final class QueryConverter {
     }
 
 
+    /**
+     * Logs whether the converted query is covered by an index, and which field breaks coverage otherwise.
+     *
+     * @param convertId     The unique conversion ID for tracking.
+     * @param indexCoverage The detected index coverage, may be {@code null}.
+     */
+    private void printIndexCoverage(UUID convertId, IndexCoverage indexCoverage) {
+        if (!logQueryEnabled || indexCoverage == null) {
+            return;
+        }
+
+        if (indexCoverage.isCovered()) {
+            LOGGER.info("[convertId={}] Query is covered by index '{}'", convertId, indexCoverage.getIndexName());
+        } else {
+            LOGGER.info("[convertId={}] Query is not covered: field '{}' is not in index '{}'",
+                    convertId, indexCoverage.getUncoveredField(), indexCoverage.getIndexName());
+        }
+    }
+
+    /**
+     * Logs that the converted query can never return documents.
+     *
+     * @param convertId   The unique conversion ID for tracking.
+     * @param alwaysEmpty Whether the WHERE clause is unsatisfiable.
+     */
+    private void printAlwaysEmpty(UUID convertId, boolean alwaysEmpty) {
+        if (!logQueryEnabled || !alwaysEmpty) {
+            return;
+        }
+
+        LOGGER.info("[convertId={}] WHERE clause can never be satisfied, query returns no documents", convertId);
+    }
+
+    /**
+     * Logs that an oversized {@code $in} list was split into chunks.
+     *
+     * @param convertId  The unique conversion ID for tracking.
+     * @param chunkCount The number of chunks, {@code 0} if the query is not split.
+     */
+    private void printChunkCount(UUID convertId, int chunkCount) {
+        if (!logQueryEnabled || chunkCount == 0) {
+            return;
+        }
+
+        LOGGER.info("[convertId={}] $in list split into {} chunks", convertId, chunkCount);
+    }
+
+    /**
+     * Logs the join order chosen by estimated cardinality.
+     *
+     * @param convertId The unique conversion ID for tracking.
+     * @param reordered The reordered SELECT, {@code null} if the joins were not reordered.
+     */
+    private void printJoinOrder(UUID convertId, PlainSelect reordered) {
+        if (!logQueryEnabled || reordered == null) {
+            return;
+        }
+
+        LOGGER.info("[convertId={}] Joins reordered by estimated cardinality: {}", convertId, reordered);
+    }
+
     /**
      * Logs the successful completion of a query conversion.
      *
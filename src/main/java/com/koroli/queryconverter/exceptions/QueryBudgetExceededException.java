@@ -0,0 +1,40 @@
+package com.koroli.queryconverter.exceptions;
+
+import com.koroli.queryconverter.model.BudgetLimit;
+import lombok.Getter;
+
+/**
+ * Exception that is thrown when a query exceeds one of the limits of the conversion budget.
+ */
+@Getter
+public class QueryBudgetExceededException extends QueryConversionException {
+
+    /**
+     * The exceeded limit.
+     */
+    private final BudgetLimit limit;
+
+    /**
+     * The configured maximum.
+     */
+    private final long maximum;
+
+    /**
+     * The value reached by the query; for limits checked while counting, the first value above the maximum.
+     */
+    private final long actual;
+
+    /**
+     * Constructs a new exception for the exceeded limit.
+     *
+     * @param limit   the exceeded limit.
+     * @param maximum the configured maximum.
+     * @param actual  the value reached by the query.
+     */
+    public QueryBudgetExceededException(BudgetLimit limit, long maximum, long actual) {
+        super("Query exceeds the conversion budget: " + limit + " is " + actual + ", maximum is " + maximum + ".");
+        this.limit = limit;
+        this.maximum = maximum;
+        this.actual = actual;
+    }
+}
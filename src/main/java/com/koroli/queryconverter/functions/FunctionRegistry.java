@@ -0,0 +1,105 @@
+package com.koroli.queryconverter.functions;
+
+import com.koroli.queryconverter.exceptions.QueryConversionException;
+import lombok.NonNull;
+import org.bson.Document;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable registry of {@link FunctionTranslator}s keyed by case-insensitive SQL function name.
+ * <p>
+ * The {@link #standard()} registry covers the common string, numeric, conditional and date functions
+ * (see {@link StandardFunctions}); it can be extended or overridden with {@link #withAll(Map)}.
+ * Names are stored in lower case in an immutable hash map, so a lookup is a single hash probe.
+ * Functions without a translator are passed through as {@code { "$name": arguments }}.
+ */
+public final class FunctionRegistry {
+
+    private static final FunctionRegistry STANDARD = new FunctionRegistry(StandardFunctions.translators());
+
+    private final Map<String, FunctionTranslator> translators;
+
+    private FunctionRegistry(Map<String, FunctionTranslator> translators) {
+        this.translators = Map.copyOf(translators);
+    }
+
+    /**
+     * Returns the registry of the standard functions.
+     *
+     * @return the standard {@link FunctionRegistry}.
+     */
+    public static FunctionRegistry standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Returns a registry with additional translators; a translator replaces any existing one of the same name.
+     *
+     * @param additionalTranslators the translators keyed by SQL function name, case-insensitive.
+     * @return the new {@link FunctionRegistry}, or this one if there is nothing to add.
+     */
+    public FunctionRegistry withAll(Map<String, FunctionTranslator> additionalTranslators) {
+        if (additionalTranslators == null || additionalTranslators.isEmpty()) {
+            return this;
+        }
+
+        Map<String, FunctionTranslator> merged = new HashMap<>(translators);
+        additionalTranslators.forEach((name, translator) -> merged.put(normalizeName(name), translator));
+        return new FunctionRegistry(merged);
+    }
+
+    /**
+     * Returns the translator of a function.
+     *
+     * @param functionName the SQL function name, case-insensitive.
+     * @return the {@link FunctionTranslator}, or {@code null} if the function has none.
+     */
+    public FunctionTranslator get(@NonNull String functionName) {
+        return translators.get(normalizeName(functionName));
+    }
+
+    /**
+     * Translates a function call, passing unknown functions through as {@code { "$name": arguments }}.
+     *
+     * @param functionName the SQL function name.
+     * @param arguments    the translated arguments.
+     * @return the aggregation expression of the call.
+     * @throws QueryConversionException if the call cannot be translated.
+     */
+    public Object translate(String functionName, List<Object> arguments) throws QueryConversionException {
+        FunctionTranslator translator = get(functionName);
+        if (translator != null) {
+            return translator.translate(arguments);
+        }
+
+        return new Document("$" + functionName, switch (arguments.size()) {
+            case 0 -> null;
+            case 1 -> arguments.getFirst();
+            default -> arguments;
+        });
+    }
+
+    /**
+     * Translates {@code EXTRACT(field FROM date)} into the matching date operator.
+     *
+     * @param field the extracted field, e.g. {@code YEAR}.
+     * @param date  the translated date operand.
+     * @return the aggregation expression.
+     * @throws QueryConversionException if the field is not supported.
+     */
+    public Object translateExtract(String field, Object date) throws QueryConversionException {
+        String operator = StandardFunctions.extractOperator(normalizeName(field));
+        if (operator == null) {
+            throw new QueryConversionException("Unsupported EXTRACT field: " + field);
+        }
+        return new Document(operator, date);
+    }
+
+    private static String normalizeName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,23 @@
+package com.koroli.queryconverter.functions;
+
+import com.koroli.queryconverter.exceptions.QueryConversionException;
+
+import java.util.List;
+
+/**
+ * Translates a SQL scalar function call into a MongoDB aggregation expression,
+ * e.g. {@code UPPER(name)} into {@code { "$toUpper": "$name" }}.
+ */
+@FunctionalInterface
+public interface FunctionTranslator {
+
+    /**
+     * Translates a function call.
+     *
+     * @param arguments the arguments of the call, already translated into aggregation expressions
+     *                  ({@code "$field"} for columns, plain values for constants, documents for nested calls).
+     * @return the aggregation expression of the call.
+     * @throws QueryConversionException if the call cannot be translated, e.g. on a wrong number of arguments.
+     */
+    Object translate(List<Object> arguments) throws QueryConversionException;
+}
@@ -0,0 +1,192 @@
+package com.koroli.queryconverter.functions;
+
+import com.koroli.queryconverter.exceptions.QueryConversionException;
+import lombok.experimental.UtilityClass;
+import org.bson.Document;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translators of the standard SQL scalar functions into MongoDB aggregation operators.
+ */
+@UtilityClass
+class StandardFunctions {
+
+    /**
+     * Fields of {@code EXTRACT(field FROM date)} and their date operators.
+     */
+    private static final Map<String, String> EXTRACT_OPERATORS = Map.of(
+            "year",   "$year",
+            "month",  "$month",
+            "week",   "$week",
+            "day",    "$dayOfMonth",
+            "dow",    "$dayOfWeek",
+            "doy",    "$dayOfYear",
+            "hour",   "$hour",
+            "minute", "$minute",
+            "second", "$second"
+    );
+
+    /**
+     * Builds the translators of the standard functions, keyed by lower-case name.
+     *
+     * @return the translators.
+     */
+    static Map<String, FunctionTranslator> translators() {
+        Map<String, FunctionTranslator> translators = new HashMap<>();
+
+        // ----=== Strings ===----
+        register(translators, unary("$toUpper"), "upper", "ucase");
+        register(translators, unary("$toLower"), "lower", "lcase");
+        register(translators, unary("$strLenCP"), "length", "char_length", "character_length");
+        register(translators, trim("$trim"), "trim", "btrim");
+        register(translators, trim("$ltrim"), "ltrim");
+        register(translators, trim("$rtrim"), "rtrim");
+        register(translators, variadic("$concat", 1), "concat");
+        register(translators, StandardFunctions::substring, "substring", "substr");
+        register(translators, StandardFunctions::replace, "replace");
+
+        // ----=== Conditionals ===----
+        register(translators, variadic("$ifNull", 2), "coalesce", "ifnull", "nvl");
+        register(translators, StandardFunctions::nullIf, "nullif");
+
+        // ----=== Numbers ===----
+        register(translators, unary("$abs"), "abs");
+        register(translators, unary("$ceil"), "ceil", "ceiling");
+        register(translators, unary("$floor"), "floor");
+        register(translators, unary("$sqrt"), "sqrt");
+        register(translators, unary("$exp"), "exp");
+        register(translators, unary("$ln"), "ln");
+        register(translators, unary("$log10"), "log10");
+        register(translators, ranged("$round", 1, 2), "round");
+        register(translators, ranged("$trunc", 1, 2), "trunc", "truncate");
+        register(translators, ranged("$pow", 2, 2), "power", "pow");
+        register(translators, ranged("$mod", 2, 2), "mod");
+
+        // ----=== Dates ===----
+        register(translators, arguments -> "$$NOW", "now");
+        register(translators, StandardFunctions::dateTrunc, "date_trunc");
+        register(translators, unary("$year"), "year");
+        register(translators, unary("$month"), "month");
+        register(translators, unary("$week"), "week");
+        register(translators, unary("$dayOfMonth"), "day", "dayofmonth");
+        register(translators, unary("$dayOfWeek"), "dayofweek");
+        register(translators, unary("$dayOfYear"), "dayofyear");
+        register(translators, unary("$hour"), "hour");
+        register(translators, unary("$minute"), "minute");
+        register(translators, unary("$second"), "second");
+
+        // ----=== Conversions ===----
+        register(translators, unary("$toObjectId"), "oid", "toobjectid");
+        register(translators, unary("$toDate"), "timestamp", "todate");
+
+        return translators;
+    }
+
+    /**
+     * Returns the date operator of an {@code EXTRACT} field.
+     *
+     * @param field the lower-case field name.
+     * @return the operator, or {@code null} if the field is not supported.
+     */
+    static String extractOperator(String field) {
+        return EXTRACT_OPERATORS.get(field);
+    }
+
+    private static void register(Map<String, FunctionTranslator> translators, FunctionTranslator translator, String... names) {
+        for (String name : names) {
+            translators.put(name, translator);
+        }
+    }
+
+    private static FunctionTranslator unary(String operator) {
+        return arguments -> {
+            checkArity(operator, arguments, 1, 1);
+            return new Document(operator, arguments.getFirst());
+        };
+    }
+
+    private static FunctionTranslator ranged(String operator, int min, int max) {
+        return arguments -> {
+            checkArity(operator, arguments, min, max);
+            return new Document(operator, arguments.size() == 1 ? arguments.getFirst() : arguments);
+        };
+    }
+
+    private static FunctionTranslator variadic(String operator, int min) {
+        return arguments -> {
+            checkArity(operator, arguments, min, Integer.MAX_VALUE);
+            return new Document(operator, arguments);
+        };
+    }
+
+    private static FunctionTranslator trim(String operator) {
+        return arguments -> {
+            checkArity(operator, arguments, 1, 2);
+            Document trim = new Document("input", arguments.getFirst());
+            if (arguments.size() == 2) {
+                trim.append("chars", arguments.get(1));
+            }
+            return new Document(operator, trim);
+        };
+    }
+
+    /**
+     * {@code SUBSTRING(s, start[, length])}, where {@code start} is 1-based as in SQL.
+     */
+    private static Object substring(List<Object> arguments) throws QueryConversionException {
+        checkArity("$substrCP", arguments, 2, 3);
+        Object string = arguments.getFirst();
+        Object start = arguments.get(1);
+
+        Object zeroBasedStart = start instanceof Integer || start instanceof Long
+                ? Math.max(((Number) start).longValue() - 1, 0)
+                : new Document("$subtract", Arrays.asList(start, 1));
+        Object length = arguments.size() == 3
+                ? arguments.get(2)
+                : new Document("$strLenCP", string);
+
+        return new Document("$substrCP", Arrays.asList(string, zeroBasedStart, length));
+    }
+
+    /**
+     * {@code REPLACE(s, find, replacement)}, replacing every occurrence.
+     */
+    private static Object replace(List<Object> arguments) throws QueryConversionException {
+        checkArity("$replaceAll", arguments, 3, 3);
+        return new Document("$replaceAll", new Document("input", arguments.getFirst())
+                .append("find", arguments.get(1))
+                .append("replacement", arguments.get(2)));
+    }
+
+    /**
+     * {@code NULLIF(a, b)}: {@code null} if both are equal, otherwise {@code a}.
+     */
+    private static Object nullIf(List<Object> arguments) throws QueryConversionException {
+        checkArity("$cond", arguments, 2, 2);
+        return new Document("$cond", Arrays.asList(
+                new Document("$eq", Arrays.asList(arguments.getFirst(), arguments.get(1))),
+                null,
+                arguments.getFirst()
+        ));
+    }
+
+    /**
+     * {@code DATE_TRUNC(unit, date)}, with the unit first as in PostgreSQL.
+     */
+    private static Object dateTrunc(List<Object> arguments) throws QueryConversionException {
+        checkArity("$dateTrunc", arguments, 2, 2);
+        return new Document("$dateTrunc", new Document("date", arguments.get(1))
+                .append("unit", arguments.getFirst()));
+    }
+
+    private static void checkArity(String operator, List<Object> arguments, int min, int max)
+            throws QueryConversionException {
+        if (arguments.size() < min || arguments.size() > max) {
+            throw new QueryConversionException("Wrong number of arguments for " + operator + ": " + arguments.size());
+        }
+    }
+}
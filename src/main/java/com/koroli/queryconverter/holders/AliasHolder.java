@@ -1,10 +1,14 @@
 package com.koroli.queryconverter.holders;
 
 import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.model.ExpressionKey;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import net.sf.jsqlparser.expression.Expression;
 
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 /**
@@ -24,11 +28,22 @@ public class AliasHolder {
      */
     private final Map<String, String> fieldFromAliasHash;
 
+    /**
+     * Maps the structural keys of aliased select expressions to their aliases.
+     */
+    private final Map<ExpressionKey, String> aliasFromExpressionKey;
+
+    /**
+     * Caches the structural keys of the looked up expressions by node instance.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<Expression, ExpressionKey> expressionKeys = new IdentityHashMap<>();
+
     /**
      * Creates an empty {@link AliasHolder}.
      */
     public AliasHolder() {
-        this(Collections.emptyMap(), Collections.emptyMap());
+        this(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
     }
 
     /**
@@ -41,6 +56,29 @@ public class AliasHolder {
         return aliasFromFieldHash.get(field);
     }
 
+    /**
+     * Retrieves the alias of a select expression, compared structurally rather than by its text.
+     * The key of each expression node is computed once.
+     *
+     * @param expression the expression for which to retrieve the alias.
+     * @return the alias of the expression, or {@code null} if no alias exists.
+     */
+    public String getAliasFromExpression(Expression expression) {
+        return aliasFromExpressionKey.isEmpty()
+                ? null
+                : aliasFromExpressionKey.get(getExpressionKey(expression));
+    }
+
+    /**
+     * Retrieves the structural key of an expression, computing it on the first lookup of the node.
+     *
+     * @param expression the expression.
+     * @return the {@link ExpressionKey} of the expression.
+     */
+    public ExpressionKey getExpressionKey(Expression expression) {
+        return expressionKeys.computeIfAbsent(expression, ExpressionKey::of);
+    }
+
     /**
      * Checks if an alias exists for a given field expression.
      *
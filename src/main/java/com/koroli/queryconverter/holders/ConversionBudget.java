@@ -0,0 +1,60 @@
+package com.koroli.queryconverter.holders;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Holds the complexity limits of a single query conversion. A limit of {@code 0} means unlimited.
+ */
+@Value
+@Builder
+public class ConversionBudget {
+
+    private static final ConversionBudget UNLIMITED = ConversionBudget.builder().build();
+
+    /**
+     * Maximum number of expression nodes in the WHERE, HAVING, SELECT, GROUP BY, ORDER BY and JOIN ON clauses,
+     * including the expressions of sub-selects, CASE and CAST.
+     */
+    @Builder.Default
+    int maxAstNodes = 0;
+
+    /**
+     * Maximum nesting depth of an expression; a chain of the same AND/OR operator counts as one level.
+     */
+    @Builder.Default
+    int maxNestingDepth = 0;
+
+    /**
+     * Maximum number of items in a single IN list.
+     */
+    @Builder.Default
+    int maxInListLength = 0;
+
+    /**
+     * Maximum number of joined tables.
+     */
+    @Builder.Default
+    int maxJoins = 0;
+
+    /**
+     * Maximum number of stages of a generated aggregation pipeline.
+     */
+    @Builder.Default
+    int maxPipelineStages = 0;
+
+    /**
+     * Maximum size of the generated query text, in bytes.
+     */
+    @Builder.Default
+    long maxOutputBytes = 0;
+
+    /**
+     * Returns a budget without limits.
+     *
+     * @return the unlimited {@link ConversionBudget}.
+     */
+    public static ConversionBudget unlimited() {
+        return UNLIMITED;
+    }
+}
@@ -0,0 +1,103 @@
+package com.koroli.queryconverter.holders;
+
+import com.koroli.queryconverter.functions.FunctionRegistry;
+import com.koroli.queryconverter.utils.ParallelUtils;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Holds tuning options shared by the processors during a query conversion.
+ */
+@Value
+@Builder
+public class ConversionOptions {
+
+    private static final ConversionOptions DEFAULTS = ConversionOptions.builder().build();
+
+    /**
+     * Minimum number of operands (IN list literals, AND/OR operands) from which they are converted
+     * in parallel on {@link #getParallelPool()}.
+     */
+    @Builder.Default
+    int parallelThreshold = 10_000;
+
+    /**
+     * Fork-join pool large operand lists are converted on; by default a pool dedicated to the converter.
+     */
+    @Builder.Default
+    ForkJoinPool parallelPool = ParallelUtils.conversionPool();
+
+    /**
+     * Whether literals of IN / NOT IN lists are sorted in the output, which makes the query text
+     * stable regardless of the order the values were written in.
+     */
+    @Builder.Default
+    boolean sortInLists = false;
+
+    /**
+     * Maximum number of values per {@code $in} chunk; {@code 0} disables splitting of {@code $in} lists.
+     */
+    @Builder.Default
+    int inChunkSize = 0;
+
+    /**
+     * Maximum estimated encoded size of the values of one {@code $in} chunk, in bytes.
+     * Keeps every chunk well below the 16 MB BSON document limit.
+     */
+    @Builder.Default
+    int maxInChunkBytes = 4 * 1024 * 1024;
+
+    /**
+     * Translators of SQL scalar functions into MongoDB aggregation expressions.
+     */
+    @Builder.Default
+    FunctionRegistry functionRegistry = FunctionRegistry.standard();
+
+    /**
+     * Locale of the case-insensitive collation ({@code strength: 2}) attached to queries with case-insensitive
+     * predicates; it must match the locale of the collation indexes for them to be used.
+     */
+    @Builder.Default
+    String collationLocale = "en";
+
+    /**
+     * Creation-time columns keyed by collection: comparisons of such a column with a date constant are translated
+     * into an {@code _id} range of synthetic ObjectIds, answered from the default {@code _id} index.
+     */
+    @Builder.Default
+    Map<String, String> objectIdTimeFields = Map.of();
+
+    /**
+     * Clock that {@code NOW()}, {@code CURRENT_TIMESTAMP} and {@code CURRENT_DATE} are read from when constant
+     * expressions are folded; its zone is the zone of {@code CURRENT_DATE}.
+     */
+    @Builder.Default
+    Clock clock = Clock.systemUTC();
+
+    /**
+     * Whether the filters are brought into a canonical shape: predicates ordered deterministically and nested
+     * {@code $and} / {@code $or} flattened, so that logically equal queries share one server-side plan cache entry.
+     */
+    @Builder.Default
+    boolean canonicalShapes = false;
+
+    /**
+     * Whether the literals of the top-level {@code $match} of an aggregation are hoisted into the {@code let} option
+     * and referenced as {@code $$} variables, so that queries differing only in their literals share one pipeline.
+     */
+    @Builder.Default
+    boolean letParameters = false;
+
+    /**
+     * Returns the default options.
+     *
+     * @return the default {@link ConversionOptions}.
+     */
+    public static ConversionOptions defaults() {
+        return DEFAULTS;
+    }
+}
@@ -1,6 +1,7 @@
 package com.koroli.queryconverter.holders;
 
 import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.model.ExpressionKey;
 import com.koroli.queryconverter.model.FieldType;
 import com.koroli.queryconverter.model.SQLCommandType;
 import com.koroli.queryconverter.utils.ExpressionUtils;
@@ -46,6 +47,7 @@ public final class SQLCommandInfo implements Holder {
     private final Expression havingClause;
     private final AliasHolder aliasHolder;
     private final List<SelectItem<?>> selectItems;
+    private final SelectListInfo selectList;
     private final List<Join> joins;
     private final List<String> groupByFields;
     private final List<OrderByElement> orderByElements;
@@ -144,6 +146,7 @@ public final class SQLCommandInfo implements Holder {
                 .havingClause(null)
                 .aliasHolder(null)
                 .selectItems(Collections.emptyList())
+                .selectList(SelectListInfo.empty())
                 .joins(delete.getJoins())
                 .groupByFields(Collections.emptyList())
                 .orderByElements(delete.getOrderByElements())
@@ -176,6 +179,7 @@ public final class SQLCommandInfo implements Holder {
                 .havingClause(null)
                 .aliasHolder(null)
                 .selectItems(Collections.emptyList())
+                .selectList(SelectListInfo.empty())
                 .joins(update.getJoins())
                 .groupByFields(Collections.emptyList())
                 .orderByElements(Collections.emptyList())
@@ -208,6 +212,7 @@ public final class SQLCommandInfo implements Holder {
                 .havingClause(null)
                 .aliasHolder(null)
                 .selectItems(Collections.emptyList())
+                .selectList(SelectListInfo.empty())
                 .joins(Collections.emptyList())
                 .groupByFields(Collections.emptyList())
                 .orderByElements(Collections.emptyList())
@@ -231,16 +236,19 @@ public final class SQLCommandInfo implements Holder {
                 plainSelect.getFromItem(),
                 plainSelect.getJoins());
 
+        SelectListInfo selectList = SelectListInfo.of(plainSelect.getSelectItems());
+
         return this.toBuilder()
                 .sqlCommandType(SQLCommandType.SELECT)
                 .isDistinct(plainSelect.getDistinct() != null)
-                .isCountAll(ValidationUtils.isCountAllQuery(plainSelect.getSelectItems()))
-                .isTotalGroup(ValidationUtils.isTotalGroup(plainSelect.getSelectItems()))
+                .isCountAll(selectList.isCountAll())
+                .isTotalGroup(selectList.isTotalGroup())
                 .from(holder)
                 .whereClause(plainSelect.getWhere())
                 .havingClause(plainSelect.getHaving())
                 .aliasHolder(generateHashAliasFromSelectItems(plainSelect.getSelectItems(), holder))
                 .selectItems(plainSelect.getSelectItems())
+                .selectList(selectList)
                 .joins(plainSelect.getJoins())
                 .groupByFields(QueryUtils.extractGroupByColumns(plainSelect))
                 .orderByElements(plainSelect.getOrderByElements())
@@ -272,6 +280,8 @@ public final class SQLCommandInfo implements Holder {
     private AliasHolder generateHashAliasFromSelectItems(List<SelectItem<?>> selectItems, FromInfo holder) {
         Map<String, String> aliasFromField = new HashMap<>();
         Map<String, String> fieldFromAlias = new HashMap<>();
+        Map<ExpressionKey, String> aliasFromExpressionKey = new HashMap<>();
+        AliasHolder aliasHolder = new AliasHolder(aliasFromField, fieldFromAlias, aliasFromExpressionKey);
 
         for (SelectItem<?> item : selectItems) {
             if (item.getExpression() instanceof AllColumns || item.getExpression() instanceof AllTableColumns) {
@@ -289,9 +299,10 @@ public final class SQLCommandInfo implements Holder {
 
                 aliasFromField.put(expressionStr, aliasStr);
                 fieldFromAlias.put(aliasStr, expressionStr);
+                aliasFromExpressionKey.put(aliasHolder.getExpressionKey(expression), aliasStr);
             }
         }
 
-        return new AliasHolder(aliasFromField, fieldFromAlias);
+        return aliasHolder;
     }
 }
\ No newline at end of file
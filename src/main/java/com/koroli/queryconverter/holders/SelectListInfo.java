@@ -0,0 +1,200 @@
+package com.koroli.queryconverter.holders;
+
+import com.koroli.queryconverter.model.SelectItemKind;
+import com.koroli.queryconverter.utils.ExpressionUtils;
+import com.koroli.queryconverter.utils.ParsingUtils;
+import com.koroli.queryconverter.utils.ValidationUtils;
+import lombok.Getter;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.SelectItem;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, immutable descriptor of the SELECT list of a query, built once per statement.
+ * <p>
+ * Every item is described by its {@link SelectItemKind}, its name (the column name, or the lower-case
+ * function name) and its alias, stored in parallel arrays. Names are interned per statement, so a column
+ * selected several times is represented by a single string. The projection and grouping paths switch on the kind
+ * instead of matching JSqlParser classes; the original {@link SelectItem} is only needed to translate function
+ * arguments.
+ * <p>
+ * Only the SELECT list is described here. WHERE, HAVING, JOIN and ORDER BY are still translated from the
+ * JSqlParser expressions, so the statement stays referenced for the whole conversion.
+ */
+public final class SelectListInfo {
+
+    private static final SelectListInfo EMPTY = new SelectListInfo(Collections.emptyList());
+
+    private final List<SelectItem<?>> items;
+    private final SelectItemKind[] kinds;
+    private final String[] names;
+    private final String[] aliases;
+
+    /**
+     * Whether the list is a single {@code *}.
+     */
+    @Getter
+    private final boolean selectAll;
+
+    /**
+     * Whether the list is a single {@code count(*)}.
+     */
+    @Getter
+    private final boolean countAll;
+
+    /**
+     * Whether the list contains an aggregate function.
+     */
+    @Getter
+    private final boolean totalGroup;
+
+    private SelectListInfo(List<SelectItem<?>> items) {
+        int size = items.size();
+        Map<String, String> namePool = new HashMap<>();
+        boolean hasAggregate = false;
+
+        this.items = items;
+        this.kinds = new SelectItemKind[size];
+        this.names = new String[size];
+        this.aliases = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            SelectItem<?> item = items.get(i);
+            Expression expression = item.getExpression();
+
+            kinds[i] = kindOf(expression);
+            names[i] = switch (kinds[i]) {
+                case COLUMN -> intern(namePool, ParsingUtils.extractStringValue(expression));
+                case AGGREGATE, FUNCTION -> intern(namePool, ((Function) expression).getName().toLowerCase());
+                default -> null;
+            };
+            aliases[i] = item.getAlias() != null
+                    ? intern(namePool, item.getAlias().getName())
+                    : null;
+            hasAggregate |= kinds[i] == SelectItemKind.AGGREGATE;
+        }
+
+        this.selectAll = size == 1 && kinds[0] == SelectItemKind.ALL_COLUMNS;
+        this.countAll = size == 1 && kinds[0] == SelectItemKind.AGGREGATE && ValidationUtils.isCountAllQuery(items);
+        this.totalGroup = hasAggregate;
+    }
+
+    /**
+     * Builds the description of a SELECT list.
+     *
+     * @param items the select items, may be {@code null}.
+     * @return the {@link SelectListInfo}.
+     */
+    public static SelectListInfo of(List<SelectItem<?>> items) {
+        return items == null || items.isEmpty()
+                ? EMPTY
+                : new SelectListInfo(items);
+    }
+
+    /**
+     * Returns the description of an empty SELECT list.
+     *
+     * @return the empty {@link SelectListInfo}.
+     */
+    public static SelectListInfo empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the number of items of the SELECT list.
+     *
+     * @return the number of items.
+     */
+    public int size() {
+        return kinds.length;
+    }
+
+    /**
+     * Returns the kind of an item.
+     *
+     * @param index the item index.
+     * @return the {@link SelectItemKind} of the item.
+     */
+    public SelectItemKind getKind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Returns the name of an item.
+     *
+     * @param index the item index.
+     * @return the column name of a {@link SelectItemKind#COLUMN}, the lower-case function name of a
+     * {@link SelectItemKind#AGGREGATE} or {@link SelectItemKind#FUNCTION}, otherwise {@code null}.
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the alias of an item.
+     *
+     * @param index the item index.
+     * @return the alias of the item, or {@code null} if it has none.
+     */
+    public String getAlias(int index) {
+        return aliases[index];
+    }
+
+    /**
+     * Returns the alias of an item, or its name if it has no alias.
+     *
+     * @param index the item index.
+     * @return the alias of the item if it has one, otherwise its name.
+     */
+    public String getAliasOrName(int index) {
+        return aliases[index] != null ? aliases[index] : names[index];
+    }
+
+    /**
+     * Returns the original JSqlParser item, needed to translate function arguments.
+     *
+     * @param index the item index.
+     * @return the original select item.
+     */
+    public SelectItem<?> getItem(int index) {
+        return items.get(index);
+    }
+
+    /**
+     * Counts the items of a kind.
+     *
+     * @param kind the kind.
+     * @return the number of items of the kind.
+     */
+    public int count(SelectItemKind kind) {
+        int count = 0;
+        for (SelectItemKind itemKind : kinds) {
+            count += itemKind == kind ? 1 : 0;
+        }
+        return count;
+    }
+
+    private static SelectItemKind kindOf(Expression expression) {
+        return switch (expression) {
+            case null -> SelectItemKind.EMPTY;
+            case AllColumns ignored -> SelectItemKind.ALL_COLUMNS;
+            case Column ignored -> SelectItemKind.COLUMN;
+            case Function function -> ExpressionUtils.isAggregateExpression(function)
+                    ? SelectItemKind.AGGREGATE
+                    : SelectItemKind.FUNCTION;
+            default -> SelectItemKind.OTHER;
+        };
+    }
+
+    private static String intern(Map<String, String> pool, String value) {
+        String pooled = pool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+}
@@ -0,0 +1,13 @@
+package com.koroli.queryconverter.model;
+
+/**
+ * Enum of the complexity limits enforced by a {@link com.koroli.queryconverter.holders.ConversionBudget}.
+ */
+public enum BudgetLimit {
+    AST_NODES,
+    NESTING_DEPTH,
+    IN_LIST_LENGTH,
+    JOINS,
+    PIPELINE_STAGES,
+    OUTPUT_BYTES
+}
@@ -0,0 +1,114 @@
+package com.koroli.queryconverter.model;
+
+import com.koroli.queryconverter.utils.ExpressionUtils;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.CastExpression;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.LikeExpression;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.Select;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Structural key of an {@link Expression}, usable as a map key in place of {@code Expression.toString()}.
+ * <p>
+ * The key is the pre-order sequence of node kinds, identifiers and child counts of the expression tree,
+ * built in a single iterative pass; its hash is computed once. Two expressions have equal keys when they
+ * have the same shape, the same column names and literals, and the same function names ignoring case,
+ * so {@code SUM(a)} and {@code sum(a)} share a key. Nodes without a dedicated rule are keyed by their text.
+ */
+public final class ExpressionKey {
+
+    private final Object[] tokens;
+    private final int hash;
+
+    private ExpressionKey(Object[] tokens) {
+        this.tokens = tokens;
+        this.hash = Arrays.hashCode(tokens);
+    }
+
+    /**
+     * Computes the structural key of an expression.
+     *
+     * @param expression the expression.
+     * @return the {@link ExpressionKey} of the expression.
+     */
+    public static ExpressionKey of(Expression expression) {
+        List<Object> tokens = new ArrayList<>();
+        List<Expression> children = new ArrayList<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Expression current = pending.pop();
+            if (current == null) {
+                tokens.add(null);
+                continue;
+            }
+
+            children.clear();
+            ExpressionUtils.forEachChild(current, children::add);
+
+            tokens.add(current.getClass());
+            tokens.add(label(current, children.isEmpty()));
+            tokens.add(children.size());
+
+            for (int i = children.size() - 1; i >= 0; i--) {
+                pending.push(children.get(i));
+            }
+        }
+        return new ExpressionKey(tokens.toArray());
+    }
+
+    /**
+     * Returns the identifying part of a node that is not covered by its children.
+     */
+    private static Object label(Expression expression, boolean leaf) {
+        return switch (expression) {
+            case Column column -> column.getFullyQualifiedName();
+            case Function function -> function.getName().toLowerCase()
+                    + (function.isDistinct() ? " distinct" : "")
+                    + (function.isAllColumns() ? " *" : "");
+            case StringValue stringValue -> stringValue.getValue();
+            case LongValue longValue -> longValue.getStringValue();
+            case DoubleValue doubleValue -> doubleValue.getValue();
+            case SignedExpression signedExpression -> signedExpression.getSign();
+            case LikeExpression like -> (like.isNot() ? "not " : "") + like.getLikeKeyWord();
+            case InExpression in -> in.isNot();
+            case IsNullExpression isNull -> isNull.isNot();
+            case Between between -> between.isNot();
+            case NotExpression not -> not.isExclamationMark();
+            case CastExpression cast -> cast.keyword + " " + cast.getColDataType();
+            case Select select -> select.toString();
+            case BinaryExpression ignored -> "";
+            case ExpressionList<?> ignored -> "";
+            default -> leaf ? expression.toString() : "";
+        };
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other
+                || (other instanceof ExpressionKey key && hash == key.hash && Arrays.equals(tokens, key.tokens));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
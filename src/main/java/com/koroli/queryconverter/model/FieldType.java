@@ -5,6 +5,10 @@ package com.koroli.queryconverter.model;
  */
 public enum FieldType {
     STRING,
+    /**
+     * A string compared ignoring case, e.g. a field with a case-insensitive collation index.
+     */
+    CASE_INSENSITIVE_STRING,
     NUMBER,
     BOOLEAN,
     DATE,
@@ -0,0 +1,150 @@
+package com.koroli.queryconverter.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Compiled form of a SQL LIKE pattern.
+ * <p>
+ * A pattern without wildcards compiles to a plain {@link #getLiteral() literal} matched by equality.
+ * Any other pattern compiles to a regex in which every literal character is escaped, {@code %} becomes
+ * {@code .*}, {@code _} becomes {@code .} and {@code [...]} ranges are kept as character classes.
+ * The regex is anchored only where needed, so {@code 'abc%'} compiles to {@code ^abc}: a case-sensitive
+ * regex with a literal prefix after {@code ^} is answered by MongoDB from an index range on that prefix.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class LikePattern {
+
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    /**
+     * The matched value if the pattern has no wildcards, otherwise {@code null}.
+     */
+    String literal;
+
+    /**
+     * The literal prefix if the pattern is a literal followed only by {@code %}, such as {@code 'abc%'},
+     * otherwise {@code null}.
+     */
+    String prefix;
+
+    /**
+     * The equivalent regex, anchored where the pattern is.
+     */
+    String regex;
+
+    /**
+     * Whether the pattern matches ignoring case ({@code ILIKE}).
+     */
+    boolean caseInsensitive;
+
+    /**
+     * Whether the pattern starts with at least one literal character, so it can be bounded on an index.
+     */
+    boolean literalPrefix;
+
+    /**
+     * Compiles a LIKE pattern.
+     *
+     * @param pattern         the pattern.
+     * @param escape          the escape character of the {@code ESCAPE} clause, or {@code null} if there is none.
+     * @param caseInsensitive whether the pattern matches ignoring case.
+     * @return the compiled {@link LikePattern}.
+     */
+    public static LikePattern compile(String pattern, Character escape, boolean caseInsensitive) {
+        StringBuilder regex = new StringBuilder(pattern.length() + 8).append('^');
+        StringBuilder literal = new StringBuilder(pattern.length());
+        boolean wildcard = false;
+        int prefixLength = -1;
+        String prefix = null;
+
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            int rangeEnd = c == '[' ? pattern.indexOf(']', i + 2) : -1;
+
+            if (escape != null && c == escape && i + 1 < pattern.length()) {
+                c = pattern.charAt(++i);
+            } else if (c == '%' || c == '_' || rangeEnd > 0) {
+                if (!wildcard) {
+                    prefixLength = literal.length();
+                    wildcard = true;
+                    if (c == '%' && isAll(pattern, i, '%')) {
+                        prefix = literal.toString();
+                    }
+                }
+                if (c == '%') {
+                    if (!endsWith(regex, ".*")) {
+                        regex.append(".*");
+                    }
+                } else if (c == '_') {
+                    regex.append('.');
+                } else {
+                    regex.append('[').append(pattern, i + 1, rangeEnd).append(']');
+                    i = rangeEnd;
+                }
+                continue;
+            }
+
+            literal.append(c);
+            if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+
+        if (!wildcard) {
+            return new LikePattern(literal.toString(), null, regex.append('$').toString(), caseInsensitive, true);
+        }
+
+        String anchored = endsWith(regex, ".*")
+                ? regex.substring(0, regex.length() - 2)
+                : regex.append('$').toString();
+        if (anchored.startsWith("^.*")) {
+            anchored = anchored.substring(3);
+        }
+        return new LikePattern(null, prefix, anchored, caseInsensitive, prefixLength > 0);
+    }
+
+    /**
+     * Checks if the pattern has no wildcards and is matched by equality.
+     *
+     * @return {@code true} if {@link #getLiteral()} holds the matched value, otherwise {@code false}.
+     */
+    public boolean isExact() {
+        return literal != null;
+    }
+
+    /**
+     * Checks if a match of the pattern can be answered from an index range instead of a full scan:
+     * the pattern is an exact value or a case-sensitive regex with a literal prefix.
+     *
+     * @return {@code true} if an index bound is possible, otherwise {@code false}.
+     */
+    public boolean isIndexBounded() {
+        return !caseInsensitive && literalPrefix;
+    }
+
+    private static boolean isAll(String string, int from, char c) {
+        for (int i = from; i < string.length(); i++) {
+            if (string.charAt(i) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean endsWith(CharSequence sequence, String suffix) {
+        int offset = sequence.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (sequence.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,28 @@
+package com.koroli.queryconverter.model;
+
+/**
+ * Enum describing what a side of a comparison refers to.
+ * Only a comparison between a {@link #FIELD} and a {@link #CONSTANT} can be expressed
+ * with query-language operators; everything else has to be evaluated inside {@code $expr}.
+ */
+public enum OperandKind {
+    /**
+     * A document field path (a column, or an aggregated value after {@code $group}).
+     */
+    FIELD,
+
+    /**
+     * A literal value known at conversion time.
+     */
+    CONSTANT,
+
+    /**
+     * A pipeline variable such as {@code $$var} from a {@code $lookup} "let".
+     */
+    VARIABLE,
+
+    /**
+     * A value computed from other fields (function call, arithmetic).
+     */
+    COMPUTED
+}
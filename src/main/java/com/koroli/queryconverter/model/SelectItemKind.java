@@ -0,0 +1,37 @@
+package com.koroli.queryconverter.model;
+
+/**
+ * Enum describing what an item of the SELECT list is, so that processors can dispatch
+ * on the kind instead of on JSqlParser classes.
+ */
+public enum SelectItemKind {
+    /**
+     * {@code *} or {@code t.*}.
+     */
+    ALL_COLUMNS,
+
+    /**
+     * A plain column reference.
+     */
+    COLUMN,
+
+    /**
+     * A call of an aggregate function: {@code sum}, {@code avg}, {@code min}, {@code max} or {@code count}.
+     */
+    AGGREGATE,
+
+    /**
+     * A call of any other function.
+     */
+    FUNCTION,
+
+    /**
+     * Any other expression (arithmetic, literals, sub-queries).
+     */
+    OTHER,
+
+    /**
+     * An item without an expression.
+     */
+    EMPTY
+}
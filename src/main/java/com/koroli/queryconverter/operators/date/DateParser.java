@@ -1,5 +1,6 @@
 package com.koroli.queryconverter.operators.date;
 
+import com.koroli.queryconverter.utils.BoundedCache;
 import lombok.experimental.UtilityClass;
 
 import java.time.Instant;
@@ -18,6 +19,11 @@ import java.util.Date;
 public class DateParser {
     private static final ZoneId UTC = ZoneId.of("UTC");
 
+    /**
+     * Formatters built from the user-supplied formats, keyed by format.
+     */
+    private static final BoundedCache<String, DateTimeFormatter> FORMATTERS = new BoundedCache<>(256);
+
     /**
      * Enum to represent different types of temporal data.
      */
@@ -33,7 +39,7 @@ public class DateParser {
      * @return a {@link Date} object representing the parsed date.
      */
     public static Date parse(String format, String value) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format).withZone(UTC);
+        DateTimeFormatter formatter = FORMATTERS.get(format, pattern -> DateTimeFormatter.ofPattern(pattern).withZone(UTC));
 
         try {
             TemporalAccessor accessor = formatter.parse(value);
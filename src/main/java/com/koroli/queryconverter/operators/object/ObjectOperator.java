@@ -5,11 +5,16 @@ import com.koroli.queryconverter.operators.MongoOperator;
 import com.koroli.queryconverter.operators.object.comparisons.EqualsComparison;
 import com.koroli.queryconverter.operators.object.comparisons.InComparison;
 import com.koroli.queryconverter.operators.object.comparisons.NotEqualsComparison;
+import com.koroli.queryconverter.operators.object.comparisons.RangeComparison;
 import lombok.Builder;
 import lombok.Value;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
 import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
 import net.sf.jsqlparser.expression.operators.relational.NotEqualsTo;
 import org.bson.Document;
 
@@ -35,6 +40,10 @@ public class ObjectOperator implements MongoOperator {
             case EqualsTo ignored            -> new EqualsComparison();
             case NotEqualsTo ignored         -> new NotEqualsComparison();
             case InExpression inExpression   -> new InComparison(inExpression.isNot());
+            case GreaterThan ignored         -> new RangeComparison("$gt");
+            case GreaterThanEquals ignored   -> new RangeComparison("$gte");
+            case MinorThan ignored           -> new RangeComparison("$lt");
+            case MinorThanEquals ignored     -> new RangeComparison("$lte");
             default -> throw new QueryConversionException("Unsupported comparison expression: " + comparisonExpression);
         };
 
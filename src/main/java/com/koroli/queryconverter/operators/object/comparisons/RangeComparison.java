@@ -0,0 +1,27 @@
+package com.koroli.queryconverter.operators.object.comparisons;
+
+import com.koroli.queryconverter.operators.object.ObjectComparison;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * Implements a range comparison ({@code $gt}, {@code $gte}, {@code $lt} or {@code $lte}) for MongoDB queries.
+ * ObjectIds are ordered by their leading creation timestamp, so a range of ObjectIds is a range of creation times.
+ */
+@RequiredArgsConstructor
+public class RangeComparison implements ObjectComparison {
+
+    private final String operator;
+
+    /**
+     * Compares the value using the range operator of this comparison.
+     *
+     * @param value the value to compare.
+     * @return the MongoDB document for the range comparison.
+     */
+    @Override
+    public Document compare(Object value) {
+        return new Document(operator, new ObjectId(value.toString()));
+    }
+}
@@ -0,0 +1,397 @@
+package com.koroli.queryconverter.optimizers;
+
+import com.koroli.queryconverter.model.FieldType;
+import com.koroli.queryconverter.model.LikePattern;
+import com.koroli.queryconverter.utils.NormalizationUtils;
+import com.koroli.queryconverter.utils.ParsingUtils;
+import com.koroli.queryconverter.utils.ValidationUtils;
+import lombok.RequiredArgsConstructor;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+import net.sf.jsqlparser.schema.Column;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rewrites case-insensitive predicates so that they can be answered from a case-insensitive collation index
+ * (collation strength 2) instead of a regex or {@code $expr} scan:
+ * <ul>
+ *     <li>{@code s ILIKE 'abc'} becomes {@code s = 'abc'} and {@code s ILIKE 'abc%'} the prefix range from
+ *     {@code 'abc'} to {@code 'abc'} followed by U+FFFF, the character with the highest primary weight in ICU;</li>
+ *     <li>{@code LOWER(s) = 'abc'} and {@code UPPER(s) = 'ABC'} become {@code s = 'abc'}, likewise for IN and LIKE,
+ *     as long as the constant is already in the case the function produces;</li>
+ *     <li>LIKE and comparisons on a field mapped to {@link FieldType#CASE_INSENSITIVE_STRING} are kept as they are.</li>
+ * </ul>
+ * A collation applies to every string comparison of a query, so it is only used when
+ * {@link #isApplicable(Expression) every string predicate} of the filter is case-insensitive.
+ * Otherwise the predicates are rewritten for a regex match with the {@code i} option:
+ * LIKE and equality on a case-insensitive field become {@code ILIKE}.
+ */
+@RequiredArgsConstructor
+public class CollationRewriter {
+
+    /**
+     * Character appended to a prefix to get the upper bound of its range under a collation.
+     */
+    private static final char MAX_COLLATION_CHAR = '\uFFFF';
+
+    private final FieldType defaultFieldType;
+    private final Map<String, FieldType> fieldNameToFieldTypeMapping;
+
+    /**
+     * Checks whether a filter can be run with a case-insensitive collation: it has at least one
+     * case-insensitive predicate and no string predicate that must stay case-sensitive.
+     *
+     * @param expression the normalised filter.
+     * @return {@code true} if the collation can be applied, otherwise {@code false}.
+     */
+    public boolean isApplicable(Expression expression) {
+        boolean caseInsensitive = false;
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            switch (pending.pop()) {
+                case ParenthesedExpressionList<?> list when list.size() == 1 -> pending.push(list.getFirst());
+                case BinaryExpression logical when logical instanceof AndExpression || logical instanceof OrExpression -> {
+                    pending.push(logical.getRightExpression());
+                    pending.push(logical.getLeftExpression());
+                }
+                case Expression leaf when isCaseInsensitive(leaf) -> caseInsensitive = true;
+                case Expression leaf when isCaseSensitive(leaf) -> {
+                    return false;
+                }
+                default -> {
+                }
+            }
+        }
+        return caseInsensitive;
+    }
+
+    /**
+     * Rewrites the case-insensitive predicates of a filter.
+     *
+     * @param expression the normalised filter.
+     * @param collation  whether the filter is run with a case-insensitive collation,
+     *                   see {@link #isApplicable(Expression)}.
+     * @return the rewritten filter; the original expression tree is not modified.
+     */
+    public Expression apply(Expression expression, boolean collation) {
+        Deque<Object> pending = new ArrayDeque<>();
+        Deque<Expression> results = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Object item = pending.pop();
+
+            if (item instanceof Join join) {
+                Expression right = results.pop();
+                Expression left = results.pop();
+                results.push(join.conjunction() ? new AndExpression(left, right) : new OrExpression(left, right));
+                continue;
+            }
+
+            switch ((Expression) item) {
+                case ParenthesedExpressionList<?> list when list.size() == 1 -> pending.push(list.getFirst());
+                case AndExpression and -> pushOperands(pending, and, true);
+                case OrExpression or -> pushOperands(pending, or, false);
+                case Expression leaf -> results.push(rewrite(leaf, collation));
+            }
+        }
+        return results.pop();
+    }
+
+    private static void pushOperands(Deque<Object> pending, BinaryExpression binary, boolean conjunction) {
+        pending.push(new Join(conjunction));
+        pending.push(binary.getRightExpression());
+        pending.push(binary.getLeftExpression());
+    }
+
+    private Expression rewrite(Expression leaf, boolean collation) {
+        return switch (leaf) {
+            case LikeExpression like when caseInsensitiveColumn(like) != null -> collation
+                    ? rewriteLike(like, caseInsensitiveColumn(like))
+                    : toILike(like, caseInsensitiveColumn(like));
+            case EqualsTo equalsTo when collation -> rewriteCaseFunction(equalsTo);
+            case NotEqualsTo notEqualsTo when collation -> rewriteCaseFunction(notEqualsTo);
+            case InExpression in when collation && caseFunctionColumn(in.getLeftExpression(), in.getRightExpression()) != null ->
+                    new InExpression(caseFunctionColumn(in.getLeftExpression(), in.getRightExpression()), in.getRightExpression())
+                            .withNot(in.isNot());
+            case EqualsTo equalsTo when isCaseInsensitiveComparison(equalsTo) -> toILike(equalsTo, false);
+            case NotEqualsTo notEqualsTo when isCaseInsensitiveComparison(notEqualsTo) -> toILike(notEqualsTo, true);
+            default -> leaf;
+        };
+    }
+
+    /**
+     * Under a collation, a LIKE without wildcards becomes equality and a prefix LIKE becomes a range.
+     */
+    private static Expression rewriteLike(LikeExpression like, Column column) {
+        LikePattern pattern = compile(like);
+        StringValue constant = (StringValue) like.getRightExpression();
+
+        if (pattern.isExact()) {
+            return like.isNot()
+                    ? new NotEqualsTo(column, toStringValue(pattern.getLiteral()))
+                    : new EqualsTo(column, toStringValue(pattern.getLiteral()));
+        }
+        if (pattern.getPrefix() != null && !pattern.getPrefix().isEmpty() && !like.isNot()) {
+            return new AndExpression(
+                    new GreaterThanEquals(column, toStringValue(pattern.getPrefix())),
+                    new MinorThan(column, toStringValue(pattern.getPrefix() + MAX_COLLATION_CHAR))
+            );
+        }
+        return copyLike(like, column, constant);
+    }
+
+    /**
+     * {@code LOWER(s) = 'abc'} becomes {@code s = 'abc'} under a collation.
+     */
+    private static Expression rewriteCaseFunction(ComparisonOperator comparison) {
+        Expression left = comparison.getLeftExpression();
+        Expression right = comparison.getRightExpression();
+
+        Column column = caseFunctionColumn(left, right);
+        if (column != null) {
+            return comparison instanceof EqualsTo ? new EqualsTo(column, right) : new NotEqualsTo(column, right);
+        }
+        column = caseFunctionColumn(right, left);
+        if (column != null) {
+            return comparison instanceof EqualsTo ? new EqualsTo(column, left) : new NotEqualsTo(column, left);
+        }
+        return comparison;
+    }
+
+    /**
+     * Without a collation, a case-insensitive LIKE becomes {@code ILIKE}, matched by a regex with the {@code i} option.
+     */
+    private static Expression toILike(LikeExpression like, Column column) {
+        return like.getLeftExpression() == column && like.getLikeKeyWord() == LikeExpression.KeyWord.ILIKE
+                ? like
+                : copyLike(like, column, like.getRightExpression());
+    }
+
+    /**
+     * Without a collation, equality on a case-insensitive field becomes {@code ILIKE} of the escaped value.
+     */
+    private static Expression toILike(ComparisonOperator comparison, boolean not) {
+        boolean columnLeft = comparison.getLeftExpression() instanceof Column;
+        Column column = (Column) (columnLeft ? comparison.getLeftExpression() : comparison.getRightExpression());
+        StringValue constant = (StringValue) (columnLeft ? comparison.getRightExpression() : comparison.getLeftExpression());
+
+        String value = constant.getValue();
+        StringBuilder pattern = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '%' || c == '_' || c == '[') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+
+        StringValue escape = toRawStringValue("\\");
+        LikeExpression like = new LikeExpression()
+                .withLeftExpression(column)
+                .withRightExpression(toRawStringValue(pattern.toString()))
+                .withEscape(escape)
+                .withNot(not);
+        like.setLikeKeyWord(LikeExpression.KeyWord.ILIKE);
+        return like;
+    }
+
+    private static LikeExpression copyLike(LikeExpression like, Column column, Expression pattern) {
+        LikeExpression copy = new LikeExpression()
+                .withLeftExpression(column)
+                .withRightExpression(pattern)
+                .withEscape(like.getEscape())
+                .withNot(like.isNot());
+        copy.setLikeKeyWord(LikeExpression.KeyWord.ILIKE);
+        return copy;
+    }
+
+    /**
+     * Checks whether a predicate compares strings ignoring case.
+     */
+    private boolean isCaseInsensitive(Expression leaf) {
+        return switch (leaf) {
+            case LikeExpression like -> caseInsensitiveColumn(like) != null;
+            case EqualsTo equalsTo -> isCaseFunctionComparison(equalsTo) || isCaseInsensitiveComparison(equalsTo);
+            case NotEqualsTo notEqualsTo -> isCaseFunctionComparison(notEqualsTo) || isCaseInsensitiveComparison(notEqualsTo);
+            case InExpression in -> caseFunctionColumn(in.getLeftExpression(), in.getRightExpression()) != null
+                    || isColumnOfType(in.getLeftExpression(), FieldType.CASE_INSENSITIVE_STRING);
+            case ComparisonOperator comparison -> isCaseInsensitiveComparison(comparison);
+            case Between between -> isColumnOfType(between.getLeftExpression(), FieldType.CASE_INSENSITIVE_STRING);
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks whether a predicate compares strings and its result would change under a case-insensitive collation.
+     * Predicates on fields of a non-string type and equalities with constants that have no letters are not affected.
+     */
+    private boolean isCaseSensitive(Expression leaf) {
+        Expression left = switch (leaf) {
+            case BinaryExpression binary -> binary.getLeftExpression();
+            case InExpression in -> in.getLeftExpression();
+            case Between between -> between.getLeftExpression();
+            default -> null;
+        };
+        if (left != null && ValidationUtils.isColumnExpression(left) && !isStringColumn(left)) {
+            return false;
+        }
+
+        StringCollector strings = new StringCollector();
+        leaf.accept(strings, null);
+        if (strings.values.isEmpty()) {
+            return false;
+        }
+
+        boolean equality = leaf instanceof EqualsTo || leaf instanceof NotEqualsTo || leaf instanceof InExpression;
+        return !equality || strings.values.stream().anyMatch(CollationRewriter::hasLetters);
+    }
+
+    private boolean isCaseInsensitiveComparison(ComparisonOperator comparison) {
+        return isColumnOfType(comparison.getLeftExpression(), FieldType.CASE_INSENSITIVE_STRING)
+                && comparison.getRightExpression() instanceof StringValue
+                || isColumnOfType(comparison.getRightExpression(), FieldType.CASE_INSENSITIVE_STRING)
+                && comparison.getLeftExpression() instanceof StringValue;
+    }
+
+    private static boolean isCaseFunctionComparison(ComparisonOperator comparison) {
+        return caseFunctionColumn(comparison.getLeftExpression(), comparison.getRightExpression()) != null
+                || caseFunctionColumn(comparison.getRightExpression(), comparison.getLeftExpression()) != null;
+    }
+
+    /**
+     * Returns the column a LIKE matches ignoring case: the column of {@code ILIKE}, of a LIKE on a
+     * case-insensitive field, or of a LIKE on {@code LOWER}/{@code UPPER} of a column.
+     *
+     * @return the column, or {@code null} if the LIKE is case-sensitive or not on a column.
+     */
+    private Column caseInsensitiveColumn(LikeExpression like) {
+        LikeExpression.KeyWord keyWord = like.getLikeKeyWord();
+        if (keyWord != LikeExpression.KeyWord.LIKE && keyWord != LikeExpression.KeyWord.ILIKE
+                || !(like.getRightExpression() instanceof StringValue)) {
+            return null;
+        }
+
+        Expression left = like.getLeftExpression();
+        if (ValidationUtils.isColumnExpression(left)) {
+            return keyWord == LikeExpression.KeyWord.ILIKE || isColumnOfType(left, FieldType.CASE_INSENSITIVE_STRING)
+                    ? (Column) left
+                    : null;
+        }
+        return caseFunctionColumn(left, like.getRightExpression());
+    }
+
+    /**
+     * Returns the column of {@code LOWER(column)} or {@code UPPER(column)} when every string of the
+     * other operand is already in the case the function produces.
+     *
+     * @return the column, or {@code null} if the operands do not have that form.
+     */
+    private static Column caseFunctionColumn(Expression function, Expression constants) {
+        if (!(function instanceof Function call)
+                || call.getParameters() == null
+                || call.getParameters().size() != 1
+                || !ValidationUtils.isColumnExpression(call.getParameters().getFirst())) {
+            return null;
+        }
+
+        String name = call.getName().toLowerCase(Locale.ROOT);
+        boolean lower = "lower".equals(name) || "lcase".equals(name);
+        if (!lower && !"upper".equals(name) && !"ucase".equals(name)) {
+            return null;
+        }
+
+        List<Expression> values = switch (constants) {
+            case StringValue value -> List.of(value);
+            case ExpressionList<?> list -> new ArrayList<>(list);
+            default -> List.of();
+        };
+        if (values.isEmpty()) {
+            return null;
+        }
+        for (Expression value : values) {
+            if (!(value instanceof StringValue stringValue)) {
+                return null;
+            }
+            String string = stringValue.getValue();
+            if (!string.equals(lower ? string.toLowerCase(Locale.ROOT) : string.toUpperCase(Locale.ROOT))) {
+                return null;
+            }
+        }
+        return (Column) call.getParameters().getFirst();
+    }
+
+    private static LikePattern compile(LikeExpression like) {
+        String escape = like.getEscape() instanceof StringValue escapeValue ? escapeValue.getValue() : null;
+        return LikePattern.compile(
+                NormalizationUtils.sanitizeString(ParsingUtils.extractStringValue(like.getRightExpression())),
+                escape != null && escape.length() == 1 ? escape.charAt(0) : null,
+                true
+        );
+    }
+
+    private boolean isStringColumn(Expression expression) {
+        FieldType fieldType = fieldTypeOf(expression);
+        return fieldType == FieldType.STRING
+                || fieldType == FieldType.CASE_INSENSITIVE_STRING
+                || fieldType == FieldType.UNKNOWN;
+    }
+
+    private boolean isColumnOfType(Expression expression, FieldType fieldType) {
+        return ValidationUtils.isColumnExpression(expression) && fieldTypeOf(expression) == fieldType;
+    }
+
+    private FieldType fieldTypeOf(Expression expression) {
+        return fieldNameToFieldTypeMapping.getOrDefault(ParsingUtils.extractStringValue(expression), defaultFieldType);
+    }
+
+    private static boolean hasLetters(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isLetter(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StringValue toStringValue(String value) {
+        return toRawStringValue(value.replace("'", "''"));
+    }
+
+    private static StringValue toRawStringValue(String value) {
+        StringValue stringValue = new StringValue();
+        stringValue.setValue(value);
+        return stringValue;
+    }
+
+    /**
+     * Collects the string constants of an expression.
+     */
+    private static final class StringCollector extends ExpressionVisitorAdapter<Void> {
+
+        private final List<String> values = new ArrayList<>();
+
+        @Override
+        public <S> Void visit(StringValue stringValue, S context) {
+            values.add(stringValue.getValue());
+            return null;
+        }
+    }
+
+    private record Join(boolean conjunction) {
+    }
+}
@@ -0,0 +1,365 @@
+package com.koroli.queryconverter.optimizers;
+
+import com.koroli.queryconverter.utils.NormalizationUtils;
+import com.koroli.queryconverter.utils.ValidationUtils;
+import lombok.RequiredArgsConstructor;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.DateValue;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.IntervalExpression;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.TimeKeyExpression;
+import net.sf.jsqlparser.expression.TimestampValue;
+import net.sf.jsqlparser.expression.operators.arithmetic.*;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Evaluates the literal-only operands of a predicate at conversion time, so that they reach the filter as
+ * plain values instead of {@code $expr} arithmetic:
+ * <ul>
+ *     <li>arithmetic on numbers, e.g. {@code price > 10 * 2} becomes {@code price > 20};</li>
+ *     <li>concatenation of strings with {@code ||} or {@code CONCAT};</li>
+ *     <li>{@code NOW()}, {@code CURRENT_TIMESTAMP} and {@code CURRENT_DATE}, read from the {@link Clock},
+ *     and date arithmetic with intervals, e.g. {@code NOW() - INTERVAL '1' DAY} or
+ *     {@code DATE_SUB(NOW(), INTERVAL 1 DAY)}.</li>
+ * </ul>
+ * Folded values become literals and are normalised like any other literal. Operands that reference a column,
+ * divide by zero or overflow a {@code long} are left as they are. A clock that ticks in whole minutes
+ * ({@link Clock#tick}) keeps the converted query identical within the minute.
+ */
+@RequiredArgsConstructor
+public class ConstantFolder {
+
+    private final Clock clock;
+
+    /**
+     * Folds the constant operands of the comparisons of a predicate.
+     *
+     * @param expression the predicate.
+     * @return the folded predicate; the original expression tree is not modified.
+     */
+    public Expression apply(Expression expression) {
+        Deque<Object> pending = new ArrayDeque<>();
+        Deque<Expression> results = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Object item = pending.pop();
+
+            if (item instanceof Join join) {
+                Expression right = results.pop();
+                Expression left = results.pop();
+                results.push(join.conjunction() ? new AndExpression(left, right) : new OrExpression(left, right));
+                continue;
+            }
+            if (item instanceof Negation) {
+                results.push(new NotExpression(results.pop()));
+                continue;
+            }
+
+            switch ((Expression) item) {
+                case ParenthesedExpressionList<?> list when list.size() == 1 -> pending.push(list.getFirst());
+                case AndExpression and -> pushOperands(pending, and, true);
+                case OrExpression or -> pushOperands(pending, or, false);
+                case NotExpression not -> {
+                    pending.push(new Negation());
+                    pending.push(not.getExpression());
+                }
+                case Expression leaf -> results.push(foldPredicate(leaf));
+            }
+        }
+        return results.pop();
+    }
+
+    private static void pushOperands(Deque<Object> pending, BinaryExpression binary, boolean conjunction) {
+        pending.push(new Join(conjunction));
+        pending.push(binary.getRightExpression());
+        pending.push(binary.getLeftExpression());
+    }
+
+    private Expression foldPredicate(Expression predicate) {
+        return switch (predicate) {
+            case ComparisonOperator comparison -> {
+                Expression left = foldOperand(comparison.getLeftExpression());
+                Expression right = foldOperand(comparison.getRightExpression());
+                yield left == comparison.getLeftExpression() && right == comparison.getRightExpression()
+                        ? comparison
+                        : copyComparison(comparison, left, right);
+            }
+            case Between between -> {
+                Expression start = foldOperand(between.getBetweenExpressionStart());
+                Expression end = foldOperand(between.getBetweenExpressionEnd());
+                yield start == between.getBetweenExpressionStart() && end == between.getBetweenExpressionEnd()
+                        ? between
+                        : new Between()
+                                .withLeftExpression(between.getLeftExpression())
+                                .withBetweenExpressionStart(start)
+                                .withBetweenExpressionEnd(end)
+                                .withNot(between.isNot());
+            }
+            case InExpression in when in.getRightExpression() instanceof ExpressionList<?> list -> {
+                List<Expression> items = new ArrayList<>(list.size());
+                boolean changed = false;
+                for (Expression value : list) {
+                    Expression folded = foldOperand(value);
+                    changed |= folded != value;
+                    items.add(folded);
+                }
+                yield changed
+                        ? new InExpression(in.getLeftExpression(), new ParenthesedExpressionList<>(items)).withNot(in.isNot())
+                        : in;
+            }
+            default -> predicate;
+        };
+    }
+
+    /**
+     * Replaces an operand by its value if it is a constant expression.
+     */
+    private Expression foldOperand(Expression operand) {
+        if (operand == null || ValidationUtils.isLiteralExpression(operand)) {
+            return operand;
+        }
+        Expression literal = toLiteral(evaluate(operand));
+        return literal != null ? literal : operand;
+    }
+
+    /**
+     * Evaluates a constant expression.
+     *
+     * @return a {@link Long}, {@link BigDecimal}, {@link String}, {@link ZonedDateTime} or {@link Interval},
+     * or {@code null} if the expression is not constant or cannot be evaluated.
+     */
+    private Object evaluate(Expression expression) {
+        return switch (expression) {
+            case LongValue longValue -> longValue.getValue();
+            case DoubleValue doubleValue -> BigDecimal.valueOf(doubleValue.getValue());
+            case StringValue stringValue -> NormalizationUtils.sanitizeString(stringValue.getValue());
+            case TimestampValue timestampValue -> ZonedDateTime.ofInstant(timestampValue.getValue().toInstant(), clock.getZone());
+            case DateValue dateValue -> dateValue.getValue().toLocalDate().atStartOfDay(clock.getZone());
+            case ParenthesedExpressionList<?> list when list.size() == 1 -> evaluate(list.getFirst());
+            case SignedExpression signed -> signed.getSign() == '-'
+                    ? negate(evaluate(signed.getExpression()))
+                    : evaluate(signed.getExpression());
+            case TimeKeyExpression timeKey -> evaluateTimeKey(timeKey.getStringValue());
+            case IntervalExpression interval -> evaluateInterval(interval);
+            case Concat concat -> evaluate(concat.getLeftExpression()) instanceof String left
+                    && evaluate(concat.getRightExpression()) instanceof String right
+                    ? left + right
+                    : null;
+            case Addition addition -> add(evaluate(addition.getLeftExpression()), evaluate(addition.getRightExpression()), false);
+            case Subtraction subtraction -> add(evaluate(subtraction.getLeftExpression()), evaluate(subtraction.getRightExpression()), true);
+            case Multiplication multiplication -> multiply(evaluate(multiplication.getLeftExpression()), evaluate(multiplication.getRightExpression()));
+            case Division division -> divide(evaluate(division.getLeftExpression()), evaluate(division.getRightExpression()), false);
+            case Modulo modulo -> divide(evaluate(modulo.getLeftExpression()), evaluate(modulo.getRightExpression()), true);
+            case Function function -> evaluateFunction(function);
+            default -> null;
+        };
+    }
+
+    private Object evaluateFunction(Function function) {
+        List<Object> arguments = new ArrayList<>();
+        if (function.getParameters() != null) {
+            for (Expression parameter : function.getParameters()) {
+                Object value = evaluate(parameter);
+                if (value == null) {
+                    return null;
+                }
+                arguments.add(value);
+            }
+        }
+
+        return switch (function.getName().toLowerCase(Locale.ROOT)) {
+            case "now", "current_timestamp", "current_date" -> arguments.isEmpty()
+                    ? evaluateTimeKey(function.getName())
+                    : null;
+            case "date_add", "adddate" -> arguments.size() == 2 ? add(arguments.get(0), arguments.get(1), false) : null;
+            case "date_sub", "subdate" -> arguments.size() == 2 ? add(arguments.get(0), arguments.get(1), true) : null;
+            case "concat" -> arguments.stream().allMatch(String.class::isInstance)
+                    ? String.join("", arguments.stream().map(String.class::cast).toList())
+                    : null;
+            default -> null;
+        };
+    }
+
+    private ZonedDateTime evaluateTimeKey(String key) {
+        return switch (key.toLowerCase(Locale.ROOT).replace("()", "")) {
+            case "now", "current_timestamp" -> ZonedDateTime.now(clock);
+            case "current_date" -> ZonedDateTime.now(clock).truncatedTo(ChronoUnit.DAYS);
+            default -> null;
+        };
+    }
+
+    /**
+     * Reads {@code INTERVAL '1' DAY}, {@code INTERVAL 1 DAY} or {@code INTERVAL '1 day'}.
+     */
+    private Interval evaluateInterval(IntervalExpression interval) {
+        String parameter = interval.getExpression() != null
+                ? String.valueOf(evaluate(interval.getExpression()))
+                : interval.getParameter();
+        if (parameter == null) {
+            return null;
+        }
+
+        String[] parts = parameter.replace("'", "").trim().split("\\s+");
+        String unit = interval.getIntervalType() != null
+                ? interval.getIntervalType()
+                : parts.length == 2 ? parts[1] : null;
+        if (unit == null || parts.length > (interval.getIntervalType() != null ? 1 : 2)) {
+            return null;
+        }
+
+        ChronoUnit chronoUnit = switch (unit.toLowerCase(Locale.ROOT)) {
+            case "second", "seconds" -> ChronoUnit.SECONDS;
+            case "minute", "minutes" -> ChronoUnit.MINUTES;
+            case "hour", "hours" -> ChronoUnit.HOURS;
+            case "day", "days" -> ChronoUnit.DAYS;
+            case "week", "weeks" -> ChronoUnit.WEEKS;
+            case "month", "months" -> ChronoUnit.MONTHS;
+            case "year", "years" -> ChronoUnit.YEARS;
+            default -> null;
+        };
+        try {
+            return chronoUnit != null ? new Interval(Long.parseLong(parts[0]), chronoUnit) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Object negate(Object value) {
+        return switch (value) {
+            case Long l when l != Long.MIN_VALUE -> -l;
+            case BigDecimal d -> d.negate();
+            case null, default -> null;
+        };
+    }
+
+    private static Object add(Object left, Object right, boolean subtract) {
+        return switch (left) {
+            case null -> null;
+            case Long a when right instanceof Long b -> {
+                try {
+                    yield subtract ? Math.subtractExact(a, b) : Math.addExact(a, b);
+                } catch (ArithmeticException e) {
+                    yield null;
+                }
+            }
+            case ZonedDateTime date when right instanceof Interval interval -> subtract
+                    ? date.minus(interval.amount(), interval.unit())
+                    : date.plus(interval.amount(), interval.unit());
+            case ZonedDateTime ignored -> null;
+            case Interval interval when right instanceof ZonedDateTime date && !subtract ->
+                    date.plus(interval.amount(), interval.unit());
+            default -> {
+                BigDecimal a = toDecimal(left);
+                BigDecimal b = toDecimal(right);
+                yield a == null || b == null ? null : subtract ? a.subtract(b) : a.add(b);
+            }
+        };
+    }
+
+    private static Object multiply(Object left, Object right) {
+        if (left instanceof Long a && right instanceof Long b) {
+            try {
+                return Math.multiplyExact(a, b);
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+        BigDecimal a = toDecimal(left);
+        BigDecimal b = toDecimal(right);
+        return a == null || b == null ? null : a.multiply(b);
+    }
+
+    /**
+     * Divides as {@code $divide} does: integers divide exactly, so {@code 10 / 4} is {@code 2.5}.
+     */
+    private static Object divide(Object left, Object right, boolean remainder) {
+        BigDecimal a = toDecimal(left);
+        BigDecimal b = toDecimal(right);
+        if (a == null || b == null || b.signum() == 0) {
+            return null;
+        }
+        if (left instanceof Long x && right instanceof Long y) {
+            if (remainder) {
+                return x % y;
+            }
+            if (x % y == 0 && !(x == Long.MIN_VALUE && y == -1)) {
+                return x / y;
+            }
+        }
+        return remainder ? a.remainder(b) : a.divide(b, MathContext.DECIMAL64);
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        return switch (value) {
+            case Long l -> BigDecimal.valueOf(l);
+            case BigDecimal d -> d;
+            case null, default -> null;
+        };
+    }
+
+    private static Expression toLiteral(Object value) {
+        return switch (value) {
+            case Long l -> new LongValue(l);
+            case BigDecimal d -> new DoubleValue(d.toString());
+            case String s -> {
+                StringValue stringValue = new StringValue();
+                stringValue.setValue(s.replace("'", "''"));
+                yield stringValue;
+            }
+            case ZonedDateTime date -> {
+                Timestamp timestamp = Timestamp.from(date.toInstant());
+                TimestampValue timestampValue = new TimestampValue();
+                timestampValue.setRawValue(timestamp.toString());
+                yield timestampValue.withValue(timestamp);
+            }
+            case null, default -> null;
+        };
+    }
+
+    private static ComparisonOperator copyComparison(ComparisonOperator comparison, Expression left, Expression right) {
+        return switch (comparison) {
+            case EqualsTo ignored -> new EqualsTo(left, right);
+            case NotEqualsTo notEqualsTo -> new NotEqualsTo(notEqualsTo.getStringExpression())
+                    .withLeftExpression(left)
+                    .withRightExpression(right);
+            case GreaterThan ignored -> new GreaterThan(left, right);
+            case GreaterThanEquals ignored -> new GreaterThanEquals(left, right);
+            case MinorThan ignored -> new MinorThan(left, right);
+            case MinorThanEquals ignored -> new MinorThanEquals(left, right);
+            default -> comparison;
+        };
+    }
+
+    /**
+     * A constant {@code INTERVAL}.
+     */
+    private record Interval(long amount, ChronoUnit unit) {
+    }
+
+    private record Join(boolean conjunction) {
+    }
+
+    private record Negation() {
+    }
+}
@@ -0,0 +1,109 @@
+package com.koroli.queryconverter.optimizers;
+
+import com.koroli.queryconverter.holders.AliasHolder;
+import com.koroli.queryconverter.holders.SQLCommandInfo;
+import com.koroli.queryconverter.utils.ExpressionUtils;
+import com.koroli.queryconverter.utils.ParsingUtils;
+import com.koroli.queryconverter.utils.ValidationUtils;
+import lombok.experimental.UtilityClass;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.TimeKeyExpression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Splits the HAVING clause into the conjuncts that only reference GROUP BY key columns and the rest.
+ * <p>
+ * A key-only conjunct has the same value for every document of a group, so it can filter the documents
+ * before {@code $group} instead of the groups after it: {@code GROUP BY region HAVING region = 'EU' AND SUM(x) > 10}
+ * becomes {@code WHERE region = 'EU' GROUP BY region HAVING SUM(x) > 10}, which can use an index on {@code region}
+ * and shrinks the input of {@code $group}. A conjunct is pushed down only if it consists of key columns, literals,
+ * operators and non-aggregate functions; anything else, including select aliases, stays in HAVING.
+ * Queries with joins are not split, since their WHERE clause is distributed over the joined collections.
+ */
+@UtilityClass
+public class HavingPushDown {
+
+    /**
+     * Returns the HAVING conjuncts to be evaluated in the WHERE clause.
+     *
+     * @param sqlCommandInfo the SQL command information.
+     * @return the key-only conjuncts joined with {@code AND}, or {@code null} if there are none.
+     */
+    public static Expression pushedConjuncts(SQLCommandInfo sqlCommandInfo) {
+        return conjoin(split(sqlCommandInfo, true));
+    }
+
+    /**
+     * Returns the HAVING conjuncts to be evaluated after {@code $group}.
+     *
+     * @param sqlCommandInfo the SQL command information.
+     * @return the remaining conjuncts joined with {@code AND}, or {@code null} if there are none.
+     */
+    public static Expression remainingConjuncts(SQLCommandInfo sqlCommandInfo) {
+        return conjoin(split(sqlCommandInfo, false));
+    }
+
+    private static List<Expression> split(SQLCommandInfo sqlCommandInfo, boolean pushed) {
+        Expression having = sqlCommandInfo.getHavingClause();
+        if (having == null) {
+            return List.of();
+        }
+
+        if (sqlCommandInfo.getGroupByFields() == null
+                || sqlCommandInfo.getGroupByFields().isEmpty()
+                || (sqlCommandInfo.getJoins() != null && !sqlCommandInfo.getJoins().isEmpty())
+        ) {
+            return pushed ? List.of() : List.of(having);
+        }
+
+        List<Expression> conjuncts = new ArrayList<>();
+        for (Expression conjunct : ExpressionUtils.flattenOperands(ExpressionUtils.unwrapParentheses(having), AndExpression.class)) {
+            if (isKeyOnly(conjunct, sqlCommandInfo.getGroupByFields(), sqlCommandInfo.getAliasHolder()) == pushed) {
+                conjuncts.add(conjunct);
+            }
+        }
+        return conjuncts;
+    }
+
+    /**
+     * Checks if the conjunct references at least one GROUP BY key column and nothing that varies within a group.
+     */
+    private static boolean isKeyOnly(Expression conjunct, List<String> groupByFields, AliasHolder aliasHolder) {
+        boolean keyReferenced = false;
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(conjunct);
+
+        while (!pending.isEmpty()) {
+            Expression current = pending.pop();
+            if (ValidationUtils.isColumnExpression(current)) {
+                String name = ParsingUtils.extractStringValue(current);
+                if (!groupByFields.contains(name)
+                        || (aliasHolder != null && aliasHolder.getFieldFromAliasHash().containsKey(name))
+                ) {
+                    return false;
+                }
+                keyReferenced = true;
+            } else if (ExpressionUtils.isAggregateExpression(current)) {
+                return false;
+            } else if (ExpressionUtils.isTraversable(current)) {
+                ExpressionUtils.forEachChild(current, pending::push);
+            } else if (!ValidationUtils.isLiteralExpression(current) && !(current instanceof TimeKeyExpression)) {
+                return false;
+            }
+        }
+        return keyReferenced;
+    }
+
+    private static Expression conjoin(List<Expression> conjuncts) {
+        Expression result = null;
+        for (Expression conjunct : conjuncts) {
+            result = result == null ? conjunct : new AndExpression(result, conjunct);
+        }
+        return result;
+    }
+}
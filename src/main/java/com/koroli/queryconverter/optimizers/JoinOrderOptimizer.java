@@ -0,0 +1,393 @@
+package com.koroli.queryconverter.optimizers;
+
+import com.koroli.queryconverter.catalog.CollectionStatistics;
+import com.koroli.queryconverter.catalog.IndexCatalog;
+import com.koroli.queryconverter.catalog.IndexInfo;
+import com.koroli.queryconverter.catalog.StatisticsCatalog;
+import com.koroli.queryconverter.utils.ExpressionUtils;
+import com.koroli.queryconverter.utils.ValidationUtils;
+import lombok.RequiredArgsConstructor;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.SelectItem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reorders the INNER joins of a SELECT by their estimated cardinality, using a {@link StatisticsCatalog}.
+ * <p>
+ * The pipeline is driven by the first FROM table and every other table is joined with a {@code $lookup}
+ * per intermediate document, so the order matters: the collection with the smallest estimated number of documents
+ * after its WHERE filters becomes the driver, and the other collections are joined greedily, each time picking the
+ * one connected by an ON condition that yields the smallest intermediate result. Estimates follow the usual
+ * uniformity assumptions:
+ * <ul>
+ *     <li>{@code col = literal} keeps {@code 1 / distinct(col)}, {@code IN} keeps {@code n / distinct(col)}
+ *     and {@code <>} keeps {@code 1 - 1 / distinct(col)} of the documents;</li>
+ *     <li>ranges, {@code BETWEEN} and {@code LIKE} keep a third of the documents;</li>
+ *     <li>{@code a.x = b.y} keeps {@code 1 / max(distinct(a.x), distinct(b.y))} of the cross product.</li>
+ * </ul>
+ * Inner joins are commutative, so the ON conditions are redistributed over the new order: each condition goes to
+ * the first join after which all of its tables are joined. Every {@code $lookup} of the new order must be able to use
+ * an index of the {@link IndexCatalog}: a joined collection is only picked if one of its fields equated with an
+ * already joined column is {@code _id} or the first key of a non-partial index, otherwise a cheaper-looking order
+ * could replace an {@code _id} lookup by a collection scan per document. The SELECT is left unchanged if any table is not an
+ * INNER-joined collection with statistics, a column of an ON condition is not qualified with a known table,
+ * the select list contains {@code *} (the shape of the result documents depends on the driver), the tables
+ * cannot be ordered without a cross join, or a WHERE conjunct references another table than the new driver
+ * (the WHERE clause is applied by the first {@code $match}, before any lookup).
+ */
+@RequiredArgsConstructor
+public class JoinOrderOptimizer {
+
+    private static final double RANGE_SELECTIVITY = 1.0 / 3;
+
+    private static final String ID_FIELD = "_id";
+
+    private final StatisticsCatalog statisticsCatalog;
+    private final IndexCatalog indexCatalog;
+
+    /**
+     * Reorders the FROM table and the joins of the SELECT in place. The SELECT is only modified if the order changes,
+     * so callers that must keep their statement pass a copy.
+     *
+     * @param plainSelect the SELECT.
+     * @return {@code true} if the order was changed, otherwise {@code false}.
+     */
+    public boolean reorder(PlainSelect plainSelect) {
+        List<Join> joins = plainSelect.getJoins();
+        if (joins == null || joins.isEmpty() || !(plainSelect.getFromItem() instanceof Table baseTable)) {
+            return false;
+        }
+        for (SelectItem<?> selectItem : plainSelect.getSelectItems()) {
+            if (selectItem.getExpression() instanceof AllColumns) {
+                return false;
+            }
+        }
+
+        Map<String, Table> tables = new LinkedHashMap<>();
+        tables.put(keyOf(baseTable), baseTable);
+        List<Expression> conditions = new ArrayList<>();
+        for (Join join : joins) {
+            if (!isInner(join)
+                    || !(join.getRightItem() instanceof Table table)
+                    || join.getOnExpressions().size() != 1
+                    || (join.getUsingColumns() != null && !join.getUsingColumns().isEmpty())
+                    || tables.putIfAbsent(keyOf(table), table) != null
+            ) {
+                return false;
+            }
+            conditions.addAll(ExpressionUtils.flattenOperands(
+                    ExpressionUtils.unwrapParentheses(join.getOnExpressions().iterator().next()), AndExpression.class));
+        }
+
+        Map<String, CollectionStatistics> statistics = new HashMap<>();
+        for (Map.Entry<String, Table> entry : tables.entrySet()) {
+            CollectionStatistics collectionStatistics = statisticsCatalog.getStatistics(entry.getValue().getName());
+            if (collectionStatistics == null) {
+                return false;
+            }
+            statistics.put(entry.getKey(), collectionStatistics);
+        }
+
+        List<Set<String>> conditionTables = new ArrayList<>(conditions.size());
+        for (Expression condition : conditions) {
+            Set<String> referenced = referencedTables(condition, tables.keySet());
+            if (referenced == null) {
+                return false;
+            }
+            conditionTables.add(referenced);
+        }
+
+        List<String> order = chooseOrder(plainSelect.getWhere(), tables, statistics, conditions, conditionTables);
+        if (order == null || order.equals(new ArrayList<>(tables.keySet()))) {
+            return false;
+        }
+
+        List<Join> reordered = new ArrayList<>(order.size() - 1);
+        Set<String> joined = new HashSet<>(List.of(order.getFirst()));
+        boolean[] assigned = new boolean[conditions.size()];
+        for (String key : order.subList(1, order.size())) {
+            joined.add(key);
+            Expression on = null;
+            for (int i = 0; i < conditions.size(); i++) {
+                if (!assigned[i] && joined.containsAll(conditionTables.get(i))) {
+                    assigned[i] = true;
+                    on = on == null ? conditions.get(i) : new AndExpression(on, conditions.get(i));
+                }
+            }
+            if (on == null) {
+                return false;
+            }
+
+            Join join = new Join();
+            join.setInner(true);
+            join.setRightItem(tables.get(key));
+            join.setOnExpressions(List.of(on));
+            reordered.add(join);
+        }
+
+        plainSelect.setFromItem(tables.get(order.getFirst()));
+        plainSelect.setJoins(reordered);
+        return true;
+    }
+
+    /**
+     * Picks the driver and the order of the joins greedily by estimated cardinality. Drivers are tried from the
+     * smallest estimate up, until one of them can be followed by indexed lookups only.
+     *
+     * @return the table keys in join order, or {@code null} if the tables cannot be joined with indexed lookups
+     *         and without a cross join.
+     */
+    private List<String> chooseOrder(
+            Expression where,
+            Map<String, Table> tables,
+            Map<String, CollectionStatistics> statistics,
+            List<Expression> conditions,
+            List<Set<String>> conditionTables
+    ) {
+        Set<String> keys = tables.keySet();
+        Map<String, Double> cardinality = new HashMap<>();
+        for (String key : keys) {
+            cardinality.put(key, (double) statistics.get(key).getDocumentCount());
+        }
+        List<Expression> filters = new ArrayList<>();
+        if (where != null) {
+            filters.addAll(ExpressionUtils.flattenOperands(ExpressionUtils.unwrapParentheses(where), AndExpression.class));
+        }
+        for (int i = 0; i < conditions.size(); i++) {
+            if (conditionTables.get(i).size() == 1) {
+                filters.add(conditions.get(i));
+            }
+        }
+        for (Expression filter : filters) {
+            Set<String> referenced = referencedTables(filter, keys);
+            if (referenced != null && referenced.size() == 1) {
+                String key = referenced.iterator().next();
+                cardinality.merge(key, filterSelectivity(filter, statistics.get(key)), (a, b) -> a * b);
+            }
+        }
+
+        List<String> drivers = new ArrayList<>(keys);
+        drivers.sort(Comparator.comparing(cardinality::get));
+        for (String driver : drivers) {
+            if (!filtersOnlyDriver(where, driver, keys)) {
+                continue;
+            }
+            List<String> order = chooseJoins(driver, tables, statistics, cardinality, conditions, conditionTables);
+            if (order != null) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Joins the other tables to the driver greedily, each time picking the indexed lookup that yields
+     * the smallest intermediate result.
+     *
+     * @return the table keys in join order, or {@code null} if a table cannot be joined with an indexed lookup.
+     */
+    private List<String> chooseJoins(
+            String driver,
+            Map<String, Table> tables,
+            Map<String, CollectionStatistics> statistics,
+            Map<String, Double> cardinality,
+            List<Expression> conditions,
+            List<Set<String>> conditionTables
+    ) {
+        List<String> order = new ArrayList<>(List.of(driver));
+        Set<String> joined = new HashSet<>(order);
+        double current = cardinality.get(driver);
+        while (order.size() < tables.size()) {
+            String best = null;
+            double bestCardinality = Double.POSITIVE_INFINITY;
+
+            for (String key : tables.keySet()) {
+                if (joined.contains(key)) {
+                    continue;
+                }
+
+                Set<String> lookupFields = new HashSet<>();
+                double estimate = current * cardinality.get(key);
+                for (int i = 0; i < conditions.size(); i++) {
+                    Set<String> referenced = conditionTables.get(i);
+                    if (referenced.size() > 1 && referenced.contains(key) && joinedWith(referenced, joined, key)) {
+                        estimate *= joinSelectivity(conditions.get(i), statistics);
+                        addLookupField(conditions.get(i), key, lookupFields);
+                    }
+                }
+                if (isIndexed(tables.get(key).getName(), lookupFields) && estimate < bestCardinality) {
+                    best = key;
+                    bestCardinality = estimate;
+                }
+            }
+
+            if (best == null) {
+                return null;
+            }
+            order.add(best);
+            joined.add(best);
+            current = bestCardinality;
+        }
+        return order;
+    }
+
+    /**
+     * Adds the field of the joined table that an equality condition matches against an already joined column.
+     */
+    private static void addLookupField(Expression condition, String key, Set<String> lookupFields) {
+        if (condition instanceof EqualsTo equalsTo
+                && equalsTo.getLeftExpression() instanceof Column left
+                && equalsTo.getRightExpression() instanceof Column right
+        ) {
+            boolean leftJoined = key.equals(left.getTable().getFullyQualifiedName());
+            if (leftJoined != key.equals(right.getTable().getFullyQualifiedName())) {
+                lookupFields.add((leftJoined ? left : right).getColumnName());
+            }
+        }
+    }
+
+    /**
+     * Checks if a lookup on one of the fields can use {@code _id} or the first key of a non-partial index.
+     */
+    private boolean isIndexed(String collection, Set<String> lookupFields) {
+        if (lookupFields.contains(ID_FIELD)) {
+            return true;
+        }
+        for (IndexInfo index : indexCatalog.getIndexes(collection)) {
+            if (!index.isPartial()
+                    && !index.getKeys().isEmpty()
+                    && lookupFields.contains(index.getKeys().keySet().iterator().next())
+            ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if every WHERE conjunct references the driver only: the filters of the WHERE clause are applied
+     * by the first {@code $match}, before any collection is joined.
+     */
+    private static boolean filtersOnlyDriver(Expression where, String driver, Set<String> keys) {
+        if (where == null) {
+            return true;
+        }
+        for (Expression conjunct : ExpressionUtils.flattenOperands(ExpressionUtils.unwrapParentheses(where), AndExpression.class)) {
+            Set<String> referenced = referencedTables(conjunct, keys);
+            if (referenced == null || !referenced.equals(Set.of(driver))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean joinedWith(Set<String> referenced, Set<String> joined, String key) {
+        for (String table : referenced) {
+            if (!table.equals(key) && !joined.contains(table)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the fraction of the documents of a collection kept by a filter on it.
+     */
+    private static double filterSelectivity(Expression filter, CollectionStatistics statistics) {
+        return switch (filter) {
+            case EqualsTo equalsTo -> 1.0 / distinctCount(equalsTo, statistics);
+            case NotEqualsTo notEqualsTo -> 1.0 - 1.0 / distinctCount(notEqualsTo, statistics);
+            case InExpression in when !in.isNot()
+                    && in.getLeftExpression() instanceof Column column
+                    && in.getRightExpression() instanceof ExpressionList<?> list ->
+                    Math.min(1.0, (double) list.size() / statistics.estimateDistinctCount(column.getColumnName()));
+            case GreaterThan ignored -> RANGE_SELECTIVITY;
+            case GreaterThanEquals ignored -> RANGE_SELECTIVITY;
+            case MinorThan ignored -> RANGE_SELECTIVITY;
+            case MinorThanEquals ignored -> RANGE_SELECTIVITY;
+            case Between ignored -> RANGE_SELECTIVITY;
+            case LikeExpression ignored -> RANGE_SELECTIVITY;
+            default -> 1.0;
+        };
+    }
+
+    private static long distinctCount(ComparisonOperator comparison, CollectionStatistics statistics) {
+        Column column = comparison.getLeftExpression() instanceof Column left
+                ? left
+                : comparison.getRightExpression() instanceof Column right ? right : null;
+        return column != null ? statistics.estimateDistinctCount(column.getColumnName()) : 1;
+    }
+
+    /**
+     * Estimates the fraction of the cross product of two collections kept by a join condition.
+     */
+    private static double joinSelectivity(Expression condition, Map<String, CollectionStatistics> statistics) {
+        if (condition instanceof EqualsTo equalsTo
+                && equalsTo.getLeftExpression() instanceof Column left
+                && equalsTo.getRightExpression() instanceof Column right
+        ) {
+            long leftDistinct = statistics.get(left.getTable().getFullyQualifiedName()).estimateDistinctCount(left.getColumnName());
+            long rightDistinct = statistics.get(right.getTable().getFullyQualifiedName()).estimateDistinctCount(right.getColumnName());
+            return 1.0 / Math.max(leftDistinct, rightDistinct);
+        }
+        return RANGE_SELECTIVITY;
+    }
+
+    /**
+     * Collects the tables whose columns the expression references.
+     *
+     * @return the table keys, or {@code null} if a column is not qualified with a known table or a node
+     *         cannot be traversed.
+     */
+    private static Set<String> referencedTables(Expression expression, Set<String> keys) {
+        Set<String> referenced = new HashSet<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Expression current = pending.pop();
+            if (ValidationUtils.isColumnExpression(current)) {
+                Column column = (Column) current;
+                if (column.getTable() == null || !keys.contains(column.getTable().getFullyQualifiedName())) {
+                    return null;
+                }
+                referenced.add(column.getTable().getFullyQualifiedName());
+            } else if (ExpressionUtils.isTraversable(current)) {
+                ExpressionUtils.forEachChild(current, pending::push);
+            } else if (!ValidationUtils.isLiteralExpression(current)) {
+                return null;
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * Checks if the join is an INNER join, written either as {@code INNER JOIN} or as a plain {@code JOIN}.
+     */
+    private static boolean isInner(Join join) {
+        return join.isInner() || join.toString().toLowerCase().startsWith("join ");
+    }
+
+    private static String keyOf(Table table) {
+        return table.getAlias() != null
+                ? table.getAlias().getName()
+                : table.getFullyQualifiedName();
+    }
+}
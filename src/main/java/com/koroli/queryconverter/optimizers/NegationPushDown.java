@@ -0,0 +1,147 @@
+package com.koroli.queryconverter.optimizers;
+
+import lombok.experimental.UtilityClass;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pushes {@code NOT} down to the leaves of a predicate, so that it can be expressed with
+ * index-friendly operators instead of {@code $not} / {@code $nor}:
+ * <ul>
+ *     <li>{@code NOT (a AND b)} becomes {@code NOT a OR NOT b}, {@code NOT (a OR b)} becomes {@code NOT a AND NOT b};</li>
+ *     <li>comparisons are inverted: {@code NOT (a > 5)} becomes {@code a <= 5};</li>
+ *     <li>{@code NOT IN}, {@code NOT LIKE} and {@code IS NOT NULL} are toggled on the node itself;</li>
+ *     <li>{@code BETWEEN} becomes a range and {@code NOT BETWEEN} becomes {@code a < start OR a > end}.</li>
+ * </ul>
+ * Negations that cannot be pushed further (e.g. over a bare column or a function call) are kept as {@link NotExpression}.
+ * <p>
+ * Null semantics: MongoDB range operators never match a missing or {@code null} field, so an inverted
+ * range behaves like SQL three-valued logic ({@code NOT (a > 5)} does not match {@code a IS NULL}),
+ * unlike {@code $not}, which would match it. {@code <>}, {@code NOT IN} and {@code NOT LIKE} translate to
+ * {@code $ne}, {@code $nin} and {@code $not}, which do match documents where the field is missing or {@code null};
+ * add {@code a IS NOT NULL} to get the SQL behaviour.
+ */
+@UtilityClass
+public class NegationPushDown {
+
+    /**
+     * Rewrites the predicate so that {@code NOT} only remains where it cannot be pushed further.
+     * The tree is walked with an explicit stack, so arbitrarily long AND/OR chains are supported.
+     *
+     * @param expression the predicate.
+     * @return the rewritten predicate; the original expression tree is not modified.
+     */
+    public static Expression apply(Expression expression) {
+        Deque<Object> pending = new ArrayDeque<>();
+        Deque<Expression> results = new ArrayDeque<>();
+        pending.push(new Step(expression, false));
+
+        while (!pending.isEmpty()) {
+            Object item = pending.pop();
+
+            if (item instanceof Join join) {
+                Expression right = results.pop();
+                Expression left = results.pop();
+                results.push(join.conjunction() ? new AndExpression(left, right) : new OrExpression(left, right));
+                continue;
+            }
+
+            Step step = (Step) item;
+            boolean negate = step.negate();
+
+            switch (step.expression()) {
+                case NotExpression notExpression -> pending.push(new Step(notExpression.getExpression(), !negate));
+                case ParenthesedExpressionList<?> list when list.size() == 1 -> pending.push(new Step(list.getFirst(), negate));
+                case AndExpression and -> pushOperands(pending, and, !negate, negate);
+                case OrExpression or -> pushOperands(pending, or, negate, negate);
+                case Between between -> results.push(toRange(between, negate != between.isNot()));
+                case Expression leaf -> results.push(negate ? negate(leaf) : leaf);
+            }
+        }
+        return results.pop();
+    }
+
+    /**
+     * Schedules both operands of AND/OR, followed by joining their results with the (possibly swapped) operator.
+     */
+    private static void pushOperands(Deque<Object> pending, BinaryExpression binary, boolean conjunction, boolean negate) {
+        pending.push(new Join(conjunction));
+        pending.push(new Step(binary.getRightExpression(), negate));
+        pending.push(new Step(binary.getLeftExpression(), negate));
+    }
+
+    /**
+     * Negates a leaf predicate.
+     */
+    private static Expression negate(Expression expression) {
+        return switch (expression) {
+            case ComparisonOperator comparison when isInvertible(comparison) -> invert(comparison);
+            case InExpression in -> new InExpression(in.getLeftExpression(), in.getRightExpression())
+                    .withNot(!in.isNot());
+            case LikeExpression like -> copyLike(like).withNot(!like.isNot());
+            case IsNullExpression isNull -> new IsNullExpression()
+                    .withLeftExpression(isNull.getLeftExpression())
+                    .withUseIsNull(isNull.isUseIsNull())
+                    .withNot(!isNull.isNot());
+            default -> new NotExpression(expression);
+        };
+    }
+
+    /**
+     * Comparisons over functions carry special meaning (e.g. {@code regexMatch(a, 'x') = true}),
+     * so only plain comparisons are inverted.
+     */
+    private static boolean isInvertible(ComparisonOperator comparison) {
+        return !(comparison.getLeftExpression() instanceof Function)
+                && !(comparison.getRightExpression() instanceof Function);
+    }
+
+    private static Expression invert(ComparisonOperator comparison) {
+        Expression left = comparison.getLeftExpression();
+        Expression right = comparison.getRightExpression();
+
+        return switch (comparison) {
+            case EqualsTo ignored           -> new NotEqualsTo(left, right);
+            case NotEqualsTo ignored        -> new EqualsTo(left, right);
+            case GreaterThan ignored        -> new MinorThanEquals(left, right);
+            case GreaterThanEquals ignored  -> new MinorThan(left, right);
+            case MinorThan ignored          -> new GreaterThanEquals(left, right);
+            case MinorThanEquals ignored    -> new GreaterThan(left, right);
+            default -> new NotExpression(comparison);
+        };
+    }
+
+    private static Expression toRange(Between between, boolean negate) {
+        Expression left = between.getLeftExpression();
+        Expression start = between.getBetweenExpressionStart();
+        Expression end = between.getBetweenExpressionEnd();
+
+        return negate
+                ? new OrExpression(new MinorThan(left, start), new GreaterThan(left, end))
+                : new AndExpression(new GreaterThanEquals(left, start), new MinorThanEquals(left, end));
+    }
+
+    private static LikeExpression copyLike(LikeExpression like) {
+        LikeExpression copy = new LikeExpression()
+                .withLeftExpression(like.getLeftExpression())
+                .withRightExpression(like.getRightExpression())
+                .withEscape(like.getEscape());
+        copy.setLikeKeyWord(like.getLikeKeyWord());
+        copy.setUseBinary(like.isUseBinary());
+        return copy;
+    }
+
+    private record Step(Expression expression, boolean negate) {
+    }
+
+    private record Join(boolean conjunction) {
+    }
+}
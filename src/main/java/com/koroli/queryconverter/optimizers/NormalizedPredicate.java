@@ -0,0 +1,45 @@
+package com.koroli.queryconverter.optimizers;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import net.sf.jsqlparser.expression.Expression;
+
+/**
+ * Result of normalising a boolean predicate.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class NormalizedPredicate {
+
+    private static final NormalizedPredicate CONTRADICTION = new NormalizedPredicate(null, true);
+
+    /**
+     * The normalised predicate, or {@code null} if it is a contradiction.
+     */
+    Expression expression;
+
+    /**
+     * Whether the predicate can never match any document.
+     */
+    boolean contradiction;
+
+    /**
+     * Creates a result holding the normalised predicate.
+     *
+     * @param expression the normalised predicate.
+     * @return the {@link NormalizedPredicate}.
+     */
+    public static NormalizedPredicate of(Expression expression) {
+        return new NormalizedPredicate(expression, false);
+    }
+
+    /**
+     * Returns the result of a predicate that can never match.
+     *
+     * @return the contradiction {@link NormalizedPredicate}.
+     */
+    public static NormalizedPredicate contradiction() {
+        return CONTRADICTION;
+    }
+}
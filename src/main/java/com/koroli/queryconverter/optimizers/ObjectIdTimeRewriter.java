@@ -0,0 +1,158 @@
+package com.koroli.queryconverter.optimizers;
+
+import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.model.FieldType;
+import com.koroli.queryconverter.utils.NormalizationUtils;
+import com.koroli.queryconverter.utils.ParsingUtils;
+import com.koroli.queryconverter.utils.ValidationUtils;
+import lombok.RequiredArgsConstructor;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.DateValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.TimestampValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+import net.sf.jsqlparser.schema.Column;
+
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+
+/**
+ * Rewrites comparisons of a creation-time column with a date constant into comparisons on {@code _id}.
+ * <p>
+ * The leading 4 bytes of an ObjectId are its creation time in seconds, so the smallest ObjectId of a second,
+ * {@code toObjectId('<seconds in hex>0000000000000000')}, bounds all documents created from that second on,
+ * and the filter is answered from the default {@code _id} index. The column is compared as the creation second:
+ * <ul>
+ *     <li>{@code t >= x} becomes {@code _id >= oid(ceil(x))} and {@code t > x} becomes {@code _id >= oid(floor(x) + 1)};</li>
+ *     <li>{@code t < x} becomes {@code _id < oid(ceil(x))} and {@code t <= x} becomes {@code _id < oid(floor(x) + 1)};</li>
+ *     <li>{@code t = x} becomes the range of both bounds.</li>
+ * </ul>
+ * The column may exist in the documents, or be a virtual column that stands for the creation time of {@code _id}.
+ */
+@RequiredArgsConstructor
+public class ObjectIdTimeRewriter {
+
+    private static final String ID_FIELD = "_id";
+    private static final String ZERO_SUFFIX = "0000000000000000";
+    private static final long MAX_SECONDS = 0xFFFF_FFFFL;
+
+    private final String timeField;
+
+    /**
+     * Rewrites the comparisons of the creation-time column with a date constant.
+     *
+     * @param expression the predicate, after {@link NegationPushDown}.
+     * @return the rewritten predicate; the original expression tree is not modified.
+     */
+    public Expression apply(Expression expression) {
+        Deque<Object> pending = new ArrayDeque<>();
+        Deque<Expression> results = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Object item = pending.pop();
+
+            if (item instanceof Join join) {
+                Expression right = results.pop();
+                Expression left = results.pop();
+                results.push(join.conjunction() ? new AndExpression(left, right) : new OrExpression(left, right));
+                continue;
+            }
+
+            switch ((Expression) item) {
+                case ParenthesedExpressionList<?> list when list.size() == 1 -> pending.push(list.getFirst());
+                case AndExpression and -> pushOperands(pending, and, true);
+                case OrExpression or -> pushOperands(pending, or, false);
+                case ComparisonOperator comparison -> results.push(rewriteComparison(comparison));
+                case Expression leaf -> results.push(leaf);
+            }
+        }
+        return results.pop();
+    }
+
+    private static void pushOperands(Deque<Object> pending, BinaryExpression binary, boolean conjunction) {
+        pending.push(new Join(conjunction));
+        pending.push(binary.getRightExpression());
+        pending.push(binary.getLeftExpression());
+    }
+
+    private Expression rewriteComparison(ComparisonOperator comparison) {
+        boolean columnLeft = isTimeColumn(comparison.getLeftExpression());
+        if (!columnLeft && !isTimeColumn(comparison.getRightExpression())) {
+            return comparison;
+        }
+
+        Date date = toDate(columnLeft ? comparison.getRightExpression() : comparison.getLeftExpression());
+        if (date == null) {
+            return comparison;
+        }
+
+        long millis = date.getTime();
+        long ceil = Math.ceilDiv(millis, 1000L);
+        long next = Math.floorDiv(millis, 1000L) + 1;
+        if (ceil < 0 || next > MAX_SECONDS) {
+            return comparison;
+        }
+
+        Column id = new Column(ID_FIELD);
+        return switch (comparison) {
+            case EqualsTo ignored -> new AndExpression(
+                    new GreaterThanEquals(id, toObjectId(ceil)),
+                    new MinorThan(id, toObjectId(next)));
+            case GreaterThanEquals ignored -> columnLeft
+                    ? new GreaterThanEquals(id, toObjectId(ceil))
+                    : new MinorThan(id, toObjectId(next));
+            case GreaterThan ignored -> columnLeft
+                    ? new GreaterThanEquals(id, toObjectId(next))
+                    : new MinorThan(id, toObjectId(ceil));
+            case MinorThan ignored -> columnLeft
+                    ? new MinorThan(id, toObjectId(ceil))
+                    : new GreaterThanEquals(id, toObjectId(next));
+            case MinorThanEquals ignored -> columnLeft
+                    ? new MinorThan(id, toObjectId(next))
+                    : new GreaterThanEquals(id, toObjectId(ceil));
+            default -> comparison;
+        };
+    }
+
+    private boolean isTimeColumn(Expression expression) {
+        return ValidationUtils.isColumnExpression(expression)
+                && timeField.equals(ParsingUtils.extractStringValue(expression));
+    }
+
+    /**
+     * Reads a date constant: a date string, {@code {d '...'}} or {@code {ts '...'}}.
+     *
+     * @return the date, or {@code null} if the expression is not a valid date constant.
+     */
+    private static Date toDate(Expression constant) {
+        try {
+            Object value = switch (constant) {
+                case StringValue stringValue -> NormalizationUtils.normalizeValue(stringValue.getValue(), FieldType.DATE);
+                case TimestampValue timestampValue -> timestampValue.getValue();
+                case DateValue dateValue -> dateValue.getValue();
+                default -> null;
+            };
+            return value instanceof Date date ? date : null;
+        } catch (QueryConversionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds {@code toObjectId('...')} of the smallest ObjectId created in the given second.
+     */
+    private static Function toObjectId(long seconds) {
+        StringValue hex = new StringValue();
+        hex.setValue(String.format("%08x", seconds) + ZERO_SUFFIX);
+        return new Function("toObjectId", hex);
+    }
+
+    private record Join(boolean conjunction) {
+    }
+}
@@ -0,0 +1,542 @@
+package com.koroli.queryconverter.optimizers;
+
+import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.model.FieldType;
+import com.koroli.queryconverter.utils.ExpressionUtils;
+import com.koroli.queryconverter.utils.NormalizationUtils;
+import com.koroli.queryconverter.utils.ParsingUtils;
+import com.koroli.queryconverter.utils.ValidationUtils;
+import lombok.RequiredArgsConstructor;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.NullValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+import net.sf.jsqlparser.schema.Column;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.BinaryOperator;
+
+/**
+ * Normalises a boolean predicate before it is translated into a MongoDB filter:
+ * <ul>
+ *     <li>equalities on the same field joined by OR are merged into a single IN;</li>
+ *     <li>ranges, equalities and IN lists on the same scalar field joined by AND are intersected;</li>
+ *     <li>duplicate conjuncts and disjuncts are dropped;</li>
+ *     <li>predicates on scalar fields that can never match (e.g. {@code a = 1 AND a = 2}) are detected.</li>
+ * </ul>
+ * Only comparisons between a column and a literal take part in merging, every other predicate is kept as is.
+ * <p>
+ * Intersecting assumes that a field holds a single value. A comparison on an array field matches if any element
+ * matches, so {@code a = 1 AND a < 0} matches {@code a: [1, -1]}. Conjuncts are therefore only intersected for fields
+ * declared with a scalar type in the field type mapping; for any other field they are kept as written, without
+ * duplicates. Merging equalities joined by OR into an IN is safe for arrays too.
+ */
+@RequiredArgsConstructor
+public class PredicateNormalizer {
+
+    /**
+     * Marker for a sub-predicate that can never match.
+     */
+    private static final Expression CONTRADICTION = new NullValue();
+
+    private final FieldType defaultFieldType;
+    private final Map<String, FieldType> fieldNameToFieldTypeMapping;
+
+    /**
+     * Normalises the given predicate.
+     *
+     * @param expression the predicate to normalise.
+     * @return the {@link NormalizedPredicate}.
+     * @throws QueryConversionException if a literal cannot be normalised for its field type.
+     */
+    public NormalizedPredicate normalize(Expression expression) throws QueryConversionException {
+        Expression normalized = normalizeExpression(expression);
+        return normalized == CONTRADICTION
+                ? NormalizedPredicate.contradiction()
+                : NormalizedPredicate.of(normalized);
+    }
+
+    private Expression normalizeExpression(Expression expression) throws QueryConversionException {
+        Expression unwrapped = ExpressionUtils.unwrapParentheses(expression);
+
+        return switch (unwrapped) {
+            case AndExpression ignored -> normalizeConjunction(ExpressionUtils.flattenOperands(unwrapped, AndExpression.class));
+            case OrExpression ignored  -> normalizeDisjunction(ExpressionUtils.flattenOperands(unwrapped, OrExpression.class));
+            default -> unwrapped;
+        };
+    }
+
+    private Expression normalizeConjunction(List<Expression> operands) throws QueryConversionException {
+        List<Expression> conjuncts = new ArrayList<>();
+        for (Expression operand : operands) {
+            Expression normalized = normalizeExpression(operand);
+            if (normalized == CONTRADICTION) {
+                return CONTRADICTION;
+            }
+            conjuncts.addAll(ExpressionUtils.flattenOperands(normalized, AndExpression.class));
+        }
+
+        Map<String, FieldConstraint> constraints = new HashMap<>();
+        List<Object> ordered = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (Expression conjunct : conjuncts) {
+            FieldPredicate predicate = toFieldPredicate(conjunct);
+
+            if (predicate != null && isScalar(predicate.field())) {
+                FieldConstraint constraint = constraints.get(predicate.field());
+                if (constraint == null) {
+                    constraint = new FieldConstraint(predicate.column());
+                    constraints.put(predicate.field(), constraint);
+                    ordered.add(constraint);
+                }
+                constraint.predicates.add(predicate);
+            } else if (seen.add(conjunct.toString())) {
+                ordered.add(conjunct);
+            }
+        }
+
+        List<Expression> result = new ArrayList<>();
+        for (Object item : ordered) {
+            if (item instanceof FieldConstraint constraint) {
+                List<Expression> merged = constraint.toConjuncts();
+                if (merged == null) {
+                    return CONTRADICTION;
+                }
+                result.addAll(merged);
+            } else {
+                result.add((Expression) item);
+            }
+        }
+
+        return combine(result, AndExpression::new);
+    }
+
+    private Expression normalizeDisjunction(List<Expression> operands) throws QueryConversionException {
+        List<Expression> disjuncts = new ArrayList<>();
+        for (Expression operand : operands) {
+            Expression normalized = normalizeExpression(operand);
+            if (normalized != CONTRADICTION) {
+                disjuncts.addAll(ExpressionUtils.flattenOperands(normalized, OrExpression.class));
+            }
+        }
+
+        if (disjuncts.isEmpty()) {
+            return CONTRADICTION;
+        }
+
+        Map<String, Map<Object, Literal>> equalities = new HashMap<>();
+        Map<String, Column> columns = new HashMap<>();
+        List<Object> ordered = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (Expression disjunct : disjuncts) {
+            FieldPredicate predicate = toFieldPredicate(disjunct);
+
+            if (predicate != null && (predicate.kind() == Kind.EQ || predicate.kind() == Kind.IN)) {
+                Map<Object, Literal> values = equalities.get(predicate.field());
+                if (values == null) {
+                    values = new LinkedHashMap<>();
+                    equalities.put(predicate.field(), values);
+                    columns.put(predicate.field(), predicate.column());
+                    ordered.add(predicate.field());
+                }
+                for (Literal literal : predicate.values()) {
+                    values.putIfAbsent(literal.key(), literal);
+                }
+            } else if (seen.add(disjunct.toString())) {
+                ordered.add(disjunct);
+            }
+        }
+
+        List<Expression> result = new ArrayList<>();
+        for (Object item : ordered) {
+            if (item instanceof String field) {
+                result.add(toEqualityExpression(columns.get(field), equalities.get(field).values()));
+            } else {
+                result.add((Expression) item);
+            }
+        }
+
+        return combine(result, OrExpression::new);
+    }
+
+    /**
+     * Recognises a comparison between a column and a literal.
+     *
+     * @param expression the predicate.
+     * @return the {@link FieldPredicate}, or {@code null} if the predicate is not a simple field comparison.
+     * @throws QueryConversionException if a literal cannot be normalised for its field type.
+     */
+    private FieldPredicate toFieldPredicate(Expression expression) throws QueryConversionException {
+        if (expression instanceof InExpression inExpression) {
+            if (inExpression.isNot()
+                    || !isField(inExpression.getLeftExpression())
+                    || !(inExpression.getRightExpression() instanceof ExpressionList<?> expressionList)
+            ) {
+                return null;
+            }
+
+            Column column = (Column) inExpression.getLeftExpression();
+            List<Literal> values = new ArrayList<>(expressionList.size());
+            for (Expression item : expressionList) {
+                Literal literal = toLiteral(item, column);
+                if (literal == null) {
+                    return null;
+                }
+                values.add(literal);
+            }
+            return new FieldPredicate(column, ParsingUtils.extractStringValue(column), Kind.IN, values);
+        }
+
+        if (!(expression instanceof ComparisonOperator comparison)) {
+            return null;
+        }
+
+        Kind kind = switch (comparison) {
+            case EqualsTo ignored           -> Kind.EQ;
+            case NotEqualsTo ignored        -> Kind.NE;
+            case GreaterThan ignored        -> Kind.GT;
+            case GreaterThanEquals ignored  -> Kind.GTE;
+            case MinorThan ignored          -> Kind.LT;
+            case MinorThanEquals ignored    -> Kind.LTE;
+            default -> null;
+        };
+
+        Expression left = comparison.getLeftExpression();
+        Expression right = comparison.getRightExpression();
+
+        if (kind == null) {
+            return null;
+        }
+        if (!isField(left) && isField(right)) {
+            kind = kind.flip();
+            Expression swap = left;
+            left = right;
+            right = swap;
+        }
+        if (!isField(left)) {
+            return null;
+        }
+
+        Column column = (Column) left;
+        Literal literal = toLiteral(right, column);
+        return literal != null
+                ? new FieldPredicate(column, ParsingUtils.extractStringValue(column), kind, List.of(literal))
+                : null;
+    }
+
+    /**
+     * Checks if the field is declared with a scalar type, so that it cannot hold an array.
+     */
+    private boolean isScalar(String field) {
+        FieldType fieldType = fieldNameToFieldTypeMapping.get(field);
+        return fieldType != null && fieldType != FieldType.UNKNOWN;
+    }
+
+    private boolean isField(Expression expression) {
+        return ValidationUtils.isColumnExpression(expression)
+                && !((Column) expression).getColumnName().startsWith("$");
+    }
+
+    private Literal toLiteral(Expression expression, Column column) throws QueryConversionException {
+        if (!ValidationUtils.isLiteralExpression(expression) || expression instanceof NullValue) {
+            return null;
+        }
+
+        Object value = NormalizationUtils.normalizeExpression(
+                expression,
+                column,
+                defaultFieldType,
+                fieldNameToFieldTypeMapping,
+                null,
+                null
+        );
+        if (value instanceof String && FieldType.CASE_INSENSITIVE_STRING == fieldNameToFieldTypeMapping.getOrDefault(
+                ParsingUtils.extractStringValue(column), defaultFieldType)) {
+            return null;
+        }
+        Object key = valueKey(value);
+
+        return key != null
+                ? new Literal(expression, value, key)
+                : null;
+    }
+
+    /**
+     * Builds the key used to detect equal values: numbers are compared by value regardless of their type.
+     */
+    private static Object valueKey(Object value) {
+        return switch (value) {
+            case Double d when d.isNaN() || d.isInfinite() -> null;
+            case Float f when f.isNaN() || f.isInfinite()  -> null;
+            case Double d  -> BigDecimal.valueOf(d).stripTrailingZeros();
+            case Float f   -> BigDecimal.valueOf(f).stripTrailingZeros();
+            case Number n  -> new BigDecimal(n.toString()).stripTrailingZeros();
+            case null      -> null;
+            default        -> value;
+        };
+    }
+
+    /**
+     * Compares two literal values of the same type.
+     *
+     * @return the comparison result, or {@code null} if the values are not comparable.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Integer compare(Literal a, Literal b) {
+        if (a.key() instanceof BigDecimal x && b.key() instanceof BigDecimal y) {
+            return x.compareTo(y);
+        }
+        if (a.key() instanceof Comparable x && a.key().getClass() == b.key().getClass()) {
+            return x.compareTo(b.key());
+        }
+        return null;
+    }
+
+    private static Expression toEqualityExpression(Column column, Collection<Literal> values) {
+        if (values.size() == 1) {
+            return new EqualsTo(column, values.iterator().next().expression());
+        }
+
+        List<Expression> expressions = values.stream()
+                .map(Literal::expression)
+                .toList();
+        return new InExpression(column, new ParenthesedExpressionList<>(expressions));
+    }
+
+    /**
+     * Joins the operands into a balanced tree, so the depth of the result stays logarithmic
+     * even for predicates with thousands of operands.
+     */
+    private static Expression combine(List<Expression> operands, BinaryOperator<Expression> operator) {
+        List<Expression> level = operands;
+        while (level.size() > 1) {
+            List<Expression> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                next.add(i + 1 < level.size()
+                        ? operator.apply(level.get(i), level.get(i + 1))
+                        : level.get(i));
+            }
+            level = next;
+        }
+        return level.getFirst();
+    }
+
+    private enum Kind {
+        EQ, NE, GT, GTE, LT, LTE, IN;
+
+        Kind flip() {
+            return switch (this) {
+                case GT  -> LT;
+                case GTE -> LTE;
+                case LT  -> GT;
+                case LTE -> GTE;
+                default  -> this;
+            };
+        }
+    }
+
+    private record Literal(Expression expression, Object value, Object key) {
+    }
+
+    private record FieldPredicate(Column column, String field, Kind kind, List<Literal> values) {
+    }
+
+    /**
+     * All simple predicates on one field inside a conjunction.
+     */
+    @RequiredArgsConstructor
+    private static final class FieldConstraint {
+        private final Column column;
+        private final List<FieldPredicate> predicates = new ArrayList<>();
+
+        private Literal lower;
+        private boolean lowerInclusive;
+        private Literal upper;
+        private boolean upperInclusive;
+
+        /**
+         * Intersects the predicates on the field.
+         *
+         * @return the merged conjuncts, or {@code null} if the predicates contradict each other.
+         */
+        List<Expression> toConjuncts() {
+            Map<Object, Literal> equalities = null;
+            Map<Object, Literal> notEquals = new LinkedHashMap<>();
+
+            for (FieldPredicate predicate : predicates) {
+                Literal literal = predicate.values().getFirst();
+
+                switch (predicate.kind()) {
+                    case EQ, IN -> {
+                        Map<Object, Literal> values = new LinkedHashMap<>();
+                        for (Literal value : predicate.values()) {
+                            if (equalities == null || equalities.containsKey(value.key())) {
+                                values.putIfAbsent(value.key(), value);
+                            }
+                        }
+                        equalities = values;
+                    }
+                    case NE -> notEquals.putIfAbsent(literal.key(), literal);
+                    case GT, GTE -> {
+                        if (!tightenLower(literal, predicate.kind() == Kind.GTE)) {
+                            return deduplicated();
+                        }
+                    }
+                    case LT, LTE -> {
+                        if (!tightenUpper(literal, predicate.kind() == Kind.LTE)) {
+                            return deduplicated();
+                        }
+                    }
+                }
+            }
+
+            if (equalities != null) {
+                List<Literal> remaining = new ArrayList<>();
+                for (Literal value : equalities.values()) {
+                    Boolean inRange = isInRange(value);
+                    if (inRange == null) {
+                        return deduplicated();
+                    }
+                    if (inRange && !notEquals.containsKey(value.key())) {
+                        remaining.add(value);
+                    }
+                }
+                return remaining.isEmpty()
+                        ? null
+                        : List.of(toEqualityExpression(column, remaining));
+            }
+
+            if (lower != null && upper != null) {
+                Integer comparison = compare(lower, upper);
+                if (comparison == null) {
+                    return deduplicated();
+                }
+                if (comparison > 0 || (comparison == 0 && !(lowerInclusive && upperInclusive))) {
+                    return null;
+                }
+                if (comparison == 0) {
+                    return notEquals.containsKey(lower.key())
+                            ? null
+                            : List.of(new EqualsTo(column, lower.expression()));
+                }
+            }
+
+            List<Expression> result = new ArrayList<>();
+            if (lower != null) {
+                result.add(lowerInclusive
+                        ? new GreaterThanEquals(column, lower.expression())
+                        : new GreaterThan(column, lower.expression()));
+            }
+            if (upper != null) {
+                result.add(upperInclusive
+                        ? new MinorThanEquals(column, upper.expression())
+                        : new MinorThan(column, upper.expression()));
+            }
+            for (Literal value : notEquals.values()) {
+                Boolean inRange = isInRange(value);
+                if (inRange == null || inRange) {
+                    result.add(new NotEqualsTo(column, value.expression()));
+                }
+            }
+            return result;
+        }
+
+        private boolean tightenLower(Literal literal, boolean inclusive) {
+            if (lower == null) {
+                lower = literal;
+                lowerInclusive = inclusive;
+                return true;
+            }
+
+            Integer comparison = compare(literal, lower);
+            if (comparison == null) {
+                return false;
+            }
+            if (comparison > 0) {
+                lower = literal;
+                lowerInclusive = inclusive;
+            } else if (comparison == 0) {
+                lowerInclusive &= inclusive;
+            }
+            return true;
+        }
+
+        private boolean tightenUpper(Literal literal, boolean inclusive) {
+            if (upper == null) {
+                upper = literal;
+                upperInclusive = inclusive;
+                return true;
+            }
+
+            Integer comparison = compare(literal, upper);
+            if (comparison == null) {
+                return false;
+            }
+            if (comparison < 0) {
+                upper = literal;
+                upperInclusive = inclusive;
+            } else if (comparison == 0) {
+                upperInclusive &= inclusive;
+            }
+            return true;
+        }
+
+        /**
+         * @return whether the value lies within the collected bounds, or {@code null} if it is not comparable.
+         */
+        private Boolean isInRange(Literal value) {
+            if (lower != null) {
+                Integer comparison = compare(value, lower);
+                if (comparison == null) {
+                    return null;
+                }
+                if (comparison < 0 || (comparison == 0 && !lowerInclusive)) {
+                    return false;
+                }
+            }
+            if (upper != null) {
+                Integer comparison = compare(value, upper);
+                if (comparison == null) {
+                    return null;
+                }
+                if (comparison > 0 || (comparison == 0 && !upperInclusive)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Fallback for values that cannot be compared: keeps the original predicates, without duplicates.
+         */
+        private List<Expression> deduplicated() {
+            Set<String> seen = new HashSet<>();
+            List<Expression> result = new ArrayList<>();
+            for (FieldPredicate predicate : predicates) {
+                Expression expression = toExpression(predicate);
+                if (seen.add(expression.toString())) {
+                    result.add(expression);
+                }
+            }
+            return result;
+        }
+
+        private Expression toExpression(FieldPredicate predicate) {
+            Expression value = predicate.values().getFirst().expression();
+            return switch (predicate.kind()) {
+                case EQ  -> new EqualsTo(column, value);
+                case NE  -> new NotEqualsTo(column, value);
+                case GT  -> new GreaterThan(column, value);
+                case GTE -> new GreaterThanEquals(column, value);
+                case LT  -> new MinorThan(column, value);
+                case LTE -> new MinorThanEquals(column, value);
+                case IN  -> new InExpression(column, new ParenthesedExpressionList<>(
+                        predicate.values().stream().map(Literal::expression).toList()));
+            };
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.koroli.queryconverter.optimizers;
+
+import com.koroli.queryconverter.holders.SQLCommandInfo;
+import com.koroli.queryconverter.utils.ExpressionUtils;
+import com.koroli.queryconverter.utils.ValidationUtils;
+import lombok.experimental.UtilityClass;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.TimeKeyExpression;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.AllTableColumns;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import org.bson.Document;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Computes the fields of each table of a join that the query references, so that the documents can be
+ * projected down to them before {@code $lookup} embeds the joined documents and {@code $unwind} multiplies them.
+ * <p>
+ * Columns are collected from the select list, WHERE, GROUP BY, HAVING, ORDER BY and the ON conditions.
+ * A column qualified with a table alias (or with the table name if it has no alias) belongs to that table;
+ * an unqualified column may belong to any table, so it is kept in all of them. A table is not projected if its
+ * columns cannot all be determined: {@code t.*}, or, for every table, {@code *} or an expression node whose
+ * sub-expressions are not known (e.g. CASE or a sub-query).
+ */
+@UtilityClass
+public class ProjectionPushDown {
+
+    private static final String ID_FIELD = "_id";
+
+    /**
+     * Computes the referenced fields of the tables of a join.
+     *
+     * @param sqlCommandInfo the SQL command information.
+     * @param baseKey        the alias of the base table, or its name if it has no alias.
+     * @return the inclusion projections keyed by table alias (or name); a table without an entry needs all of its
+     *         fields. Empty if no table can be projected.
+     */
+    public static Map<String, Document> referencedFields(SQLCommandInfo sqlCommandInfo, String baseKey) {
+        Map<String, String> keyByQualifier = new HashMap<>();
+        Map<String, Set<String>> fieldsByKey = new LinkedHashMap<>();
+        keyByQualifier.put(baseKey, baseKey);
+        if (sqlCommandInfo.getBaseTableName() != null) {
+            keyByQualifier.putIfAbsent(sqlCommandInfo.getBaseTableName(), baseKey);
+        }
+        fieldsByKey.put(baseKey, new TreeSet<>());
+
+        List<Expression> roots = new ArrayList<>();
+        for (Join join : sqlCommandInfo.getJoins()) {
+            String key = join.getRightItem().getAlias() != null
+                    ? join.getRightItem().getAlias().getName()
+                    : join.getRightItem().toString();
+            keyByQualifier.put(key, key);
+            fieldsByKey.put(key, new TreeSet<>());
+            roots.addAll(join.getOnExpressions());
+            if (join.getUsingColumns() != null) {
+                roots.addAll(join.getUsingColumns());
+            }
+        }
+
+        for (SelectItem<?> selectItem : sqlCommandInfo.getSelectItems()) {
+            switch (selectItem.getExpression()) {
+                case AllTableColumns tableColumns -> fieldsByKey.remove(
+                        keyByQualifier.get(tableColumns.getTable().getFullyQualifiedName()));
+                case AllColumns ignored -> {
+                    return Map.of();
+                }
+                default -> roots.add(selectItem.getExpression());
+            }
+        }
+        if (sqlCommandInfo.getWhereClause() != null) {
+            roots.add(sqlCommandInfo.getWhereClause());
+        }
+        if (sqlCommandInfo.getHavingClause() != null) {
+            roots.add(sqlCommandInfo.getHavingClause());
+        }
+        if (sqlCommandInfo.getOrderByElements() != null) {
+            for (OrderByElement orderByElement : sqlCommandInfo.getOrderByElements()) {
+                roots.add(orderByElement.getExpression());
+            }
+        }
+        for (String groupByField : sqlCommandInfo.getGroupByFields()) {
+            addField(groupByField, keyByQualifier, fieldsByKey);
+        }
+
+        Deque<Expression> pending = new ArrayDeque<>(roots);
+        while (!pending.isEmpty()) {
+            Expression current = pending.pop();
+            if (ValidationUtils.isColumnExpression(current)) {
+                addField(((Column) current).getFullyQualifiedName(), keyByQualifier, fieldsByKey);
+            } else if (ExpressionUtils.isTraversable(current)) {
+                ExpressionUtils.forEachChild(current, pending::push);
+            } else if (!ValidationUtils.isLiteralExpression(current)
+                    && !(current instanceof TimeKeyExpression)
+                    && !(current instanceof AllColumns)
+            ) {
+                return Map.of();
+            }
+        }
+
+        Map<String, Document> projections = new LinkedHashMap<>();
+        fieldsByKey.forEach((key, fields) -> projections.put(key, toProjection(fields)));
+        return projections;
+    }
+
+    /**
+     * Adds a field to its table, or to every table if it is not qualified with a known table.
+     */
+    private static void addField(String name, Map<String, String> keyByQualifier, Map<String, Set<String>> fieldsByKey) {
+        int dot = name.indexOf('.');
+        String key = dot > 0 ? keyByQualifier.get(name.substring(0, dot)) : null;
+
+        if (key != null) {
+            Set<String> fields = fieldsByKey.get(key);
+            if (fields != null) {
+                fields.add(name.substring(dot + 1));
+            }
+        } else {
+            fieldsByKey.values().forEach(fields -> fields.add(name));
+        }
+    }
+
+    /**
+     * Builds the inclusion projection of the fields, dropping the paths inside another included path
+     * ({@code a.b} with {@code a}), which MongoDB rejects as a path collision. {@code _id} is always included.
+     */
+    private static Document toProjection(Set<String> fields) {
+        Document projection = new Document();
+        for (String field : fields) {
+            if (!isInside(field, fields) && !field.equals(ID_FIELD) && !field.startsWith(ID_FIELD + ".")) {
+                projection.put(field, 1);
+            }
+        }
+        if (projection.isEmpty()) {
+            projection.put(ID_FIELD, 1);
+        }
+        return projection;
+    }
+
+    private static boolean isInside(String field, Set<String> fields) {
+        for (int dot = field.indexOf('.'); dot > 0; dot = field.indexOf('.', dot + 1)) {
+            if (fields.contains(field.substring(0, dot))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,350 @@
+package com.koroli.queryconverter.optimizers;
+
+import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.model.FieldType;
+import com.koroli.queryconverter.utils.NormalizationUtils;
+import com.koroli.queryconverter.utils.ParsingUtils;
+import com.koroli.queryconverter.utils.ValidationUtils;
+import lombok.RequiredArgsConstructor;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExtractExpression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.TimestampValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+import net.sf.jsqlparser.schema.Column;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rewrites comparisons between a function of a column and a constant into equivalent comparisons on the
+ * column itself, which MongoDB can answer from an index instead of evaluating {@code $expr} on every document:
+ * <ul>
+ *     <li>{@code YEAR(d) = 2024} and {@code EXTRACT(YEAR FROM d) = 2024} become the half-open range
+ *     {@code d >= 2024-01-01 AND d < 2025-01-01} (UTC, like {@code $year});</li>
+ *     <li>{@code DATE_TRUNC('day' | 'month' | 'year', d) = '...'} becomes the range of that day, month or year (UTC,
+ *     like {@code $dateTrunc}) when the constant is aligned to the unit;</li>
+ *     <li>{@code DATE(d) = '2024-05-01'} becomes the range of that day, in the zone date literals are read in;</li>
+ *     <li>{@code SUBSTRING(s, 1, 3) = 'ABC'} and {@code LEFT(s, 3) = 'ABC'} become the prefix range
+ *     {@code s >= 'ABC' AND s < 'ABD'};</li>
+ *     <li>{@code LOWER(s) = '42'} and {@code UPPER(s) = '42'} become {@code s = '42'} when the constant has no letters.</li>
+ * </ul>
+ * Date-part rewrites also apply to {@code <}, {@code <=}, {@code >} and {@code >=}; the others only to equality.
+ * A rewrite only applies when the column is mapped to the matching {@link FieldType} ({@code DATE} or {@code STRING}),
+ * since the equivalence does not hold for values of other types.
+ */
+@RequiredArgsConstructor
+public class SargableRewriter {
+
+    private static final int MAX_YEAR = 9999;
+
+    private final FieldType defaultFieldType;
+    private final Map<String, FieldType> fieldNameToFieldTypeMapping;
+
+    /**
+     * Rewrites the comparisons of a predicate that have an index-friendly equivalent.
+     * The tree is walked with an explicit stack, so arbitrarily long AND/OR chains are supported.
+     *
+     * @param expression the predicate, after {@link NegationPushDown}.
+     * @return the rewritten predicate; the original expression tree is not modified.
+     */
+    public Expression apply(Expression expression) {
+        Deque<Object> pending = new ArrayDeque<>();
+        Deque<Expression> results = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Object item = pending.pop();
+
+            if (item instanceof Join join) {
+                Expression right = results.pop();
+                Expression left = results.pop();
+                results.push(join.conjunction() ? new AndExpression(left, right) : new OrExpression(left, right));
+                continue;
+            }
+
+            switch ((Expression) item) {
+                case ParenthesedExpressionList<?> list when list.size() == 1 -> pending.push(list.getFirst());
+                case AndExpression and -> pushOperands(pending, and, true);
+                case OrExpression or -> pushOperands(pending, or, false);
+                case ComparisonOperator comparison -> results.push(rewriteComparison(comparison));
+                case Expression leaf -> results.push(leaf);
+            }
+        }
+        return results.pop();
+    }
+
+    private static void pushOperands(Deque<Object> pending, BinaryExpression binary, boolean conjunction) {
+        pending.push(new Join(conjunction));
+        pending.push(binary.getRightExpression());
+        pending.push(binary.getLeftExpression());
+    }
+
+    /**
+     * Rewrites a comparison with a function on one side and a constant on the other, or returns it unchanged.
+     */
+    private Expression rewriteComparison(ComparisonOperator comparison) {
+        String operator = operatorOf(comparison);
+        if (operator == null) {
+            return comparison;
+        }
+
+        Expression left = comparison.getLeftExpression();
+        Expression right = comparison.getRightExpression();
+        Expression rewritten = null;
+
+        if (ValidationUtils.isLiteralExpression(right)) {
+            rewritten = rewrite(left, operator, right);
+        } else if (ValidationUtils.isLiteralExpression(left)) {
+            rewritten = rewrite(right, flip(operator), left);
+        }
+        return rewritten != null ? rewritten : comparison;
+    }
+
+    /**
+     * Looks up the rewrite of {@code function operator constant} in the catalogue.
+     *
+     * @return the rewritten predicate, or {@code null} if there is none.
+     */
+    private Expression rewrite(Expression function, String operator, Expression constant) {
+        if (function instanceof ExtractExpression extract) {
+            return "year".equalsIgnoreCase(extract.getName())
+                    ? rewriteYear(extract.getExpression(), operator, constant)
+                    : null;
+        }
+        if (!(function instanceof Function call) || call.getParameters() == null) {
+            return null;
+        }
+
+        List<? extends Expression> arguments = call.getParameters();
+        return switch (call.getName().toLowerCase(Locale.ROOT)) {
+            case "year" -> arguments.size() == 1
+                    ? rewriteYear(arguments.getFirst(), operator, constant)
+                    : null;
+            case "date" -> arguments.size() == 1
+                    ? rewriteDate(arguments.getFirst(), operator, constant)
+                    : null;
+            case "date_trunc" -> arguments.size() == 2
+                    ? rewriteDateTrunc(arguments.getFirst(), arguments.get(1), operator, constant)
+                    : null;
+            case "substring", "substr" -> arguments.size() == 3 && isLong(arguments.get(1), 1)
+                    ? rewritePrefix(arguments.getFirst(), arguments.get(2), operator, constant)
+                    : null;
+            case "left" -> arguments.size() == 2
+                    ? rewritePrefix(arguments.getFirst(), arguments.get(1), operator, constant)
+                    : null;
+            case "lower", "upper" -> arguments.size() == 1
+                    ? rewriteCaseless(arguments.getFirst(), operator, constant)
+                    : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * {@code YEAR(d) op n}: the year {@code n} is the range {@code [n-01-01, (n+1)-01-01)} in UTC.
+     */
+    private Expression rewriteYear(Expression argument, String operator, Expression constant) {
+        if (!isColumnOfType(argument, FieldType.DATE)
+                || !(constant instanceof LongValue longValue)
+                || longValue.getValue() < 1
+                || longValue.getValue() > MAX_YEAR) {
+            return null;
+        }
+
+        ZonedDateTime start = LocalDate.of((int) longValue.getValue(), 1, 1).atStartOfDay(ZoneOffset.UTC);
+        return toRange((Column) argument, operator, start.toInstant(), start.plusYears(1).toInstant());
+    }
+
+    /**
+     * {@code DATE(d) op 'yyyy-MM-dd'}: the day is the range {@code [day, day + 1)}.
+     */
+    private Expression rewriteDate(Expression argument, String operator, Expression constant) {
+        Instant instant = isColumnOfType(argument, FieldType.DATE) ? toInstant(constant) : null;
+        if (instant == null) {
+            return null;
+        }
+
+        ZonedDateTime start = instant.atZone(ZoneId.systemDefault());
+        if (!start.equals(start.truncatedTo(ChronoUnit.DAYS))) {
+            return null;
+        }
+        return toRange((Column) argument, operator, start.toInstant(), start.plusDays(1).toInstant());
+    }
+
+    /**
+     * {@code DATE_TRUNC('unit', d) op '...'}: a constant aligned to the unit is the range {@code [value, value + 1 unit)} in UTC.
+     */
+    private Expression rewriteDateTrunc(Expression unit, Expression argument, String operator, Expression constant) {
+        Instant instant = isColumnOfType(argument, FieldType.DATE) ? toInstant(constant) : null;
+        if (!(unit instanceof StringValue unitValue) || instant == null) {
+            return null;
+        }
+
+        ZonedDateTime start = instant.atZone(ZoneOffset.UTC);
+        ZonedDateTime truncated = switch (unitValue.getValue().toLowerCase(Locale.ROOT)) {
+            case "day" -> start.truncatedTo(ChronoUnit.DAYS);
+            case "month" -> start.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            case "year" -> start.truncatedTo(ChronoUnit.DAYS).withDayOfYear(1);
+            default -> null;
+        };
+        if (!start.equals(truncated)) {
+            return null;
+        }
+
+        ZonedDateTime end = switch (unitValue.getValue().toLowerCase(Locale.ROOT)) {
+            case "day" -> start.plusDays(1);
+            case "month" -> start.plusMonths(1);
+            default -> start.plusYears(1);
+        };
+        return toRange((Column) argument, operator, start.toInstant(), end.toInstant());
+    }
+
+    /**
+     * {@code SUBSTRING(s, 1, n) = 'p'} with {@code p} of length {@code n}: the prefix range {@code [p, successor(p))}.
+     * Only prefixes below the surrogate range are rewritten, where UTF-16 order matches the UTF-8 order of MongoDB.
+     */
+    private Expression rewritePrefix(Expression argument, Expression length, String operator, Expression constant) {
+        if (!"eq".equals(operator)
+                || !isColumnOfType(argument, FieldType.STRING)
+                || !(constant instanceof StringValue stringValue)) {
+            return null;
+        }
+
+        String prefix = NormalizationUtils.sanitizeString(stringValue.getValue());
+        if (prefix.isEmpty() || !isLong(length, prefix.length())) {
+            return null;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (prefix.charAt(i) >= Character.MIN_SURROGATE - 1) {
+                return null;
+            }
+        }
+
+        String successor = prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+        return new AndExpression(
+                new GreaterThanEquals(argument, stringValue),
+                new MinorThan(argument, toStringValue(successor))
+        );
+    }
+
+    /**
+     * {@code LOWER(s) = 'c'} is {@code s = 'c'} when {@code c} is ASCII without letters, since MongoDB only
+     * changes the case of ASCII letters.
+     */
+    private Expression rewriteCaseless(Expression argument, String operator, Expression constant) {
+        if (!"eq".equals(operator)
+                || !isColumnOfType(argument, FieldType.STRING)
+                || !(constant instanceof StringValue stringValue)) {
+            return null;
+        }
+
+        String value = NormalizationUtils.sanitizeString(stringValue.getValue());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 0x7F || Character.isLetter(c)) {
+                return null;
+            }
+        }
+        return new EqualsTo(argument, stringValue);
+    }
+
+    /**
+     * Translates a comparison against the value range {@code [start, end)} of a function into a comparison on the column.
+     */
+    private static Expression toRange(Column column, String operator, Instant start, Instant end) {
+        return switch (operator) {
+            case "eq"  -> new AndExpression(
+                    new GreaterThanEquals(column, toTimestampValue(start)),
+                    new MinorThan(column, toTimestampValue(end)));
+            case "gte" -> new GreaterThanEquals(column, toTimestampValue(start));
+            case "gt"  -> new GreaterThanEquals(column, toTimestampValue(end));
+            case "lt"  -> new MinorThan(column, toTimestampValue(start));
+            case "lte" -> new MinorThan(column, toTimestampValue(end));
+            default -> null;
+        };
+    }
+
+    private boolean isColumnOfType(Expression expression, FieldType fieldType) {
+        return ValidationUtils.isColumnExpression(expression)
+                && fieldType == fieldNameToFieldTypeMapping.getOrDefault(
+                        ParsingUtils.extractStringValue(expression),
+                        defaultFieldType);
+    }
+
+    /**
+     * Reads a date constant the way it is normalised for a {@code DATE} field.
+     *
+     * @return the instant, or {@code null} if the constant is not a valid date string.
+     */
+    private static Instant toInstant(Expression constant) {
+        if (!(constant instanceof StringValue stringValue)) {
+            return null;
+        }
+        try {
+            return ((Date) NormalizationUtils.normalizeValue(stringValue.getValue(), FieldType.DATE)).toInstant();
+        } catch (QueryConversionException e) {
+            return null;
+        }
+    }
+
+    private static boolean isLong(Expression expression, long value) {
+        return expression instanceof LongValue longValue && longValue.getValue() == value;
+    }
+
+    /**
+     * Builds a timestamp literal of an instant; the raw value is its JDBC form in the system zone,
+     * the value is set afterwards so that it is exact even across a DST overlap.
+     */
+    private static TimestampValue toTimestampValue(Instant instant) {
+        Timestamp timestamp = Timestamp.from(instant);
+        TimestampValue timestampValue = new TimestampValue();
+        timestampValue.setRawValue(timestamp.toString());
+        return timestampValue.withValue(timestamp);
+    }
+
+    private static StringValue toStringValue(String value) {
+        StringValue stringValue = new StringValue();
+        stringValue.setValue(value.replace("'", "''"));
+        return stringValue;
+    }
+
+    private static String operatorOf(ComparisonOperator comparison) {
+        return switch (comparison) {
+            case EqualsTo ignored          -> "eq";
+            case GreaterThan ignored       -> "gt";
+            case GreaterThanEquals ignored -> "gte";
+            case MinorThan ignored         -> "lt";
+            case MinorThanEquals ignored   -> "lte";
+            default -> null;
+        };
+    }
+
+    private static String flip(String operator) {
+        return switch (operator) {
+            case "gt"  -> "lt";
+            case "lt"  -> "gt";
+            case "gte" -> "lte";
+            case "lte" -> "gte";
+            default    -> operator;
+        };
+    }
+
+    private record Join(boolean conjunction) {
+    }
+}
@@ -0,0 +1,572 @@
+package com.koroli.queryconverter.parsers;
+
+import net.sf.jsqlparser.expression.Alias;
+import net.sf.jsqlparser.expression.BooleanValue;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.NullValue;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ComparisonOperator;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.LikeExpression;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.NotEqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ParenthesedExpressionList;
+import net.sf.jsqlparser.parser.ParserKeywordsUtils;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.Distinct;
+import net.sf.jsqlparser.statement.select.Limit;
+import net.sf.jsqlparser.statement.select.Offset;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectItem;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Hand-written recursive-descent parser for the common subset of SELECT statements:
+ * <pre>
+ * SELECT [DISTINCT] { * | column [[AS] alias] } [, ...]
+ * FROM [schema.]table [[AS] alias]
+ * [WHERE condition]
+ * [ORDER BY column [ASC | DESC] [, ...]]
+ * [LIMIT count [OFFSET skip]] [;]
+ * </pre>
+ * where a condition combines, with {@code AND}, {@code OR}, {@code NOT} and parentheses, predicates of the form
+ * {@code column op operand}, {@code column [NOT] IN (literal, ...)}, {@code column [NOT] LIKE 'pattern'},
+ * {@code column [NOT] BETWEEN literal AND literal} and {@code column IS [NOT] NULL}.
+ * <p>
+ * The parser builds the same JSqlParser objects as {@code CCJSqlParserUtil.parse}, without going through the
+ * general grammar. It returns {@code null} for anything outside the subset (functions, joins, grouping,
+ * quoted identifiers, comments, keywords used as names...), so the caller falls back to JSqlParser.
+ */
+public final class FastSelectParser {
+
+    /**
+     * Words that are never accepted as identifiers, so that anything JSqlParser treats specially falls back.
+     */
+    private static final Set<String> RESERVED_WORDS = new HashSet<>();
+
+    static {
+        for (Object[] keyword : ParserKeywordsUtils.ALL_RESERVED_KEYWORDS) {
+            RESERVED_WORDS.add(keyword[0].toString().trim().toUpperCase(Locale.ROOT));
+        }
+        RESERVED_WORDS.addAll(List.of(
+                "ASC", "DESC", "BY", "NULLS", "ESCAPE", "COLLATE", "CASE", "END", "KEEP", "OVER", "SIMILAR", "REGEXP",
+                "RLIKE", "MATCH", "ISNULL", "NOTNULL", "FOR", "FETCH", "UNION", "LOCK", "SKIP", "FIRST", "LAST",
+                "ROWS", "ROW", "PERCENT", "TIES"
+        ));
+    }
+
+    private final String sql;
+    private final int length;
+    private int position;
+
+    private FastSelectParser(String sql) {
+        this.sql = sql;
+        this.length = sql.length();
+    }
+
+    /**
+     * Parses a SELECT statement of the supported subset.
+     *
+     * @param sql the SQL text.
+     * @return the parsed {@link Select}, or {@code null} if the statement is outside the supported subset.
+     */
+    public static Select parse(String sql) {
+        try {
+            return new FastSelectParser(sql).parseSelect();
+        } catch (Unsupported e) {
+            return null;
+        }
+    }
+
+    private Select parseSelect() {
+        PlainSelect plainSelect = new PlainSelect();
+
+        expectKeyword("SELECT");
+        if (acceptKeyword("DISTINCT")) {
+            plainSelect.setDistinct(new Distinct());
+        }
+
+        List<SelectItem<?>> selectItems = new ArrayList<>();
+        do {
+            selectItems.add(parseSelectItem());
+        } while (acceptChar(','));
+        plainSelect.setSelectItems(selectItems);
+
+        expectKeyword("FROM");
+        plainSelect.setFromItem(parseTable());
+
+        if (acceptKeyword("WHERE")) {
+            plainSelect.setWhere(parseOr());
+        }
+
+        if (acceptKeyword("ORDER")) {
+            expectKeyword("BY");
+            List<OrderByElement> orderByElements = new ArrayList<>();
+            do {
+                orderByElements.add(parseOrderByElement());
+            } while (acceptChar(','));
+            plainSelect.setOrderByElements(orderByElements);
+        }
+
+        if (acceptKeyword("LIMIT")) {
+            plainSelect.setLimit(new Limit().withRowCount(parseUnsignedInteger()));
+            if (acceptKeyword("OFFSET")) {
+                plainSelect.setOffset(new Offset().withOffset(parseUnsignedInteger()));
+            }
+        }
+
+        acceptChar(';');
+        skipWhitespace();
+        if (position != length) {
+            throw Unsupported.INSTANCE;
+        }
+        return plainSelect;
+    }
+
+    private SelectItem<?> parseSelectItem() {
+        if (acceptChar('*')) {
+            return new SelectItem<>(new AllColumns());
+        }
+
+        SelectItem<Column> selectItem = new SelectItem<>(parseColumn());
+        Alias alias = parseAlias();
+        if (alias != null) {
+            selectItem.setAlias(alias);
+        }
+        return selectItem;
+    }
+
+    private Table parseTable() {
+        String first = expectIdentifier();
+        Table table = acceptChar('.')
+                ? new Table(first, expectIdentifier())
+                : new Table(first);
+
+        Alias alias = parseAlias();
+        if (alias != null) {
+            table.setAlias(alias);
+        }
+        return table;
+    }
+
+    private Alias parseAlias() {
+        if (acceptKeyword("AS")) {
+            return new Alias(expectIdentifier(), true);
+        }
+        String identifier = acceptIdentifier();
+        return identifier != null
+                ? new Alias(identifier, false)
+                : null;
+    }
+
+    private OrderByElement parseOrderByElement() {
+        OrderByElement orderByElement = new OrderByElement();
+        orderByElement.setExpression(parseColumn());
+
+        if (acceptKeyword("ASC")) {
+            orderByElement.setAscDescPresent(true);
+        } else if (acceptKeyword("DESC")) {
+            orderByElement.setAsc(false);
+            orderByElement.setAscDescPresent(true);
+        }
+        return orderByElement;
+    }
+
+    // ----=== Conditions ===----
+
+    private Expression parseOr() {
+        Expression left = parseAnd();
+        while (acceptKeyword("OR")) {
+            left = new OrExpression(left, parseAnd());
+        }
+        return left;
+    }
+
+    private Expression parseAnd() {
+        Expression left = parseNot();
+        while (acceptKeyword("AND")) {
+            left = new AndExpression(left, parseNot());
+        }
+        return left;
+    }
+
+    private Expression parseNot() {
+        if (acceptKeyword("NOT")) {
+            return new NotExpression(parsePrimary());
+        }
+        return parsePrimary();
+    }
+
+    private Expression parsePrimary() {
+        if (acceptChar('(')) {
+            Expression inner = parseOr();
+            expectChar(')');
+            return new ParenthesedExpressionList<>(inner);
+        }
+        return parsePredicate();
+    }
+
+    private Expression parsePredicate() {
+        Column column = parseColumn();
+
+        ComparisonOperator comparison = acceptComparisonOperator();
+        if (comparison != null) {
+            comparison.setLeftExpression(column);
+            comparison.setRightExpression(parseOperand());
+            return comparison;
+        }
+
+        if (acceptKeyword("IS")) {
+            IsNullExpression isNull = new IsNullExpression(column);
+            isNull.setNot(acceptKeyword("NOT"));
+            expectKeyword("NULL");
+            return isNull;
+        }
+
+        boolean not = acceptKeyword("NOT");
+
+        if (acceptKeyword("IN")) {
+            expectChar('(');
+            ParenthesedExpressionList<Expression> values = new ParenthesedExpressionList<>();
+            do {
+                values.add(parseLiteral());
+            } while (acceptChar(','));
+            expectChar(')');
+
+            InExpression in = new InExpression(column, values);
+            in.setNot(not);
+            return in;
+        }
+
+        if (acceptKeyword("LIKE")) {
+            LikeExpression like = new LikeExpression();
+            like.setLeftExpression(column);
+            like.setRightExpression(parseString());
+            like.setNot(not);
+            return like;
+        }
+
+        if (acceptKeyword("BETWEEN")) {
+            Between between = new Between();
+            between.setLeftExpression(column);
+            between.setBetweenExpressionStart(parseLiteral());
+            expectKeyword("AND");
+            between.setBetweenExpressionEnd(parseLiteral());
+            between.setNot(not);
+            return between;
+        }
+
+        throw Unsupported.INSTANCE;
+    }
+
+    private ComparisonOperator acceptComparisonOperator() {
+        skipWhitespace();
+        if (position >= length) {
+            return null;
+        }
+
+        char first = sql.charAt(position);
+        char second = position + 1 < length ? sql.charAt(position + 1) : 0;
+        ComparisonOperator operator;
+        int operatorLength = 2;
+
+        if (first == '=') {
+            operator = new EqualsTo();
+            operatorLength = 1;
+        } else if (first == '<' && second == '>') {
+            operator = new NotEqualsTo("<>");
+        } else if (first == '!' && second == '=') {
+            operator = new NotEqualsTo("!=");
+        } else if (first == '<' && second == '=') {
+            operator = new MinorThanEquals();
+        } else if (first == '>' && second == '=') {
+            operator = new GreaterThanEquals();
+        } else if (first == '<') {
+            operator = new MinorThan();
+            operatorLength = 1;
+        } else if (first == '>') {
+            operator = new GreaterThan();
+            operatorLength = 1;
+        } else {
+            return null;
+        }
+
+        position += operatorLength;
+        char next = position < length ? sql.charAt(position) : 0;
+        if (next == '=' || next == '<' || next == '>' || next == '!') {
+            throw Unsupported.INSTANCE;
+        }
+        return operator;
+    }
+
+    // ----=== Operands ===----
+
+    private Expression parseOperand() {
+        skipWhitespace();
+        if (position < length && isIdentifierStart(sql.charAt(position))) {
+            int start = position;
+            String word = readWord();
+            position = start;
+            if (!RESERVED_WORDS.contains(word.toUpperCase(Locale.ROOT))) {
+                return parseColumn();
+            }
+        }
+        return parseLiteral();
+    }
+
+    private Expression parseLiteral() {
+        skipWhitespace();
+        if (position >= length) {
+            throw Unsupported.INSTANCE;
+        }
+
+        char c = sql.charAt(position);
+        if (c == '\'') {
+            return parseString();
+        }
+        if (c == '-' || c == '+') {
+            position++;
+            skipWhitespace();
+            return new SignedExpression(c, parseNumber());
+        }
+        if (isDigit(c)) {
+            return parseNumber();
+        }
+        if (isIdentifierStart(c)) {
+            String word = readWord();
+            switch (word.toUpperCase(Locale.ROOT)) {
+                case "TRUE", "FALSE" -> {
+                    return new BooleanValue(word);
+                }
+                case "NULL" -> {
+                    return new NullValue();
+                }
+                default -> throw Unsupported.INSTANCE;
+            }
+        }
+        throw Unsupported.INSTANCE;
+    }
+
+    private StringValue parseString() {
+        skipWhitespace();
+        if (position >= length || sql.charAt(position) != '\'') {
+            throw Unsupported.INSTANCE;
+        }
+
+        int start = ++position;
+        while (true) {
+            if (position >= length) {
+                throw Unsupported.INSTANCE;
+            }
+            char c = sql.charAt(position);
+            if (c == '\\' || c == '\n' || c == '\r') {
+                throw Unsupported.INSTANCE;
+            }
+            if (c == '\'') {
+                if (position + 1 < length && sql.charAt(position + 1) == '\'') {
+                    position += 2;
+                    continue;
+                }
+                break;
+            }
+            position++;
+        }
+
+        StringValue value = new StringValue(sql.substring(start, position));
+        position++;
+        return value;
+    }
+
+    private Expression parseNumber() {
+        int start = position;
+        skipDigits();
+        boolean decimal = false;
+
+        if (position < length && sql.charAt(position) == '.') {
+            decimal = true;
+            position++;
+            if (!skipDigits()) {
+                throw Unsupported.INSTANCE;
+            }
+        }
+        if (position < length && (sql.charAt(position) == 'e' || sql.charAt(position) == 'E')) {
+            decimal = true;
+            position++;
+            if (position < length && (sql.charAt(position) == '+' || sql.charAt(position) == '-')) {
+                position++;
+            }
+            if (!skipDigits()) {
+                throw Unsupported.INSTANCE;
+            }
+        }
+        if (position == start || (position < length && isIdentifierPart(sql.charAt(position)))) {
+            throw Unsupported.INSTANCE;
+        }
+
+        String number = sql.substring(start, position);
+        return decimal
+                ? new DoubleValue(number)
+                : new LongValue(number);
+    }
+
+    private LongValue parseUnsignedInteger() {
+        skipWhitespace();
+        int start = position;
+        if (!skipDigits() || (position < length && (isIdentifierPart(sql.charAt(position)) || sql.charAt(position) == '.'))) {
+            throw Unsupported.INSTANCE;
+        }
+        return new LongValue(sql.substring(start, position));
+    }
+
+    private Column parseColumn() {
+        String first = expectIdentifier();
+        if (acceptChar('.')) {
+            return new Column(new Table(first), expectIdentifier());
+        }
+        return new Column(first);
+    }
+
+    // ----=== Tokens ===----
+
+    private String expectIdentifier() {
+        String identifier = acceptIdentifier();
+        if (identifier == null) {
+            throw Unsupported.INSTANCE;
+        }
+        return identifier;
+    }
+
+    /**
+     * Reads a plain identifier; keywords, quoted names and function calls are not accepted.
+     */
+    private String acceptIdentifier() {
+        skipWhitespace();
+        if (position >= length || !isIdentifierStart(sql.charAt(position))) {
+            return null;
+        }
+
+        int start = position;
+        String word = readWord();
+        if (RESERVED_WORDS.contains(word.toUpperCase(Locale.ROOT))) {
+            position = start;
+            return null;
+        }
+
+        skipWhitespace();
+        if (position < length && sql.charAt(position) == '(') {
+            throw Unsupported.INSTANCE;
+        }
+        return word;
+    }
+
+    private void expectKeyword(String keyword) {
+        if (!acceptKeyword(keyword)) {
+            throw Unsupported.INSTANCE;
+        }
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        skipWhitespace();
+        int end = position + keyword.length();
+        if (end <= length
+                && sql.regionMatches(true, position, keyword, 0, keyword.length())
+                && (end == length || !isIdentifierPart(sql.charAt(end)))
+        ) {
+            position = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectChar(char c) {
+        if (!acceptChar(c)) {
+            throw Unsupported.INSTANCE;
+        }
+    }
+
+    private boolean acceptChar(char c) {
+        skipWhitespace();
+        if (position < length && sql.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private String readWord() {
+        int start = position;
+        while (position < length && isIdentifierPart(sql.charAt(position))) {
+            char c = sql.charAt(position++);
+            if (!isIdentifierStart(c) && !isDigit(c)) {
+                throw Unsupported.INSTANCE;
+            }
+        }
+        return sql.substring(start, position);
+    }
+
+    private boolean skipDigits() {
+        int start = position;
+        while (position < length && isDigit(sql.charAt(position))) {
+            position++;
+        }
+        return position > start;
+    }
+
+    private void skipWhitespace() {
+        while (position < length) {
+            char c = sql.charAt(position);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                position++;
+            } else if ((c == '-' && position + 1 < length && sql.charAt(position + 1) == '-')
+                    || (c == '/' && position + 1 < length && sql.charAt(position + 1) == '*')) {
+                throw Unsupported.INSTANCE;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || isDigit(c) || c == '$' || c == '#' || c == '@' || c > 127;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Signals input outside the supported subset; carries no stack trace, since it is part of the normal flow.
+     */
+    private static final class Unsupported extends RuntimeException {
+        private static final Unsupported INSTANCE = new Unsupported();
+
+        private Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+}
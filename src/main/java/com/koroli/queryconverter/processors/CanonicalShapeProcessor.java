@@ -0,0 +1,358 @@
+package com.koroli.queryconverter.processors;
+
+import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.holders.ConversionOptions;
+import com.koroli.queryconverter.holders.SQLCommandInfo;
+import com.koroli.queryconverter.model.FieldType;
+import com.koroli.queryconverter.query.MongoQueryHolder;
+import com.koroli.queryconverter.utils.MongoQueryFormatter;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Brings the filters of the query into a canonical shape, so that logically equal SQL produces the same
+ * MongoDB query and shares one entry of the server-side plan cache.
+ * <p>
+ * With {@link ConversionOptions#isCanonicalShapes()}, nested {@code $and} / {@code $or} of the same operator are
+ * flattened, the operands of {@code $and} / {@code $or} / {@code $nor} are ordered by shape (fields and operators, ignoring the literals) and then
+ * by value, and the fields of the filter and of each operator document are ordered by name. Literal values and
+ * {@code $expr} are left as written, since the order of their fields and arguments is significant.
+ * <p>
+ * With {@link ConversionOptions#isLetParameters()}, the literals of the top-level {@code $match} of an aggregation
+ * are hoisted into the {@code let} option and compared as {@code $$p0}, {@code $$p1}, ... inside {@code $expr},
+ * so that queries differing only in their literals share one pipeline text. A comparison is hoisted only if its
+ * field has a declared {@link FieldType} matching the literal: {@code $expr} compares across types and does not
+ * traverse arrays, which is equivalent to the query operators only for scalar fields of a known type.
+ * An upper bound alone is guarded with {@code $gt: [field, null]}, since {@code $expr} orders null and missing
+ * values before all others while {@code $lt} never matches them.
+ * {@code $eq}, {@code $gt}, {@code $gte}, {@code $lt} and {@code $lte} on such fields still use indexes.
+ */
+@RequiredArgsConstructor
+public class CanonicalShapeProcessor implements QueryProcessor {
+
+    private static final Set<String> LOGICAL_OPERATORS = Set.of("$and", "$or", "$nor");
+    private static final Set<String> HOISTED_OPERATORS = Set.of("$eq", "$ne", "$gt", "$gte", "$lt", "$lte");
+    private static final String LET_PREFIX = "p";
+
+    private final FieldType defaultFieldType;
+    private final Map<String, FieldType> fieldNameToFieldTypeMapping;
+    private final ConversionOptions options;
+
+    /**
+     * Canonicalizes the filters and hoists the literals of the aggregation {@code $match} if enabled.
+     *
+     * @param sqlCommandInfo the SQL command info containing query details.
+     * @param queryHolder    the MongoDB query holder to update.
+     * @throws QueryConversionException if an error occurs during processing.
+     */
+    @Override
+    public void process(
+            SQLCommandInfo sqlCommandInfo,
+            MongoQueryHolder queryHolder
+    ) throws QueryConversionException {
+
+        if (options.isCanonicalShapes()) {
+            queryHolder.getFilterWrapper().setQuery(canonicalFilter(queryHolder.getFilterWrapper().getQuery()));
+            queryHolder.getFilterWrapper().setChunkFilters(new ArrayList<>(
+                    queryHolder.getFilterWrapper().getChunkFilters().stream().map(this::canonicalFilter).toList()
+            ));
+            if (queryHolder.getAggregationWrapper().getHaving() != null) {
+                queryHolder.getAggregationWrapper().setHaving(canonicalFilter(queryHolder.getAggregationWrapper().getHaving()));
+            }
+        }
+
+        if (options.isLetParameters()
+                && !queryHolder.isDistinct()
+                && queryHolder.getFilterWrapper().getChunkFilters().isEmpty()
+                && MongoQueryFormatter.isAggregate(queryHolder, sqlCommandInfo)
+        ) {
+            Document variables = new Document();
+            queryHolder.getFilterWrapper().setQuery(hoistLiterals(queryHolder.getFilterWrapper().getQuery(), variables));
+            if (!variables.isEmpty()) {
+                queryHolder.setLetVariables(variables);
+            }
+        }
+    }
+
+    // ----=== Canonical shapes ===----
+
+    /**
+     * Orders the fields of a filter document by name and canonicalizes their conditions.
+     */
+    private Document canonicalFilter(Document filter) {
+        if (filter == null) {
+            return null;
+        }
+
+        Map<String, Object> sorted = new TreeMap<>();
+        for (var entry : filter.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+
+            if (LOGICAL_OPERATORS.contains(key) && value instanceof List<?> operands) {
+                sorted.put(key, canonicalOperands(key, operands));
+            } else if (!key.startsWith("$") && isOperatorDocument(value)) {
+                sorted.put(key, canonicalOperators((Document) value));
+            } else {
+                sorted.put(key, value);
+            }
+        }
+        return new Document(sorted);
+    }
+
+    /**
+     * Orders the operators of a field condition by name, e.g. {@code {$lt: 5, $gte: 1}} becomes
+     * {@code {$gte: 1, $lt: 5}}.
+     */
+    private Document canonicalOperators(Document condition) {
+        Map<String, Object> sorted = new TreeMap<>();
+        for (var entry : condition.entrySet()) {
+            Object value = entry.getValue();
+            if ("$not".equals(entry.getKey()) && isOperatorDocument(value)) {
+                value = canonicalOperators((Document) value);
+            } else if ("$elemMatch".equals(entry.getKey()) && value instanceof Document document) {
+                value = isOperatorDocument(document) ? canonicalOperators(document) : canonicalFilter(document);
+            }
+            sorted.put(entry.getKey(), value);
+        }
+        return new Document(sorted);
+    }
+
+    /**
+     * Flattens the nested operands of the same {@code $and} / {@code $or} and orders them by shape, then by value.
+     */
+    private List<Object> canonicalOperands(String operator, List<?> operands) {
+        List<Object> flattened = new ArrayList<>(operands.size());
+        List<Object> pending = new ArrayList<>(operands);
+
+        for (int i = 0; i < pending.size(); i++) {
+            Object operand = pending.get(i);
+            if (!"$nor".equals(operator)
+                    && operand instanceof Document document
+                    && document.size() == 1
+                    && document.get(operator) instanceof List<?> nested
+            ) {
+                pending.addAll(nested);
+                continue;
+            }
+            flattened.add(operand instanceof Document document ? canonicalFilter(document) : operand);
+        }
+
+        List<SortKey> keys = new ArrayList<>(flattened.size());
+        for (Object operand : flattened) {
+            keys.add(new SortKey(shapeOf(operand), valueOf(operand), operand));
+        }
+        keys.sort(Comparator.comparing(SortKey::shape).thenComparing(SortKey::value));
+
+        List<Object> ordered = new ArrayList<>(keys.size());
+        for (SortKey key : keys) {
+            ordered.add(key.operand());
+        }
+        return ordered;
+    }
+
+    /**
+     * Describes the fields and operators of a filter, with every literal replaced by {@code ?}.
+     */
+    private static String shapeOf(Object value) {
+        StringBuilder shape = new StringBuilder();
+        appendShape(shape, value);
+        return shape.toString();
+    }
+
+    private static void appendShape(StringBuilder shape, Object value) {
+        if (value instanceof Document document) {
+            shape.append('{');
+            for (var entry : document.entrySet()) {
+                shape.append(entry.getKey()).append(':');
+                appendShape(shape, entry.getValue());
+                shape.append(',');
+            }
+            shape.append('}');
+        } else if (value instanceof List<?> list) {
+            shape.append('[');
+            for (Object element : list) {
+                appendShape(shape, element);
+                shape.append(',');
+            }
+            shape.append(']');
+        } else {
+            shape.append('?');
+        }
+    }
+
+    private static String valueOf(Object operand) {
+        return operand instanceof Document document
+                ? document.toJson()
+                : String.valueOf(operand);
+    }
+
+    private static boolean isOperatorDocument(Object value) {
+        if (!(value instanceof Document document) || document.isEmpty()) {
+            return false;
+        }
+        for (String key : document.keySet()) {
+            if (!key.startsWith("$")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ----=== let parameters ===----
+
+    /**
+     * Replaces the hoistable comparisons among the top-level conjuncts of the filter with one {@code $expr}
+     * over {@code $$} variables, and stores the literals in {@code variables}.
+     */
+    private Document hoistLiterals(Document filter, Document variables) {
+        List<Document> conjuncts = new ArrayList<>();
+        if (filter.size() == 1 && filter.get("$and") instanceof List<?> operands) {
+            for (Object operand : operands) {
+                if (!(operand instanceof Document document)) {
+                    return filter;
+                }
+                conjuncts.add(document);
+            }
+        } else {
+            for (var entry : filter.entrySet()) {
+                conjuncts.add(new Document(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        List<Document> remaining = new ArrayList<>(conjuncts.size());
+        List<Document> expressions = new ArrayList<>();
+        for (Document conjunct : conjuncts) {
+            List<Document> hoisted = hoistConjunct(conjunct, variables);
+            if (hoisted == null) {
+                remaining.add(conjunct);
+            } else {
+                expressions.addAll(hoisted);
+            }
+        }
+
+        if (expressions.isEmpty()) {
+            return filter;
+        }
+        addNullGuards(expressions);
+        remaining.add(new Document("$expr", expressions.size() == 1
+                ? expressions.getFirst()
+                : new Document("$and", expressions)));
+        return combine(remaining);
+    }
+
+    /**
+     * Converts a single-field conjunct into {@code $expr} comparisons, or returns {@code null} if any of its
+     * conditions cannot be hoisted. The variables are only added if the whole conjunct is hoisted.
+     */
+    private List<Document> hoistConjunct(Document conjunct, Document variables) {
+        if (conjunct.size() != 1) {
+            return null;
+        }
+
+        var entry = conjunct.entrySet().iterator().next();
+        String field = entry.getKey();
+        if (field.startsWith("$")) {
+            return null;
+        }
+
+        FieldType fieldType = fieldNameToFieldTypeMapping.getOrDefault(field, defaultFieldType);
+        Document conditions = isOperatorDocument(entry.getValue())
+                ? (Document) entry.getValue()
+                : new Document("$eq", entry.getValue());
+
+        for (var condition : conditions.entrySet()) {
+            if (!HOISTED_OPERATORS.contains(condition.getKey()) || !isOfType(condition.getValue(), fieldType)) {
+                return null;
+            }
+        }
+
+        List<Document> expressions = new ArrayList<>(conditions.size());
+        for (var condition : conditions.entrySet()) {
+            String variable = LET_PREFIX + variables.size();
+            variables.put(variable, condition.getValue());
+            expressions.add(new Document(condition.getKey(), listOf("$" + field, "$$" + variable)));
+        }
+        return expressions;
+    }
+
+    /**
+     * Adds {@code $gt: [field, null]} for every field that has an upper bound but no lower bound or equality.
+     */
+    private static void addNullGuards(List<Document> expressions) {
+        Set<Object> upperBounded = new LinkedHashSet<>();
+        Set<Object> lowerBounded = new HashSet<>();
+        for (Document expression : expressions) {
+            var entry = expression.entrySet().iterator().next();
+            Object field = ((List<?>) entry.getValue()).getFirst();
+            switch (entry.getKey()) {
+                case "$lt", "$lte" -> upperBounded.add(field);
+                case "$eq", "$gt", "$gte" -> lowerBounded.add(field);
+                default -> {
+                }
+            }
+        }
+
+        upperBounded.removeAll(lowerBounded);
+        for (Object field : upperBounded) {
+            expressions.add(new Document("$gt", listOf(field, null)));
+        }
+    }
+
+    private static List<Object> listOf(Object first, Object second) {
+        List<Object> list = new ArrayList<>(2);
+        list.add(first);
+        list.add(second);
+        return list;
+    }
+
+    /**
+     * Checks if a literal is a non-null scalar of the declared field type.
+     */
+    private static boolean isOfType(Object value, FieldType fieldType) {
+        return switch (fieldType) {
+            case NUMBER -> value instanceof Number;
+            case STRING, CASE_INSENSITIVE_STRING -> value instanceof String;
+            case BOOLEAN -> value instanceof Boolean;
+            case DATE -> value instanceof Date;
+            case UNKNOWN -> false;
+        };
+    }
+
+    /**
+     * Merges conjuncts into one filter document, or into {@code $and} if some of them share a field.
+     */
+    private static Document combine(List<Document> conjuncts) {
+        if (conjuncts.size() == 1) {
+            return conjuncts.getFirst();
+        }
+
+        Set<String> keys = new HashSet<>();
+        Document merged = new Document();
+        for (Document conjunct : conjuncts) {
+            for (var entry : conjunct.entrySet()) {
+                if (!keys.add(entry.getKey())) {
+                    return new Document("$and", conjuncts);
+                }
+                merged.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * An operand of a logical operator with its sort keys.
+     */
+    private record SortKey(String shape, String value, Object operand) {
+    }
+}
@@ -5,8 +5,6 @@ import com.koroli.queryconverter.holders.FromInfo;
 import com.koroli.queryconverter.holders.SQLCommandInfo;
 import com.koroli.queryconverter.query.MongoQueryHolder;
 import com.koroli.queryconverter.utils.ProcessorUtils;
-import com.koroli.queryconverter.visitors.AliasCleanerVisitor;
-import net.sf.jsqlparser.statement.select.SelectItem;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -34,15 +32,13 @@ public class GroupByProcessor implements QueryProcessor {
         }
 
         List<String> groupByFields = preprocessGroupBy(sqlCommandInfo.getGroupByFields(), sqlCommandInfo.getFrom());
-        List<SelectItem<?>> selects = preprocessSelect(sqlCommandInfo.getSelectItems(), sqlCommandInfo.getFrom());
-
         queryHolder.getAggregationWrapper().setGroupByFields(groupByFields);
 
         queryHolder.getProjectionWrapper().setProjection(
-                ProcessorUtils.createProjectionsFromSelectItems(selects, groupByFields));
+                ProcessorUtils.createProjectionsFromSelectItems(sqlCommandInfo.getSelectList(), groupByFields));
 
         queryHolder.getProjectionWrapper().setAliasProjection(
-                ProcessorUtils.createAliasProjection(selects, groupByFields));
+                ProcessorUtils.createAliasProjection(sqlCommandInfo.getSelectList(), groupByFields));
 
         queryHolder.getAggregationWrapper().setRequiresMultistepAggregation(true);
     }
@@ -65,21 +61,4 @@ public class GroupByProcessor implements QueryProcessor {
         }
         return processedGroupBy;
     }
-
-    /**
-     * Preprocesses the select items to clean up aliases.
-     *
-     * @param selectItems the original select items.
-     * @param fromInfo    the FROM clause information.
-     * @return a list of processed select items.
-     */
-    private List<SelectItem<?>> preprocessSelect(List<SelectItem<?>> selectItems, FromInfo fromInfo) {
-        for (SelectItem<?> selectItem : selectItems) {
-            selectItem.accept(
-                    new AliasCleanerVisitor(fromInfo.getBaseAlias()),
-                    fromInfo
-            );
-        }
-        return selectItems;
-    }
 }
@@ -2,8 +2,11 @@ package com.koroli.queryconverter.processors;
 
 import com.koroli.queryconverter.exceptions.QueryConversionException;
 import com.koroli.queryconverter.holders.AliasHolder;
+import com.koroli.queryconverter.holders.ConversionOptions;
 import com.koroli.queryconverter.holders.SQLCommandInfo;
 import com.koroli.queryconverter.model.FieldType;
+import com.koroli.queryconverter.model.OperandKind;
+import com.koroli.queryconverter.optimizers.HavingPushDown;
 import com.koroli.queryconverter.query.MongoQueryHolder;
 import com.koroli.queryconverter.utils.ExpressionUtils;
 import com.koroli.queryconverter.utils.FunctionUtils;
@@ -15,9 +18,27 @@ import java.util.Map;
 
 /**
  * Processes SQL HAVING clauses and converts them into MongoDB aggregation filters.
+ * Conjuncts that only reference GROUP BY key columns are evaluated before grouping by {@link WhereProcessor},
+ * see {@link HavingPushDown}; only the remaining conjuncts become the {@code $match} after {@code $group}.
  */
 public class HavingProcessor extends WhereProcessor {
 
+    /**
+     * Constructor of the converter-wide processor. The aliases of the SELECT list belong to each statement,
+     * so {@link #process} converts the HAVING clause with a processor bound to the statement's {@link AliasHolder}.
+     *
+     * @param defaultFieldType            the default field type.
+     * @param fieldNameToFieldTypeMapping mapping of field names to their types.
+     * @param options                     the conversion options.
+     */
+    public HavingProcessor(
+            FieldType defaultFieldType,
+            Map<String, FieldType> fieldNameToFieldTypeMapping,
+            ConversionOptions options
+    ) {
+        this(defaultFieldType, fieldNameToFieldTypeMapping, true, null, options);
+    }
+
     /**
      * Constructor.
      *
@@ -25,14 +46,16 @@ public class HavingProcessor extends WhereProcessor {
      * @param fieldNameToFieldTypeMapping mapping of field names to their types.
      * @param requiresAggregation         whether aggregation is required for the SQL statement.
      * @param aliasHolder                 alias holder for field resolution.
+     * @param options                     the conversion options.
      */
     public HavingProcessor(
             FieldType defaultFieldType,
             Map<String, FieldType> fieldNameToFieldTypeMapping,
             boolean requiresAggregation,
-            AliasHolder aliasHolder
+            AliasHolder aliasHolder,
+            ConversionOptions options
     ) {
-        super(defaultFieldType, fieldNameToFieldTypeMapping, requiresAggregation, aliasHolder);
+        super(defaultFieldType, fieldNameToFieldTypeMapping, requiresAggregation, aliasHolder, options);
     }
 
     @Override
@@ -41,14 +64,36 @@ public class HavingProcessor extends WhereProcessor {
             MongoQueryHolder queryHolder
     ) throws QueryConversionException {
 
-        Expression havingClause = sqlCommandInfo.getHavingClause();
+        Expression havingClause = HavingPushDown.remainingConjuncts(sqlCommandInfo);
 
         if (havingClause != null) {
-            Document parsedQuery = (Document) parseExpression(new Document(), havingClause, null);
+            HavingProcessor statementProcessor = new HavingProcessor(
+                    getDefaultFieldType(),
+                    getFieldNameToFieldTypeMapping(),
+                    isRequiresMultistepAggregation(),
+                    sqlCommandInfo.getAliasHolder() != null ? sqlCommandInfo.getAliasHolder() : new AliasHolder(),
+                    getOptions()
+            );
+            Document parsedQuery = (Document) statementProcessor.parseExpression(new Document(), havingClause, null);
             queryHolder.getAggregationWrapper().setHaving(parsedQuery);
         }
     }
 
+    /**
+     * Aggregated values are plain fields of the documents produced by {@code $group},
+     * so comparing them against constants does not require {@code $expr}.
+     *
+     * @param expression the side of the comparison
+     * @return the {@link OperandKind} of the expression
+     */
+    @Override
+    protected OperandKind classifyOperand(Expression expression) {
+        if (ExpressionUtils.isAggregateExpression(expression)) {
+            return OperandKind.FIELD;
+        }
+        return super.classifyOperand(expression);
+    }
+
     /**
      * Recursively processes functions within the SQL HAVING clause to generate MongoDB aggregation filters.
      *
@@ -67,13 +112,9 @@ public class HavingProcessor extends WhereProcessor {
             Map<String, FieldType> fieldNameToFieldTypeMapping
     ) throws QueryConversionException {
 
-        if (object instanceof Function function) {
-            String strFunction = function.toString();
-
-            if (ExpressionUtils.isAggregateExpression(strFunction)) {
-                String alias = aliasHolder.getAliasFromFieldExp(function.toString());
-                return "$" + FunctionUtils.generateAggregationField(function, alias).getValue();
-            }
+        if (object instanceof Function function && ExpressionUtils.isAggregateExpression(function)) {
+            String alias = aliasHolder.getAliasFromExpression(function);
+            return "$" + FunctionUtils.generateAggregationField(function, alias).getValue();
         }
         return super.processFunctionExpressions(
                 query,
@@ -0,0 +1,195 @@
+package com.koroli.queryconverter.processors;
+
+import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.holders.ConversionOptions;
+import com.koroli.queryconverter.holders.SQLCommandInfo;
+import com.koroli.queryconverter.query.MongoQueryHolder;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Splits an oversized {@code $in} list of the filter into chunks, so that no single query exceeds
+ * the BSON document limit or scans an unbounded number of keys.
+ * <p>
+ * A chunk ends when it reaches {@link ConversionOptions#getInChunkSize()} values or its estimated
+ * encoded size reaches {@link ConversionOptions#getMaxInChunkBytes()}. Only an {@code $in} on a field
+ * at the top level of the filter (directly or inside the top-level {@code $and}) is split: the chunks
+ * then select disjoint sets of documents. {@code $nin} is never split, because
+ * {@code NOT IN (A, B)} is the intersection, not the union, of the per-chunk results.
+ * Queries with OFFSET are not split either, since skipping cannot be applied per chunk, nor are aggregations
+ * that group (a group may span several chunks) or join (the join pipeline repeats the WHERE clause,
+ * so every chunk would still carry the whole list).
+ * If the field holds arrays, a document may match several chunks, so merged results should be
+ * deduplicated by {@code _id}.
+ */
+@RequiredArgsConstructor
+public class InListChunkProcessor implements QueryProcessor {
+
+    /**
+     * Estimated size of the type byte, a numeric array key and its terminator of one BSON array element.
+     */
+    private static final int ELEMENT_OVERHEAD = 8;
+
+    private final ConversionOptions options;
+
+    /**
+     * Stores the chunked filters in the MongoDB query holder if the filter contains an oversized {@code $in}.
+     *
+     * @param sqlCommandInfo the SQL command info containing query details.
+     * @param queryHolder    the MongoDB query holder to update.
+     * @throws QueryConversionException if an error occurs during processing.
+     */
+    @Override
+    public void process(
+            SQLCommandInfo sqlCommandInfo,
+            MongoQueryHolder queryHolder
+    ) throws QueryConversionException {
+
+        if (options.getInChunkSize() <= 0
+                || sqlCommandInfo.getOffset() > 0
+                || !sqlCommandInfo.getGroupByFields().isEmpty()
+                || (sqlCommandInfo.isTotalGroup() && !sqlCommandInfo.getSelectList().isCountAll())
+                || (sqlCommandInfo.getJoins() != null && !sqlCommandInfo.getJoins().isEmpty())
+                || (queryHolder.getAggregationWrapper().getPrevSteps() != null
+                        && !queryHolder.getAggregationWrapper().getPrevSteps().isEmpty())
+        ) {
+            return;
+        }
+
+        Document filter = queryHolder.getFilterWrapper().getQuery();
+        InList inList = findLargestInList(filter);
+        if (inList == null) {
+            return;
+        }
+
+        List<List<Object>> chunks = split(inList.values());
+        if (chunks.size() < 2) {
+            return;
+        }
+
+        List<Document> chunkFilters = new ArrayList<>(chunks.size());
+        for (List<Object> chunk : chunks) {
+            chunkFilters.add(withChunk(filter, inList, chunk));
+        }
+        queryHolder.getFilterWrapper().setChunkFilters(chunkFilters);
+    }
+
+    /**
+     * Finds the largest splittable {@code $in} list of the filter.
+     *
+     * @param filter the filter document.
+     * @return the {@link InList}, or {@code null} if the filter has none.
+     */
+    private InList findLargestInList(Document filter) {
+        InList largest = null;
+
+        for (var entry : filter.entrySet()) {
+            if ("$and".equals(entry.getKey()) && entry.getValue() instanceof List<?> operands) {
+                for (int i = 0; i < operands.size(); i++) {
+                    if (operands.get(i) instanceof Document operand && operand.size() == 1) {
+                        var operandEntry = operand.entrySet().iterator().next();
+                        largest = larger(largest, toInList(operandEntry.getKey(), operandEntry.getValue(), i));
+                    }
+                }
+            } else {
+                largest = larger(largest, toInList(entry.getKey(), entry.getValue(), -1));
+            }
+        }
+        return largest;
+    }
+
+    private InList toInList(String field, Object condition, int andIndex) {
+        if (!field.startsWith("$")
+                && condition instanceof Document document
+                && document.size() == 1
+                && document.get("$in") instanceof List<?> values
+        ) {
+            return new InList(field, values, andIndex);
+        }
+        return null;
+    }
+
+    private InList larger(InList current, InList candidate) {
+        return current == null || (candidate != null && candidate.values().size() > current.values().size())
+                ? candidate
+                : current;
+    }
+
+    /**
+     * Splits the values into chunks bounded by the configured count and estimated encoded size.
+     */
+    private List<List<Object>> split(List<?> values) {
+        List<List<Object>> chunks = new ArrayList<>();
+        List<Object> current = new ArrayList<>();
+        long currentBytes = 0;
+
+        for (Object value : values) {
+            long size = estimateBsonSize(value);
+            if (!current.isEmpty()
+                    && (current.size() >= options.getInChunkSize() || currentBytes + size > options.getMaxInChunkBytes())
+            ) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(value);
+            currentBytes += size;
+        }
+
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    /**
+     * Estimates the encoded size of a value as a BSON array element.
+     */
+    private static long estimateBsonSize(Object value) {
+        return ELEMENT_OVERHEAD + switch (value) {
+            case null -> 0;
+            case Boolean ignored -> 1;
+            case Integer ignored -> 4;
+            case Long ignored -> 8;
+            case Double ignored -> 8;
+            case Date ignored -> 8;
+            case ObjectId ignored -> 12;
+            case String string -> 5L + string.getBytes(StandardCharsets.UTF_8).length;
+            case Document document -> document.toJson().length();
+            default -> 16L + value.toString().length();
+        };
+    }
+
+    /**
+     * Copies the filter, replacing the {@code $in} list with the chunk.
+     */
+    private Document withChunk(Document filter, InList inList, List<Object> chunk) {
+        Document chunkFilter = new Document(filter);
+        Document condition = new Document("$in", chunk);
+
+        if (inList.andIndex() < 0) {
+            chunkFilter.put(inList.field(), condition);
+        } else {
+            List<Object> operands = new ArrayList<>(filter.getList("$and", Object.class));
+            operands.set(inList.andIndex(), new Document(inList.field(), condition));
+            chunkFilter.put("$and", operands);
+        }
+        return chunkFilter;
+    }
+
+    /**
+     * A splittable {@code $in} list.
+     *
+     * @param field    the field the list applies to.
+     * @param values   the values of the list.
+     * @param andIndex the position in the top-level {@code $and}, or {@code -1} if the field is at the top level.
+     */
+    private record InList(String field, List<?> values, int andIndex) {
+    }
+}
@@ -1,34 +1,67 @@
 package com.koroli.queryconverter.processors;
 
+import com.koroli.queryconverter.catalog.IndexCatalog;
+import com.koroli.queryconverter.catalog.IndexInfo;
 import com.koroli.queryconverter.exceptions.QueryConversionException;
 import com.koroli.queryconverter.holders.AliasHolder;
 import com.koroli.queryconverter.holders.FromInfo;
 import com.koroli.queryconverter.holders.SQLCommandInfo;
-import com.koroli.queryconverter.model.FieldType;
+import com.koroli.queryconverter.optimizers.ProjectionPushDown;
 import com.koroli.queryconverter.query.MongoQueryHolder;
+import com.koroli.queryconverter.utils.ExpressionUtils;
 import com.koroli.queryconverter.visitors.AliasCleanerVisitor;
-import com.koroli.queryconverter.visitors.MatchLookupVisitor;
 import com.koroli.queryconverter.visitors.OnClauseVisitor;
-import com.koroli.queryconverter.visitors.WhereMatchVisitor;
-import net.sf.jsqlparser.expression.BinaryExpression;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
-import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.OrderByElement;
 import org.bson.Document;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Processes SQL JOIN clauses and converts them into MongoDB aggregation stages.
+ * The base documents and the joined documents are projected down to the fields the query references
+ * before the joins, see {@link ProjectionPushDown}.
+ * <p>
+ * A join is to-one if its ON condition equates all key fields of a unique index of the joined collection
+ * (or its {@code _id}) with columns of other tables; its lookup then stops at the first match with {@code $limit: 1}.
+ * If all joins are LEFT joins, every base document produces at least one row, so ORDER BY on base columns and LIMIT
+ * are applied to the base documents ahead of the first {@code $lookup}, and the number of lookups executed drops
+ * from the collection size to the page size. If all joins are also to-one, every base document produces exactly
+ * one row and OFFSET moves ahead of the joins as well; otherwise {@code $skip} and {@code $limit} are repeated
+ * after the joins.
  */
 public final class JoinProcessor implements QueryProcessor {
 
+    private static final String ID_FIELD = "_id";
+
+    private final IndexCatalog indexCatalog;
+
+    /**
+     * Constructor without index information: no join is known to be to-one.
+     */
+    public JoinProcessor() {
+        this(IndexCatalog.empty());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param indexCatalog the catalog used to detect unique foreign keys.
+     */
+    public JoinProcessor(IndexCatalog indexCatalog) {
+        this.indexCatalog = indexCatalog;
+    }
+
     /**
      * Processes SQL JOIN clauses, converting them into MongoDB aggregation steps.
      *
@@ -49,7 +82,7 @@ public final class JoinProcessor implements QueryProcessor {
 
         queryHolder.getAggregationWrapper().setRequiresMultistepAggregation(true);
         try {
-            List<Document> joinPipeline = createJoinPipeline(sqlCommandInfo);
+            List<Document> joinPipeline = createJoinPipeline(sqlCommandInfo, queryHolder);
             queryHolder.getAggregationWrapper().setJoinPipeline(joinPipeline);
         } catch (Exception e) {
             throw new QueryConversionException("Error processing JOIN clause", e);
@@ -60,19 +93,28 @@ public final class JoinProcessor implements QueryProcessor {
      * Creates a pipeline of MongoDB aggregation steps for processing JOIN clauses.
      *
      * @param sqlCommandInfo the SQL command info containing join and where details.
+     * @param queryHolder    the MongoDB query holder, told which stages were moved ahead of the joins.
      * @return a list of MongoDB aggregation documents representing the join pipeline.
      * @throws QueryConversionException if an error occurs during processing.
      */
-    private List<Document> createJoinPipeline(SQLCommandInfo sqlCommandInfo) throws QueryConversionException {
+    private List<Document> createJoinPipeline(
+            SQLCommandInfo sqlCommandInfo,
+            MongoQueryHolder queryHolder
+    ) throws QueryConversionException {
         List<Document> aggregationPipeline = new LinkedList<>();
         FromInfo fromInfo = sqlCommandInfo.getFrom();
         Expression whereCondition = sqlCommandInfo.getWhereClause();
-        AtomicBoolean haveOrExpression = new AtomicBoolean(false);
 
-        if (whereCondition != null) {
-            detectOrExpression(whereCondition, haveOrExpression);
+        String baseKey = fromInfo.getBaseAlias() != null
+                ? fromInfo.getBaseAlias()
+                : fromInfo.getBaseTableName();
+        Map<String, Document> projections = ProjectionPushDown.referencedFields(sqlCommandInfo, baseKey);
+        if (projections.containsKey(baseKey)) {
+            aggregationPipeline.add(new Document("$project", projections.get(baseKey)));
         }
-
+        int pageIndex = aggregationPipeline.size();
+        boolean allLeft = true;
+        boolean allToOne = true;
         for (Join join : sqlCommandInfo.getJoins()) {
             if (!join.isInner() && !join.isLeft()) {
                 throw new QueryConversionException("Only INNER and LEFT JOINs are supported");
@@ -88,28 +130,20 @@ public final class JoinProcessor implements QueryProcessor {
                     : rightTableName;
 
             Expression onExp = join.getOnExpression();
-
-            if (whereCondition != null) {
-                haveOrExpression.set(false);
-                whereCondition.accept(
-                        new WhereMatchVisitor(
-                                rightTableAlias,
-                                haveOrExpression
+            boolean toOne = isToOne(rightTableName, rightTableAlias, onExp);
+            allLeft &= join.isLeft();
+            allToOne &= toOne;
+
+            if (whereCondition != null && onExp != null) {
+                onExp.accept(
+                        new AliasCleanerVisitor(
+                                rightTableAlias
                         )
                 );
-                if (!haveOrExpression.get() && onExp != null) {
-                    onExp.accept(
-                            new AliasCleanerVisitor(
-                                    rightTableAlias
-                            )
-                    );
-                } else {
-                    onExp = null;
-                }
             }
 
-            Expression extraWhereExp = !haveOrExpression.get() && whereCondition != null ?
-                    combineExpressions(onExp, whereCondition)
+            Expression extraWhereExp = whereCondition != null
+                    ? combineExpressions(onExp, whereCondition)
                     : null;
 
             aggregationPipeline.add(
@@ -118,7 +152,9 @@ public final class JoinProcessor implements QueryProcessor {
                             rightTableName,
                             rightTableAlias,
                             onExp,
-                            extraWhereExp
+                            extraWhereExp,
+                            projections.get(rightTableAlias),
+                            toOne
                     ));
 
             aggregationPipeline.add(
@@ -128,13 +164,117 @@ public final class JoinProcessor implements QueryProcessor {
                     ));
         }
 
-        if (haveOrExpression.get() && whereCondition != null) {
-            aggregationPipeline.add(buildInternalMatchAfterJoin(fromInfo, whereCondition));
+        if (allLeft) {
+            aggregationPipeline.addAll(pageIndex, buildPageStepsAheadOfJoins(sqlCommandInfo, queryHolder, baseKey, allToOne));
         }
 
         return aggregationPipeline;
     }
 
+    /**
+     * Checks if the ON condition equates all key fields of a unique index of the joined collection, or its
+     * {@code _id}, with columns of other tables, so that the join matches at most one document.
+     * Sparse and partial unique indexes are not used, since they allow any number of documents without the key.
+     *
+     * @param joinCollection the joined collection.
+     * @param joinAlias      the alias of the joined collection.
+     * @param onExp          the ON condition, before its aliases are cleaned.
+     * @return {@code true} if the join is to-one, otherwise {@code false}.
+     */
+    private boolean isToOne(String joinCollection, String joinAlias, Expression onExp) {
+        if (onExp == null) {
+            return false;
+        }
+
+        Set<String> equatedFields = new HashSet<>();
+        for (Expression operand : ExpressionUtils.flattenOperands(ExpressionUtils.unwrapParentheses(onExp), AndExpression.class)) {
+            if (operand instanceof EqualsTo equalsTo
+                    && equalsTo.getLeftExpression() instanceof Column left
+                    && equalsTo.getRightExpression() instanceof Column right
+            ) {
+                boolean leftJoined = isColumnOf(left, joinAlias);
+                if (leftJoined != isColumnOf(right, joinAlias)) {
+                    equatedFields.add((leftJoined ? left : right).getColumnName());
+                }
+            }
+        }
+
+        if (equatedFields.contains(ID_FIELD)) {
+            return true;
+        }
+        for (IndexInfo index : indexCatalog.getIndexes(joinCollection)) {
+            if (index.isUnique()
+                    && !index.isSparse()
+                    && !index.isPartial()
+                    && !index.getKeys().isEmpty()
+                    && equatedFields.containsAll(index.getKeys().keySet())
+            ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isColumnOf(Column column, String alias) {
+        return column.getTable() != null && alias.equals(column.getTable().getFullyQualifiedName());
+    }
+
+    /**
+     * Builds the ORDER BY / OFFSET / LIMIT stages applied to the base documents ahead of the LEFT joins.
+     *
+     * @param sqlCommandInfo the SQL command info.
+     * @param queryHolder    the MongoDB query holder, told which stages were moved.
+     * @param baseKey        the alias of the base table, or its name if it has no alias.
+     * @param allToOne       whether every join matches at most one document.
+     * @return the stages, or an empty list if the page cannot be applied ahead of the joins.
+     */
+    private List<Document> buildPageStepsAheadOfJoins(
+            SQLCommandInfo sqlCommandInfo,
+            MongoQueryHolder queryHolder,
+            String baseKey,
+            boolean allToOne
+    ) {
+        long limit = sqlCommandInfo.getLimit();
+        long offset = Math.max(sqlCommandInfo.getOffset(), 0);
+        if (limit <= 0
+                || sqlCommandInfo.isDistinct()
+                || sqlCommandInfo.isCountAll()
+                || sqlCommandInfo.isTotalGroup()
+                || !sqlCommandInfo.getGroupByFields().isEmpty()
+                || sqlCommandInfo.getHavingClause() != null
+        ) {
+            return List.of();
+        }
+
+        Document sort = new Document();
+        if (sqlCommandInfo.getOrderByElements() != null) {
+            for (OrderByElement orderByElement : sqlCommandInfo.getOrderByElements()) {
+                if (!(orderByElement.getExpression() instanceof Column column)
+                        || !(isColumnOf(column, baseKey) || isColumnOf(column, sqlCommandInfo.getBaseTableName()))
+                ) {
+                    return List.of();
+                }
+                sort.put(column.getColumnName(), orderByElement.isAsc() ? 1 : -1);
+            }
+        }
+
+        List<Document> steps = new ArrayList<>();
+        if (!sort.isEmpty()) {
+            steps.add(new Document("$sort", sort));
+            queryHolder.getAggregationWrapper().setSortAheadOfJoins(true);
+        }
+        if (allToOne) {
+            if (offset > 0) {
+                steps.add(new Document("$skip", offset));
+            }
+            steps.add(new Document("$limit", limit));
+            queryHolder.getAggregationWrapper().setPageAheadOfJoins(true);
+        } else {
+            steps.add(new Document("$limit", offset + limit));
+        }
+        return steps;
+    }
+
     /**
      * Combines two SQL expressions using an AND operator.
      *
@@ -156,6 +296,8 @@ public final class JoinProcessor implements QueryProcessor {
      * @param joinAlias      the alias for the joined table.
      * @param onExp          the ON condition of the JOIN.
      * @param extraWhereExp  additional WHERE conditions to include.
+     * @param projection     the fields of the joined table the query references, or {@code null} to embed whole documents.
+     * @param toOne          whether the join matches at most one document.
      * @return a MongoDB $lookup aggregation step.
      * @throws QueryConversionException if an error occurs during processing.
      */
@@ -164,14 +306,24 @@ public final class JoinProcessor implements QueryProcessor {
             String joinCollection,
             String joinAlias,
             Expression onExp,
-            Expression extraWhereExp
+            Expression extraWhereExp,
+            Document projection,
+            boolean toOne
     ) throws QueryConversionException {
 
         List<Document> aggregationPipeline = new ArrayList<>();
 
         if (onExp != null || extraWhereExp != null) {
             Expression combinedExp = combineExpressions(onExp, extraWhereExp);
-            aggregationPipeline.add(buildLookupMatchStep(fromInfo, combinedExp, joinAlias));
+            aggregationPipeline.add(buildLookupMatchStep(fromInfo, combinedExp));
+        }
+
+        if (projection != null) {
+            aggregationPipeline.add(new Document("$project", projection));
+        }
+
+        if (toOne) {
+            aggregationPipeline.add(new Document("$limit", 1));
         }
 
         Document letVariables = new Document();
@@ -215,13 +367,10 @@ public final class JoinProcessor implements QueryProcessor {
      */
     private Document buildLookupMatchStep(
             FromInfo fromInfo,
-            Expression expression,
-            String rightTableAlias
+            Expression expression
     ) throws QueryConversionException {
         Document match = new Document();
 
-        expression.accept(new MatchLookupVisitor(rightTableAlias, fromInfo.getBaseAlias()));
-
         WhereProcessor whereProcessor = new WhereProcessor(
                 fromInfo.getDefaultFieldType(),
                 fromInfo.getFieldNameToFieldTypeMapping(),
@@ -232,37 +381,4 @@ public final class JoinProcessor implements QueryProcessor {
         match.put("$match", parsed);
         return match;
     }
-
-    private static Document buildInternalMatchAfterJoin(
-            FromInfo fromInfo,
-            Expression whereExpression
-    ) throws QueryConversionException {
-        WhereProcessor whereProcessor = new WhereProcessor(
-                FieldType.UNKNOWN,
-                Collections.emptyMap(),
-                false,
-                new AliasHolder()
-        );
-
-        whereExpression.accept(new AliasCleanerVisitor(fromInfo.getBaseAlias()));
-
-        Document match = new Document();
-        match.put("$match", whereProcessor.parseExpression(new Document(), whereExpression, null));
-        return match;
-    }
-
-    /**
-     * Detects whether a given expression contains OR conditions.
-     *
-     * @param expression       the expression to analyze.
-     * @param haveOrExpression a flag that will be set to true if an OR condition is detected.
-     */
-    private void detectOrExpression(Expression expression, AtomicBoolean haveOrExpression) {
-        if (expression instanceof OrExpression) {
-            haveOrExpression.set(true);
-        } else if (expression instanceof BinaryExpression binaryExpression) {
-            detectOrExpression(binaryExpression.getLeftExpression(), haveOrExpression);
-            detectOrExpression(binaryExpression.getRightExpression(), haveOrExpression);
-        }
-    }
 }
\ No newline at end of file
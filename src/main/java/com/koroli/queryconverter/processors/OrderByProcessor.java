@@ -53,7 +53,7 @@ public class OrderByProcessor implements QueryProcessor {
             String sortKey;
 
             if (orderByElement.getExpression() instanceof Function function) {
-                String alias = aliasHolder.getAliasFromFieldExp(function.toString());
+                String alias = aliasHolder.getAliasFromExpression(function);
                 if (alias != null && !alias.equals(function.toString())) {
                     sortKey = alias;
                 } else {
@@ -68,7 +68,7 @@ public class OrderByProcessor implements QueryProcessor {
                 if (!groupByFields.isEmpty()) {
                     if (!ExpressionUtils.isAggregateExpression(sortKey)) {
                         sortKey = groupByFields.size() > 1
-                                ? "_id." + sortKey.replaceAll("\\.", "_")
+                                ? "_id." + sortKey.replace('.', '_')
                                 : "_id";
                     }
                 }
@@ -1,17 +1,16 @@
 package com.koroli.queryconverter.processors;
 
 import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.holders.ConversionOptions;
 import com.koroli.queryconverter.holders.SQLCommandInfo;
+import com.koroli.queryconverter.holders.SelectListInfo;
 import com.koroli.queryconverter.query.MongoQueryHolder;
 import com.koroli.queryconverter.utils.NormalizationUtils;
 import com.koroli.queryconverter.utils.ParsingUtils;
-import com.koroli.queryconverter.utils.ValidationUtils;
-import net.sf.jsqlparser.expression.Alias;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.Function;
 import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
 import net.sf.jsqlparser.schema.Column;
-import net.sf.jsqlparser.statement.select.SelectItem;
 import org.bson.Document;
 
 import java.util.ArrayList;
@@ -22,6 +21,24 @@ import java.util.List;
  */
 public class ProjectionProcessor implements QueryProcessor {
 
+    private final ConversionOptions options;
+
+    /**
+     * Constructor with the default {@link ConversionOptions}.
+     */
+    public ProjectionProcessor() {
+        this(ConversionOptions.defaults());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param options the conversion options, providing the function translators.
+     */
+    public ProjectionProcessor(ConversionOptions options) {
+        this.options = options;
+    }
+
     /**
      * Processes SELECT items to create MongoDB projections.
      *
@@ -44,13 +61,14 @@ public class ProjectionProcessor implements QueryProcessor {
             queryHolder.setDistinct(true);
         } else if (sqlCommandInfo.getGroupByFields().isEmpty()
                 && !sqlCommandInfo.isTotalGroup()
-                && !ValidationUtils.isSelectAllQuery(sqlCommandInfo.getSelectItems())
+                && !sqlCommandInfo.getSelectList().isSelectAll()
         ) {
+            SelectListInfo selectList = sqlCommandInfo.getSelectList();
             Document projections = new Document();
             projections.put("_id", 0);
 
-            for (SelectItem<?> selectItem : sqlCommandInfo.getSelectItems()) {
-                processSelectItem(selectItem, projections, sqlCommandInfo);
+            for (int i = 0; i < selectList.size(); i++) {
+                processSelectItem(selectList, i, projections, sqlCommandInfo, queryHolder);
             }
 
             queryHolder.getProjectionWrapper().setProjection(projections);
@@ -60,73 +78,84 @@ public class ProjectionProcessor implements QueryProcessor {
     /**
      * Processes a single SELECT item and adds its projection to the given document.
      *
-     * @param selectItem     the select item to process.
+     * @param selectList     the SELECT list.
+     * @param index          the index of the item to process.
      * @param projections    the MongoDB projections document to update.
      * @param sqlCommandInfo the SQL command info containing field mappings.
+     * @param queryHolder    the MongoDB query holder recording the projected fields.
      * @throws QueryConversionException if an unsupported expression is encountered.
      */
     private void processSelectItem(
-            SelectItem<?> selectItem,
+            SelectListInfo selectList,
+            int index,
             Document projections,
-            SQLCommandInfo sqlCommandInfo
+            SQLCommandInfo sqlCommandInfo,
+            MongoQueryHolder queryHolder
     ) throws QueryConversionException {
 
-        Expression expression = selectItem.getExpression();
-        Alias alias = selectItem.getAlias();
-        String key = alias != null
-                ? alias.getName()
-                : ParsingUtils.extractStringValue(expression);
-
-        if (expression instanceof Column) {
-            projections.put(key, 1);
-        } else if (expression instanceof Function function) {
-            Document functionProjection = new Document();
-            parseFunction(function, functionProjection, sqlCommandInfo);
-            projections.put(key, functionProjection);
-        } else {
-            throw new QueryConversionException("Unsupported project expression: " + expression);
+        switch (selectList.getKind(index)) {
+            case COLUMN -> {
+                String key = selectList.getAliasOrName(index);
+                projections.put(key, 1);
+                queryHolder.getProjectionWrapper().getProjectedFields().add(key);
+            }
+            case AGGREGATE, FUNCTION -> {
+                Function function = (Function) selectList.getItem(index).getExpression();
+                String key = selectList.getAlias(index) != null
+                        ? selectList.getAlias(index)
+                        : ParsingUtils.extractStringValue(function);
+
+                projections.put(key, parseFunction(function, sqlCommandInfo));
+                queryHolder.getProjectionWrapper().getComputedFields().add(key);
+            }
+            default -> throw new QueryConversionException(
+                    "Unsupported project expression: " + selectList.getItem(index).getExpression());
         }
     }
 
     /**
-     * Parses a SQL function and adds its MongoDB equivalent to the projections document.
+     * Translates a SQL function into its MongoDB aggregation expression.
      *
-     * @param function           the SQL function to parse.
-     * @param functionProjection the MongoDB function projection document to update.
-     * @param sqlCommandInfo     the SQL command info containing field mappings.
-     * @throws QueryConversionException if the function cannot be parsed.
+     * @param function       the SQL function to translate.
+     * @param sqlCommandInfo the SQL command info containing field mappings.
+     * @return the aggregation expression of the function.
+     * @throws QueryConversionException if the function cannot be translated.
      */
-    private void parseFunction(
+    private Object parseFunction(
             Function function,
-            Document functionProjection,
             SQLCommandInfo sqlCommandInfo
     ) throws QueryConversionException {
 
-        String mongoFunctionName = ParsingUtils.translateFunctionName(function.getName());
-        Object functionParams = parseFunctionParameters(function.getParameters(), sqlCommandInfo);
-
-        functionProjection.put("$" + mongoFunctionName, functionParams);
+        return options.getFunctionRegistry().translate(
+                function.getName(),
+                parseFunctionParameters(function.getParameters(), sqlCommandInfo));
     }
 
     /**
-     * Parses function parameters into MongoDB-compatible format.
+     * Parses function parameters into MongoDB-compatible format; nested functions are translated recursively.
      *
      * @param parameters     the function parameters to parse.
      * @param sqlCommandInfo the SQL command info containing field mappings.
-     * @return a parsed representation of the parameters.
+     * @return the parsed parameters.
      * @throws QueryConversionException if parameter parsing fails.
      */
-    private Object parseFunctionParameters(
+    private List<Object> parseFunctionParameters(
             ExpressionList<?> parameters,
             SQLCommandInfo sqlCommandInfo
 
     ) throws QueryConversionException {
 
-        if (parameters == null) return null;
-
         List<Object> parsedParameters = new ArrayList<>();
+        if (parameters == null) {
+            return parsedParameters;
+        }
 
         for (Expression parameter : parameters.getExpressions()) {
+            if (parameter instanceof Function nested) {
+                parsedParameters.add(parseFunction(nested, sqlCommandInfo));
+                continue;
+            }
+
             Object normalizedValue = NormalizationUtils.normalizeExpression(
                     parameter,
                     null,
@@ -146,8 +175,6 @@ public class ProjectionProcessor implements QueryProcessor {
             parsedParameters.add(normalizedValue);
         }
 
-        return parsedParameters.size() == 1
-                ? parsedParameters.getFirst()
-                : parsedParameters;
+        return parsedParameters;
     }
 }
@@ -2,26 +2,39 @@ package com.koroli.queryconverter.processors;
 
 import com.koroli.queryconverter.exceptions.QueryConversionException;
 import com.koroli.queryconverter.holders.AliasHolder;
+import com.koroli.queryconverter.holders.ConversionOptions;
 import com.koroli.queryconverter.holders.SQLCommandInfo;
 import com.koroli.queryconverter.model.FieldType;
+import com.koroli.queryconverter.model.LikePattern;
+import com.koroli.queryconverter.model.OperandKind;
+import com.koroli.queryconverter.model.SQLCommandType;
 import com.koroli.queryconverter.operators.date.DateOperator;
 import com.koroli.queryconverter.operators.object.ObjectOperator;
 import com.koroli.queryconverter.operators.regex.RegexOperator;
+import com.koroli.queryconverter.optimizers.CollationRewriter;
+import com.koroli.queryconverter.optimizers.ConstantFolder;
+import com.koroli.queryconverter.optimizers.HavingPushDown;
+import com.koroli.queryconverter.optimizers.NegationPushDown;
+import com.koroli.queryconverter.optimizers.NormalizedPredicate;
+import com.koroli.queryconverter.optimizers.ObjectIdTimeRewriter;
+import com.koroli.queryconverter.optimizers.PredicateNormalizer;
+import com.koroli.queryconverter.optimizers.SargableRewriter;
 import com.koroli.queryconverter.query.MongoQueryHolder;
 import com.koroli.queryconverter.utils.*;
-import com.koroli.queryconverter.visitors.AliasCleanerVisitor;
-import com.koroli.queryconverter.visitors.WhereMatchVisitor;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import net.sf.jsqlparser.expression.*;
+import net.sf.jsqlparser.expression.operators.arithmetic.*;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
 import net.sf.jsqlparser.expression.operators.relational.*;
 import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.ParenthesedSelect;
+import net.sf.jsqlparser.statement.select.Select;
 import org.bson.Document;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Processes SQL WHERE clauses and converts them into MongoDB query filters.
@@ -34,6 +47,27 @@ public class WhereProcessor implements QueryProcessor {
     private final Map<String, FieldType> fieldNameToFieldTypeMapping;
     private final boolean requiresMultistepAggregation;
     protected final AliasHolder aliasHolder;
+    private final ConversionOptions options;
+
+    @Getter(AccessLevel.NONE)
+    private final TranslationVisitor translator = new TranslationVisitor();
+
+    /**
+     * Constructor with the default {@link ConversionOptions}.
+     *
+     * @param defaultFieldType             the default field type.
+     * @param fieldNameToFieldTypeMapping  mapping of field names to their types.
+     * @param requiresMultistepAggregation whether aggregation is required for the SQL statement.
+     * @param aliasHolder                  alias holder for field resolution.
+     */
+    public WhereProcessor(
+            FieldType defaultFieldType,
+            Map<String, FieldType> fieldNameToFieldTypeMapping,
+            boolean requiresMultistepAggregation,
+            AliasHolder aliasHolder
+    ) {
+        this(defaultFieldType, fieldNameToFieldTypeMapping, requiresMultistepAggregation, aliasHolder, ConversionOptions.defaults());
+    }
 
     /**
      * Processes the WHERE clause of an SQL query and updates the MongoDB query filter.
@@ -49,40 +83,79 @@ public class WhereProcessor implements QueryProcessor {
     ) throws QueryConversionException {
 
         Expression whereClause = sqlCommandInfo.getWhereClause();
+        Expression pushedHaving = HavingPushDown.pushedConjuncts(sqlCommandInfo);
+        if (pushedHaving != null) {
+            whereClause = whereClause == null ? pushedHaving : new AndExpression(whereClause, pushedHaving);
+        }
         if (whereClause == null) {
             return;
         }
 
-        if (sqlCommandInfo.getJoins() != null && !sqlCommandInfo.getJoins().isEmpty()) {
-            Optional<Expression> tempExpression = Optional.empty();
-            AtomicBoolean haveOrExpression = new AtomicBoolean(false);
-
-            whereClause.accept(
-                    new WhereMatchVisitor(
-                            sqlCommandInfo.getFrom().getBaseAlias(),
-                            tempExpression,
-                            haveOrExpression
-                    ));
+        ExpressionUtils.stripAliasFromExpression(whereClause, sqlCommandInfo.getFrom().getBaseAlias());
 
-            if (haveOrExpression.get()) {
-                return;
-            }
+        Expression folded = new ConstantFolder(options.getClock()).apply(whereClause);
+        Expression rewritten = new SargableRewriter(defaultFieldType, fieldNameToFieldTypeMapping)
+                .apply(NegationPushDown.apply(folded));
+        String baseTableName = sqlCommandInfo.getBaseTableName();
+        String objectIdTimeField = baseTableName != null ? options.getObjectIdTimeFields().get(baseTableName) : null;
+        if (objectIdTimeField != null) {
+            rewritten = new ObjectIdTimeRewriter(objectIdTimeField).apply(rewritten);
+        }
+        NormalizedPredicate normalized = new PredicateNormalizer(defaultFieldType, fieldNameToFieldTypeMapping)
+                .normalize(rewritten);
 
-            if (tempExpression.isPresent()) {
-                whereClause = tempExpression.get();
-            }
+        if (normalized.isContradiction()) {
+            queryHolder.setAlwaysEmpty(true);
+            queryHolder.getFilterWrapper().setQuery(createMatchNothingFilter());
+            return;
         }
 
-        whereClause.accept(
-                new AliasCleanerVisitor(sqlCommandInfo.getFrom().getBaseAlias()), sqlCommandInfo.getFrom()
-        );
+        CollationRewriter collationRewriter = new CollationRewriter(defaultFieldType, fieldNameToFieldTypeMapping);
+        boolean collation = isCollationAllowed(sqlCommandInfo, queryHolder)
+                && collationRewriter.isApplicable(normalized.getExpression());
+        Expression filter = collationRewriter.apply(normalized.getExpression(), collation);
 
-        Document parsedQuery = (Document) parseExpression(new Document(), whereClause, null);
+        Document parsedQuery = (Document) parseExpression(new Document(), filter, null);
         queryHolder.getFilterWrapper().setQuery(parsedQuery);
+        queryHolder.setLikeIndexBounded(collation
+                ? isLikeIndexBounded(normalized.getExpression(), true)
+                : isLikeIndexBounded(filter, false));
+        if (collation) {
+            queryHolder.setCollation(new Document("locale", options.getCollationLocale()).append("strength", 2));
+        }
+    }
+
+    /**
+     * Checks whether the query can run with a case-insensitive collation. A collation also applies to the
+     * grouping, distinct values, joins and sub-query stages of a pipeline, so only plain SELECTs use it;
+     * it still changes the order of strings in ORDER BY to the collation order.
+     *
+     * @param sqlCommandInfo the SQL command information
+     * @param queryHolder    the MongoDB query holder
+     * @return {@code true} if a collation can be attached to the query, otherwise {@code false}
+     */
+    private static boolean isCollationAllowed(SQLCommandInfo sqlCommandInfo, MongoQueryHolder queryHolder) {
+        return sqlCommandInfo.getSqlCommandType() == SQLCommandType.SELECT
+                && !sqlCommandInfo.isDistinct()
+                && (!sqlCommandInfo.isTotalGroup() || sqlCommandInfo.isCountAll())
+                && (sqlCommandInfo.getGroupByFields() == null || sqlCommandInfo.getGroupByFields().isEmpty())
+                && (sqlCommandInfo.getJoins() == null || sqlCommandInfo.getJoins().isEmpty())
+                && queryHolder.getAggregationWrapper().getPrevSteps().isEmpty();
+    }
+
+    /**
+     * Creates a filter that matches no document, used when the WHERE clause can never be satisfied.
+     *
+     * @return the filter document.
+     */
+    private static Document createMatchNothingFilter() {
+        return new Document("_id", new Document("$in", List.of()));
     }
 
     /**
      * Parsing an expression from SQL to MongoDB query format.
+     * <p>
+     * The expression is dispatched once to the {@link TranslationVisitor} method of its node type.
      *
      * @param query              the MongoDB query document to update
      * @param incomingExpression the SQL expression to parse
@@ -90,30 +163,55 @@ public class WhereProcessor implements QueryProcessor {
      * @return an updated MongoDB query document or nested structure
      * @throws QueryConversionException if an error occurs during expression parsing
      */
-    // I know this method is too huge, I couldn't split it up, sorry...
     public Object parseExpression(
             Document query,
             Expression incomingExpression,
             Expression otherSide
     ) throws QueryConversionException {
 
-        // 1. Comparative operators
-        if (incomingExpression instanceof ComparisonOperator comparisonOperator) {
-            RegexOperator regexOperator = FunctionUtils.identifyRegexOperator(incomingExpression);
-            DateOperator dateOperator = FunctionUtils.identifyDateOperator(incomingExpression);
-            ObjectOperator objectOperator = FunctionUtils.identifyObjectOperator(this, incomingExpression);
+        TranslationContext context = new TranslationContext(query, otherSide);
+        if (incomingExpression == null) {
+            return translateOther(null, context);
+        }
+
+        try {
+            return incomingExpression.accept(translator, context);
+        } catch (UncheckedConversionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Converts a comparison ({@code =, <>, <, >, <=, >=}). The regex, date and ObjectId special forms are
+     * only looked for when one side of the comparison is a function.
+     *
+     * @param comparisonOperator the comparison
+     * @param comparatorType     the type of comparison
+     * @param context            the translation context
+     * @return the updated MongoDB query document
+     * @throws QueryConversionException if an error occurs during comparison parsing
+     */
+    private Object translateComparison(
+            ComparisonOperator comparisonOperator,
+            String comparatorType,
+            TranslationContext context
+    ) throws QueryConversionException {
+
+        Document query = context.query();
+        Expression leftExpression = comparisonOperator.getLeftExpression();
+        Expression rightExpression = comparisonOperator.getRightExpression();
 
-            // 1.1 REGEX
+        if (leftExpression instanceof Function function) {
+            // REGEX
+            RegexOperator regexOperator = comparisonOperator instanceof EqualsTo equalsTo
+                    ? FunctionUtils.identifyRegexOperator(equalsTo, function)
+                    : null;
             if (regexOperator != null) {
-                Document regexDocument = new Document("$regex", regexOperator.getRegex());
-                if (regexOperator.getOptions() != null) {
-                    regexDocument.append("$options", regexOperator.getOptions());
-                }
-                query.put(regexOperator.getColumn(), applyNotOperatorIfRequired(regexDocument, regexOperator));
-                return query;
+                return appendRegexOperator(query, regexOperator);
             }
 
-            // 1.2 DATE
+            // DATE
+            DateOperator dateOperator = FunctionUtils.identifyDateOperator(comparisonOperator, function);
             if (dateOperator != null) {
                 query.put(
                         dateOperator.getColumn(),
@@ -121,203 +219,284 @@ public class WhereProcessor implements QueryProcessor {
                 );
                 return query;
             }
+        }
 
-            // 1.3 OBJECT_ID
+        // OBJECT_ID
+        Function objectIdFunction = leftExpression instanceof Function function
+                ? function
+                : rightExpression instanceof Function function ? function : null;
+        if (objectIdFunction != null) {
+            ObjectOperator objectOperator = FunctionUtils.identifyObjectOperator(comparisonOperator, objectIdFunction);
             if (objectOperator != null) {
                 query.put(objectOperator.getColumn(), objectOperator.toDocument());
                 return query;
             }
+        }
 
-            // 1.4 Common comparators (==, !=, <, >, <=, >=)
-            Expression leftExpression = comparisonOperator.getLeftExpression();
-            Expression rightExpression = comparisonOperator.getRightExpression();
-
-            String operator = switch (incomingExpression) {
-                case EqualsTo ignored            -> "eq";
-                case NotEqualsTo ignored         -> "ne";
-                case GreaterThan ignored         -> "gt";
-                case MinorThan ignored           -> "lt";
-                case GreaterThanEquals ignored   -> "gte";
-                case MinorThanEquals ignored     -> "lte";
-                default -> null;
-            };
-
-            if (operator != null) {
-                handleComparisonOperator(query, leftExpression, rightExpression, operator);
-            }
+        handleComparisonOperator(query, leftExpression, rightExpression, comparatorType);
+        return query;
+    }
 
-            return query;
+    /**
+     * Converts a LIKE expression between a column and a pattern into an equality or a regex.
+     * A pattern without wildcards becomes equality, any other pattern an escaped regex
+     * (see {@link LikePattern}); {@code ILIKE} matches ignoring case and {@code REGEXP}/{@code RLIKE}
+     * patterns are used as regexes as they are.
+     *
+     * @param likeExpression the LIKE expression
+     * @param context        the translation context
+     * @return the updated MongoDB query document
+     * @throws QueryConversionException if an error occurs during expression parsing
+     */
+    private Object translateLike(LikeExpression likeExpression, TranslationContext context) throws QueryConversionException {
+        if (!(likeExpression.getLeftExpression() instanceof Column)
+                || !(likeExpression.getRightExpression() instanceof StringValue || likeExpression.getRightExpression() instanceof Column)
+        ) {
+            return translateOther(likeExpression, context);
         }
 
-        // 2. LIKE expressions
-        if (incomingExpression instanceof LikeExpression likeExpression
-                && likeExpression.getLeftExpression() instanceof Column
-                && (likeExpression.getRightExpression() instanceof StringValue || likeExpression.getRightExpression() instanceof Column)
-        ) {
+        String fieldName = ParsingUtils.extractStringValue(likeExpression.getLeftExpression());
+        LikePattern pattern = compileLikePattern(likeExpression);
+
+        Object condition;
+        if (pattern == null) {
+            condition = new Document("$regex", ParsingUtils.extractStringValue(likeExpression.getRightExpression()));
+        } else if (pattern.isExact() && !pattern.isCaseInsensitive()) {
+            condition = pattern.getLiteral();
+        } else {
+            condition = new Document("$regex", pattern.getRegex());
+            if (pattern.isCaseInsensitive()) {
+                ((Document) condition).append("$options", "i");
+            }
+        }
 
-            String fieldName = ParsingUtils.extractStringValue(likeExpression.getLeftExpression());
-            String rightValue = ParsingUtils.extractStringValue(likeExpression.getRightExpression());
-            String regexPattern = "^" + QueryUtils.convertLikeToRegex(rightValue) + "$";
+        if (likeExpression.isNot()) {
+            condition = condition instanceof Document regex
+                    ? new Document("$not", regex)
+                    : new Document("$ne", condition);
+        }
 
-            Document value = likeExpression.isNot()
-                    ? new Document(fieldName, new Document("$not", regexPattern))
-                    : new Document(fieldName, new Document("$regex", regexPattern));
+        context.query().put(fieldName, condition);
+        return context.query();
+    }
 
-            query.putAll(value);
-            return query;
+    /**
+     * Compiles the pattern of a LIKE expression, honouring its {@code ESCAPE} clause.
+     *
+     * @param likeExpression the LIKE expression
+     * @return the {@link LikePattern}, or {@code null} if the pattern is a regex ({@code REGEXP}, {@code RLIKE}).
+     * @throws QueryConversionException if the pattern cannot be read
+     */
+    private static LikePattern compileLikePattern(LikeExpression likeExpression) throws QueryConversionException {
+        LikeExpression.KeyWord keyWord = likeExpression.getLikeKeyWord();
+        if (keyWord == LikeExpression.KeyWord.REGEXP
+                || keyWord == LikeExpression.KeyWord.RLIKE
+                || keyWord == LikeExpression.KeyWord.REGEXP_LIKE) {
+            return null;
         }
 
-        // 3. IS NULL / IS NOT NULL
-        if (incomingExpression instanceof IsNullExpression isNullExpression) {
-            Expression leftExpression = isNullExpression.getLeftExpression();
-            boolean isNotNull = isNullExpression.isNot();
+        String escape = likeExpression.getEscape() instanceof StringValue escapeValue ? escapeValue.getValue() : null;
+        return LikePattern.compile(
+                NormalizationUtils.sanitizeString(ParsingUtils.extractStringValue(likeExpression.getRightExpression())),
+                escape != null && escape.length() == 1 ? escape.charAt(0) : null,
+                keyWord == LikeExpression.KeyWord.ILIKE
+        );
+    }
 
-            if (leftExpression instanceof Function) {
-                Document result = (Document) processFunctionExpressions(
-                        new Document(),
-                        leftExpression,
-                        defaultFieldType,
-                        fieldNameToFieldTypeMapping);
-                result.append("$exists", isNotNull);
-                query.putAll(result);
-            } else {
-                String fieldName = ParsingUtils.extractStringValue(leftExpression);
-                query.put(fieldName, new Document("$exists", isNotNull));
+    /**
+     * Checks whether the LIKE predicates of a filter can be answered from index ranges:
+     * each must match a column with a case-sensitive pattern that has a literal prefix, and must not be negated.
+     * Under a collation every LIKE is case-insensitive and is bounded if it is an exact value or a prefix,
+     * which {@link CollationRewriter} turns into an equality or a range.
+     *
+     * @param expression the filter, before the collation rewrite if {@code collation} is set.
+     * @param collation  whether the query runs with a case-insensitive collation.
+     * @return {@code null} if the filter has no LIKE predicate, otherwise whether all of them are index-bounded.
+     * @throws QueryConversionException if a pattern cannot be read
+     */
+    private static Boolean isLikeIndexBounded(Expression expression, boolean collation) throws QueryConversionException {
+        Boolean bounded = null;
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            switch (pending.pop()) {
+                case BinaryExpression logical when logical instanceof AndExpression || logical instanceof OrExpression -> {
+                    pending.push(logical.getRightExpression());
+                    pending.push(logical.getLeftExpression());
+                }
+                case ParenthesedExpressionList<?> list -> list.forEach(pending::push);
+                case NotExpression not -> pending.push(not.getExpression());
+                case LikeExpression like -> {
+                    LikePattern pattern = (collation || like.getLeftExpression() instanceof Column) && !like.isNot()
+                            ? compileLikePattern(like)
+                            : null;
+                    boolean likeBounded = pattern != null && (collation
+                            ? pattern.isExact() || pattern.getPrefix() != null && !pattern.getPrefix().isEmpty()
+                            : pattern.isIndexBounded());
+                    bounded = (bounded == null || bounded) && likeBounded;
+                }
+                default -> {
+                }
             }
-            return query;
         }
+        return bounded;
+    }
 
-        // 4. IN / NOT IN
-        if (incomingExpression instanceof InExpression inExpression) {
-            Expression leftExpression = inExpression.getLeftExpression();
+    /**
+     * Converts IS NULL / IS NOT NULL into {@code $exists}.
+     *
+     * @param isNullExpression the IS NULL expression
+     * @param context          the translation context
+     * @return the updated MongoDB query document
+     * @throws QueryConversionException if an error occurs during expression parsing
+     */
+    private Object translateIsNull(IsNullExpression isNullExpression, TranslationContext context) throws QueryConversionException {
+        Document query = context.query();
+        Expression leftExpression = isNullExpression.getLeftExpression();
+        boolean isNotNull = isNullExpression.isNot();
+
+        if (leftExpression instanceof Function) {
+            Document result = (Document) processFunctionExpressions(
+                    new Document(),
+                    leftExpression,
+                    defaultFieldType,
+                    fieldNameToFieldTypeMapping);
+            result.append("$exists", isNotNull);
+            query.putAll(result);
+        } else {
             String fieldName = ParsingUtils.extractStringValue(leftExpression);
+            query.put(fieldName, new Document("$exists", isNotNull));
+        }
+        return query;
+    }
+
+    /**
+     * Converts IN / NOT IN into {@code $in}/{@code $nin}, or into {@code $expr} for computed operands.
+     *
+     * @param inExpression the IN expression
+     * @param context      the translation context
+     * @return the updated MongoDB query document
+     * @throws QueryConversionException if an error occurs during expression parsing
+     */
+    private Object translateIn(InExpression inExpression, TranslationContext context) throws QueryConversionException {
+        Document query = context.query();
+        Expression leftExpression = inExpression.getLeftExpression();
 
-            ObjectOperator objectOperator = FunctionUtils.identifyObjectOperator(this, incomingExpression);
+        if (leftExpression instanceof Function function) {
+            ObjectOperator objectOperator = FunctionUtils.identifyObjectOperator(this, inExpression, function);
             if (objectOperator != null) {
                 query.put(objectOperator.getColumn(), objectOperator.toDocument());
                 return query;
             }
+        }
+
+        List<Object> objectList = convertInList(
+                (ExpressionList<?>) inExpression.getRightExpression(),
+                leftExpression
+        );
 
-            List<Object> objectList = ((ExpressionList<?>) inExpression.getRightExpression()).stream()
-                    .map(ex -> {
-                        try {
-                            return this.parseExpression(new Document(), ex, leftExpression);
-                        } catch (QueryConversionException e) {
-                            throw new RuntimeException(e);
-                        }
-                    })
-                    .toList();
+        if (classifyOperand(leftExpression) == OperandKind.FIELD) {
+            String operator = inExpression.isNot() ? "$nin" : "$in";
+            query.put(toFieldPath(leftExpression, null), new Document(operator, objectList));
+        } else {
+            Document document = new Document("$in", Arrays.asList(
+                    toExpressionOperand(leftExpression, null),
+                    objectList
+            ));
+            query.put("$expr", inExpression.isNot()
+                    ? new Document("$not", List.of(document))
+                    : document);
+        }
+        return query;
+    }
 
-            if (leftExpression instanceof Function) {
-                String operator = inExpression.isNot() ? "$fnin" : "$fin";
+    /**
+     * Converts a NOT that {@link NegationPushDown} could not turn into a positive operator.
+     *
+     * @param notExpression the NOT expression
+     * @param context       the translation context
+     * @return the MongoDB query document
+     * @throws QueryConversionException if an error occurs during expression parsing
+     */
+    private Object translateNot(NotExpression notExpression, TranslationContext context) throws QueryConversionException {
+        Document query = context.query();
+        Expression expression = notExpression.getExpression();
+
+        if (expression instanceof Column) {
+            return new Document(
+                    ParsingUtils.extractStringValue(expression),
+                    new Document("$ne", true)
+            );
+        }
 
-                Document value = new Document("function", parseExpression(new Document(), leftExpression, null));
-                value.append("list", objectList);
+        Document parsedDocument = (Document) parseExpression(new Document(), expression, context.otherSide());
+        if (parsedDocument.size() == 1) {
+            Map.Entry<String, Object> entry = parsedDocument.entrySet().iterator().next();
+            String key = entry.getKey();
 
-                query.put(operator, value);
-            } else {
-                String operator = inExpression.isNot() ? "$nin" : "$in";
-
-                if (requiresMultistepAggregation) {
-                    Document document = new Document();
-                    List<Object> list = Arrays.asList(
-                            ExpressionUtils.convertToNode(leftExpression, requiresMultistepAggregation),
-                            objectList
-                    );
-                    document.put(operator, list);
-                    query.put("$expr", document);
-                } else {
-                    Document document = new Document(operator, objectList);
-                    query.put(fieldName, document);
-                }
+            if (!key.startsWith("$") && entry.getValue() instanceof Document docValue) {
+                query.put(key, new Document("$not", docValue));
+                return query;
             }
-            return query;
         }
 
-        // 5. BETWEEN / NOT BETWEEN
-        if (incomingExpression instanceof Between betweenExpression) {
-            GreaterThanEquals start = new GreaterThanEquals();
-            start.setLeftExpression(betweenExpression.getLeftExpression());
-            start.setRightExpression(betweenExpression.getBetweenExpressionStart());
+        query.put("$nor", List.of(parsedDocument));
+        return query;
+    }
 
-            MinorThanEquals end = new MinorThanEquals();
-            end.setLeftExpression(betweenExpression.getLeftExpression());
-            end.setRightExpression(betweenExpression.getBetweenExpressionEnd());
+    /**
+     * Converts a function used as a condition or as an operand: a regex match, an ObjectId,
+     * or a function translated into its aggregation expression.
+     *
+     * @param function the function
+     * @param context  the translation context
+     * @return the MongoDB query document or aggregation expression
+     * @throws QueryConversionException if an error occurs during function processing
+     */
+    private Object translateFunction(Function function, TranslationContext context) throws QueryConversionException {
+        Document query = context.query();
 
-            Expression combined = new AndExpression(
-                    betweenExpression.isNot() ? new NotExpression(start) : start,
-                    betweenExpression.isNot() ? new NotExpression(end) : end
-            );
-            return parseExpression(query, combined, otherSide);
+        RegexOperator regexOperator = FunctionUtils.identifyRegexOperator(function);
+        if (regexOperator != null) {
+            return appendRegexOperator(query, regexOperator);
         }
 
-        // 6. AND / OR
-        if (incomingExpression instanceof AndExpression
-                || incomingExpression instanceof OrExpression
-        ) {
-            processLogicalOperators(incomingExpression, query);
-            return query;
+        ObjectOperator objectOperator = FunctionUtils.identifyObjectOperator(function);
+        if (objectOperator != null) {
+            return objectOperator.toDocument();
         }
 
-        // 7. NOT
-        if (incomingExpression instanceof NotExpression notExpression) {
-            Expression expression = notExpression.getExpression();
-
-            if (expression instanceof Column) {
-                return new Document(
-                        ParsingUtils.extractStringValue(expression),
-                        new Document("$ne", true)
-                );
-            }
-
-            if (expression instanceof ComparisonOperator) {
-                Document parsedDocument = (Document) parseExpression(new Document(), expression, otherSide);
-                if (!parsedDocument.isEmpty()) {
-                    Map.Entry<String, Object> entry = parsedDocument.entrySet().iterator().next();
-                    String key = entry.getKey();
-                    Object value = entry.getValue();
-
-                    if (value instanceof Document docValue) {
-                        return new Document(
-                                key,
-                                new Document("$not", docValue)
-                        );
-                    }
-                }
-            }
-
+        if (context.otherSide() == null) {
+            query.put("$expr", processFunctionExpressions(new Document(), function, defaultFieldType, fieldNameToFieldTypeMapping));
             return query;
         }
 
-        // 8. Functions
-        if (incomingExpression instanceof Function) {
-            RegexOperator regexOperator = FunctionUtils.identifyRegexOperator(incomingExpression);
-            ObjectOperator objectOperator = FunctionUtils.identifyObjectOperator(this, incomingExpression);
-
-            if (regexOperator != null) {
-                Document regexDocument = new Document("$regex", regexOperator.getRegex());
-                if (regexOperator.getOptions() != null) {
-                    regexDocument.append("$options", regexOperator.getOptions());
-                }
-                query.put(regexOperator.getColumn(), applyNotOperatorIfRequired(regexDocument, regexOperator));
-                return query;
-            }
-
-            if (objectOperator != null) {
-                return objectOperator.toDocument();
-            }
+        return processFunctionExpressions(query, function, defaultFieldType, fieldNameToFieldTypeMapping);
+    }
 
-            return processFunctionExpressions(query, incomingExpression, defaultFieldType, fieldNameToFieldTypeMapping);
+    /**
+     * Converts any other expression: a boolean column used as a condition, or an operand normalized
+     * for the other side of its comparison.
+     *
+     * @param expression the expression
+     * @param context    the translation context
+     * @return the MongoDB query document or normalized value
+     * @throws QueryConversionException if an error occurs during expression parsing
+     */
+    private Object translateOther(Expression expression, TranslationContext context) throws QueryConversionException {
+        // Comparison operators without a MongoDB counterpart produce no condition
+        if (expression instanceof ComparisonOperator) {
+            return context.query();
         }
 
-        if (otherSide == null) {
-            return new Document(ParsingUtils.extractStringValue(incomingExpression), true);
+        if (context.otherSide() == null) {
+            return new Document(ParsingUtils.extractStringValue(expression), true);
         }
 
-        // 10. otherwise... normalize as a regular expression
         return NormalizationUtils.normalizeExpression(
-                incomingExpression,
-                otherSide,
+                expression,
+                context.otherSide(),
                 defaultFieldType,
                 fieldNameToFieldTypeMapping,
                 aliasHolder,
@@ -325,8 +504,21 @@ public class WhereProcessor implements QueryProcessor {
         );
     }
 
+    private Document appendRegexOperator(Document query, RegexOperator regexOperator) {
+        Document regexDocument = new Document("$regex", regexOperator.getRegex());
+        if (regexOperator.getOptions() != null) {
+            regexDocument.append("$options", regexOperator.getOptions());
+        }
+        query.put(regexOperator.getColumn(), applyNotOperatorIfRequired(regexDocument, regexOperator));
+        return query;
+    }
+
     /**
      * Parses simple comparative operators into MongoDB query operators.
+     * <p>
+     * A comparison between a field and a constant is lowered to a query-language operator
+     * ({@code {field: {$gt: value}}}), which can use an index. Only comparisons between two fields,
+     * against pipeline variables or against computed values are kept inside {@code $expr}.
      *
      * @param query           the MongoDB query document to update
      * @param leftExpression  the left expression of the comparison
@@ -341,129 +533,200 @@ public class WhereProcessor implements QueryProcessor {
             String comparatorType
     ) throws QueryConversionException {
 
-        String operator = "$" + comparatorType;
-        Document doc;
-
-        boolean leftIsFunction = (leftExpression instanceof Function);
-        boolean rightIsFunction = (rightExpression instanceof Function);
-        boolean leftIsColumn = ValidationUtils.isColumnExpression(leftExpression);
-        boolean rightIsColumn = ValidationUtils.isColumnExpression(rightExpression);
+        OperandKind leftKind = classifyOperand(leftExpression);
+        OperandKind rightKind = classifyOperand(rightExpression);
 
-        // 1) On left is function, and on right is column/value
-        if (leftIsFunction) {
-            Object leftParsed = parseExpression(new Document(), leftExpression, rightExpression);
-            Object rightParsed = parseExpression(new Document(), rightExpression, leftExpression);
-
-            doc = new Document(operator, Arrays.asList(
-                    leftParsed,
-                    (rightIsColumn && !rightExpression.toString().startsWith("$") && !(leftParsed instanceof Document))
-                            ? "$" + rightParsed
-                            : rightParsed
-            ));
+        // 1) On left is field, and on right is constant
+        if (leftKind == OperandKind.FIELD && rightKind == OperandKind.CONSTANT) {
+            appendFieldComparison(query, leftExpression, rightExpression, comparatorType);
+            return;
+        }
 
-            if (requiresMultistepAggregation) {
-                query.put("$expr", doc);
-            } else {
-                query.putAll(doc);
-            }
+        // 2) On left is constant, and on right is field: flip the comparison
+        if (leftKind == OperandKind.CONSTANT && rightKind == OperandKind.FIELD) {
+            appendFieldComparison(query, rightExpression, leftExpression, flipComparator(comparatorType));
             return;
         }
 
-        // 2) Both are columns
-        if (leftIsColumn && rightIsColumn) {
-            if (requiresMultistepAggregation) {
-                String leftName = ((Column) leftExpression).getName(false);
-                String rightName = ((Column) rightExpression).getName(false);
+        // 3) otherwise... columns, variables or computed values on both sides
+        query.put("$expr", new Document(
+                "$" + comparatorType,
+                Arrays.asList(
+                        toExpressionOperand(leftExpression, rightExpression),
+                        toExpressionOperand(rightExpression, leftExpression)
+                )));
+    }
 
-                doc = new Document(
-                        operator,
-                        Arrays.asList(
-                                leftName.startsWith("$") ? leftName : "$" + leftName,
-                                rightName.startsWith("$") ? rightName : "$" + rightName
-                        ));
+    /**
+     * Appends a query-language comparison between a field and a constant.
+     *
+     * @param query           the MongoDB query document to update
+     * @param fieldExpression the field side of the comparison
+     * @param valueExpression the constant side of the comparison
+     * @param comparatorType  the type of comparison, seen from the field side
+     * @throws QueryConversionException if an error occurs during comparison parsing
+     */
+    private void appendFieldComparison(
+            Document query,
+            Expression fieldExpression,
+            Expression valueExpression,
+            String comparatorType
+    ) throws QueryConversionException {
 
-                query.put("$expr", doc);
-            } else {
+        String fieldName = toFieldPath(fieldExpression, valueExpression);
+        Object value = toExpressionOperand(valueExpression, fieldExpression);
 
-                query.put(
-                        parseExpression(new Document(), leftExpression, rightExpression).toString(),
-                        parseExpression(new Document(), rightExpression, leftExpression)
-                );
-            }
-            return;
+        if ("eq".equals(comparatorType)) {
+            query.put(fieldName, value);
+        } else {
+            query.append(fieldName, new Document("$" + comparatorType, value));
         }
+    }
 
-        // 3) On right is function
-        if (rightIsFunction) {
-            Object leftParsed = parseExpression(new Document(), leftExpression, rightExpression);
-            Object rightParsed = parseExpression(new Document(), rightExpression, leftExpression);
-
-            doc = new Document(
-                    operator,
-                    Arrays.asList(
-                            leftParsed,
-                            (leftIsColumn && !leftExpression.toString().startsWith("$") && !(rightParsed instanceof Document))
-                                    ? "$" + rightParsed
-                                    : rightParsed
-                    ));
+    /**
+     * Returns the comparator that keeps the comparison true when its operands are swapped.
+     *
+     * @param comparatorType the type of comparison
+     * @return the flipped type of comparison
+     */
+    private static String flipComparator(String comparatorType) {
+        return switch (comparatorType) {
+            case "gt"  -> "lt";
+            case "lt"  -> "gt";
+            case "gte" -> "lte";
+            case "lte" -> "gte";
+            default    -> comparatorType;
+        };
+    }
 
-            if (requiresMultistepAggregation) {
-                query.put("$expr", doc);
-            } else {
-                query.putAll(doc);
-            }
-            return;
+    /**
+     * Determines what a side of a comparison refers to.
+     *
+     * @param expression the side of the comparison
+     * @return the {@link OperandKind} of the expression
+     */
+    protected OperandKind classifyOperand(Expression expression) {
+        if (ValidationUtils.isLiteralExpression(expression)) {
+            return OperandKind.CONSTANT;
         }
 
-        // 4) On left is column, and on right usual value
-        if (leftIsColumn) {
-            String fieldName = parseExpression(new Document(), leftExpression, rightExpression).toString();
-            Object rightVal = parseExpression(new Document(), rightExpression, leftExpression);
+        return switch (expression) {
+            case Column column when column.getColumnName().startsWith("$$") -> OperandKind.VARIABLE;
+            case Column ignored -> OperandKind.FIELD;
+            case ParenthesedExpressionList<?> list when list.size() == 1 -> classifyOperand(list.getFirst());
+            default -> OperandKind.COMPUTED;
+        };
+    }
 
-            if ("$eq".equals(operator)) {
-                query.put(fieldName, rightVal);
-            } else {
-                query.append(fieldName, new Document(operator, rightVal));
-            }
-            return;
+    /**
+     * Resolves the field path of an operand classified as {@link OperandKind#FIELD}.
+     *
+     * @param expression the field operand
+     * @param otherSide  expression on the other side of the comparison
+     * @return the field path, without a leading "$"
+     * @throws QueryConversionException if an error occurs during expression parsing
+     */
+    protected String toFieldPath(Expression expression, Expression otherSide) throws QueryConversionException {
+        String path;
+        if (expression instanceof Column column) {
+            String fieldName = ParsingUtils.extractStringValue(column);
+            path = aliasHolder.containsAliasForFieldExp(fieldName)
+                    ? aliasHolder.getAliasFromFieldExp(fieldName)
+                    : fieldName;
+        } else if (expression instanceof Function) {
+            path = String.valueOf(processFunctionExpressions(new Document(), expression, defaultFieldType, fieldNameToFieldTypeMapping));
+        } else {
+            path = parseExpression(new Document(), expression, otherSide).toString();
         }
 
-        // 5) otherwise...
-        Object leftParse = parseExpression(new Document(), leftExpression, rightExpression);
+        return path.startsWith("$")
+                ? path.substring(1)
+                : path;
+    }
 
-        doc = new Document(
-                operator,
-                Arrays.asList(
-                        leftParse,
-                        ExpressionUtils.convertToNode(rightExpression, requiresMultistepAggregation)
-                ));
+    /**
+     * Converts an operand into its aggregation expression form: "$field" for fields,
+     * the normalized value for constants and an operator document for computed values.
+     *
+     * @param expression the operand
+     * @param otherSide  expression on the other side of the comparison, if applicable
+     * @return the aggregation expression of the operand
+     * @throws QueryConversionException if an error occurs during expression parsing
+     */
+    protected Object toExpressionOperand(Expression expression, Expression otherSide) throws QueryConversionException {
+        return switch (classifyOperand(expression)) {
+            case FIELD -> "$" + toFieldPath(expression, otherSide);
+            case VARIABLE -> ((Column) expression).getColumnName();
+            case CONSTANT -> NormalizationUtils.normalizeExpression(
+                    expression,
+                    otherSide,
+                    defaultFieldType,
+                    fieldNameToFieldTypeMapping,
+                    aliasHolder,
+                    null
+            );
+            case COMPUTED -> toComputedExpression(expression);
+        };
+    }
 
-        if (requiresMultistepAggregation) {
-            query.put("$expr", doc);
-        } else {
-            if ("eq".equals(comparatorType) && leftParse instanceof String) {
-                query.put(
-                        leftParse.toString(),
-                        parseExpression(
-                                new Document(),
-                                rightExpression,
-                                leftExpression
-                        ));
+    /**
+     * Converts a computed operand (function call, {@code EXTRACT}, {@code TRIM} or arithmetic) into an aggregation expression.
+     *
+     * @param expression the computed operand
+     * @return the aggregation expression
+     * @throws QueryConversionException if an error occurs during expression parsing
+     */
+    private Object toComputedExpression(Expression expression) throws QueryConversionException {
+        String arithmeticOperator = switch (expression) {
+            case Addition ignored       -> "$add";
+            case Subtraction ignored    -> "$subtract";
+            case Multiplication ignored -> "$multiply";
+            case Division ignored       -> "$divide";
+            case Modulo ignored         -> "$mod";
+            default -> null;
+        };
+
+        if (arithmeticOperator != null) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            return new Document(arithmeticOperator, Arrays.asList(
+                    toExpressionOperand(binary.getLeftExpression(), binary.getRightExpression()),
+                    toExpressionOperand(binary.getRightExpression(), binary.getLeftExpression())
+            ));
+        }
 
-            } else if (leftParse instanceof String) {
-                Document subDocument = new Document(
-                        operator,
-                        parseExpression(
-                                new Document(),
-                                rightExpression,
-                                leftExpression
-                        ));
+        if (expression instanceof ParenthesedExpressionList<?> list && list.size() == 1) {
+            return toExpressionOperand(list.getFirst(), null);
+        }
 
-                query.put(leftParse.toString(), subDocument);
-            } else {
-                query.putAll(doc);
-            }
+        if (expression instanceof Function) {
+            return processFunctionExpressions(new Document(), expression, defaultFieldType, fieldNameToFieldTypeMapping);
+        }
+
+        if (expression instanceof ExtractExpression extract) {
+            return options.getFunctionRegistry().translateExtract(
+                    extract.getName(),
+                    toExpressionOperand(extract.getExpression(), null));
+        }
+
+        if (expression instanceof TrimFunction trim && trim.getFromExpression() == null) {
+            String functionName = switch (trim.getTrimSpecification()) {
+                case LEADING -> "ltrim";
+                case TRAILING -> "rtrim";
+                case null, default -> "trim";
+            };
+            return options.getFunctionRegistry().translate(
+                    functionName,
+                    List.of(toExpressionOperand(trim.getExpression(), null)));
         }
+
+        return NormalizationUtils.normalizeExpression(
+                expression,
+                null,
+                defaultFieldType,
+                fieldNameToFieldTypeMapping,
+                aliasHolder,
+                null
+        );
     }
 
     private Object applyNotOperatorIfRequired(Document regexDocument, RegexOperator regexOperator) {
@@ -494,17 +757,24 @@ public class WhereProcessor implements QueryProcessor {
     ) throws QueryConversionException {
 
         if (object instanceof Function function) {
-            String mongoFunctionName = ParsingUtils.translateFunctionName(function.getName());
-            Object paramsResult = processFunctionExpressions(
-                    new Document(),
-                    function.getParameters(),
-                    defaultFieldType,
-                    fieldNameToFieldTypeMapping);
+            List<Object> arguments = new ArrayList<>();
+            if (function.getParameters() != null) {
+                for (Expression parameter : function.getParameters()) {
+                    arguments.add(processFunctionExpressions(
+                            new Document(),
+                            parameter,
+                            defaultFieldType,
+                            fieldNameToFieldTypeMapping
+                    ));
+                }
+            }
 
-            query.put("$" + mongoFunctionName, paramsResult);
-            return query.isEmpty()
-                    ? null
-                    : query;
+            Object translated = options.getFunctionRegistry().translate(function.getName(), arguments);
+            if (translated instanceof Document document) {
+                query.putAll(document);
+                return query;
+            }
+            return translated;
 
         } else if (object instanceof ExpressionList<?> expressionList) {
             List<Object> objectList = new ArrayList<>();
@@ -524,15 +794,7 @@ public class WhereProcessor implements QueryProcessor {
                     : objectList;
 
         } else if (object instanceof Expression expression) {
-
-            return NormalizationUtils.normalizeExpression(
-                    expression,
-                    null,
-                    defaultFieldType,
-                    fieldNameToFieldTypeMapping,
-                    new AliasHolder(),
-                    null
-            );
+            return toExpressionOperand(expression, null);
         }
 
         return query.isEmpty()
@@ -540,55 +802,397 @@ public class WhereProcessor implements QueryProcessor {
                 : query;
     }
 
+    /**
+     * Converts nested AND/OR operators into {@code $and}/{@code $or} arrays.
+     * <p>
+     * Chains of the same operator are flattened into a single n-ary array regardless of their shape
+     * ({@code a AND (b AND c)} gives one {@code $and} with three operands). The tree is walked with an
+     * explicit stack, so predicates with hundreds of thousands of operands neither exhaust the call stack
+     * nor take more than linear time.
+     *
+     * @param incomingExpression the AND/OR expression.
+     * @param query              the MongoDB query document to update.
+     * @throws QueryConversionException if an operand cannot be converted.
+     */
     private void processLogicalOperators(Expression incomingExpression, Document query) throws QueryConversionException {
-        String key = (incomingExpression instanceof AndExpression) ? "$and" : "$or";
+        Deque<Object> pending = new ArrayDeque<>();
+        Deque<Object> results = new ArrayDeque<>();
+        pending.push(incomingExpression);
 
-        BinaryExpression binary = (BinaryExpression) incomingExpression;
-        Expression left = binary.getLeftExpression();
-        Expression right = binary.getRightExpression();
+        while (!pending.isEmpty()) {
+            Object item = pending.pop();
 
-        List<Object> flattened = flattenAndOr(new ArrayList<>(), binary, left, right);
+            if (item instanceof LogicalGroup group) {
+                Object[] operands = new Object[group.size()];
+                for (int i = operands.length - 1; i >= 0; i--) {
+                    operands[i] = results.pop();
+                }
+                results.push(new Document(group.operator(), Arrays.asList(operands)));
+                continue;
+            }
 
-        if (!flattened.isEmpty()) {
-            Collections.reverse(flattened);
-            query.put(key, flattened);
-        } else {
-            query.put(
-                    key,
-                    Arrays.asList(
-                            parseExpression(new Document(), left, null),
-                            parseExpression(new Document(), right, null)
-                    ));
+            if (item instanceof ConvertedOperand converted) {
+                results.push(converted.value());
+                continue;
+            }
+
+            Expression expression = ExpressionUtils.unwrapParentheses((Expression) item);
+            if (expression instanceof AndExpression || expression instanceof OrExpression) {
+                List<Expression> operands = ExpressionUtils.flattenOperands(
+                        expression,
+                        expression instanceof AndExpression ? AndExpression.class : OrExpression.class
+                );
+
+                pending.push(new LogicalGroup(expression instanceof AndExpression ? "$and" : "$or", operands.size()));
+                if (isParallel(operands.size())) {
+                    pushConvertedLeaves(pending, operands);
+                } else {
+                    for (int i = operands.size() - 1; i >= 0; i--) {
+                        pending.push(operands.get(i));
+                    }
+                }
+            } else {
+                results.push(parseExpression(new Document(), expression, null));
+            }
         }
+
+        query.putAll((Document) results.pop());
     }
 
-    private List<Object> flattenAndOr(
-            List<Object> resultList,
-            Expression topExpression,
-            Expression leftExpression,
-            Expression rightExpression
-    ) throws QueryConversionException {
-        if (topExpression.getClass().isInstance(leftExpression)
-                && isLogicalExpression(leftExpression)
-                && !isLogicalExpression(rightExpression)
-        ) {
-            BinaryExpression leftBin = (BinaryExpression) leftExpression;
-            resultList.add(parseExpression(new Document(), rightExpression, null));
-            return flattenAndOr(resultList, topExpression, leftBin.getLeftExpression(), leftBin.getRightExpression());
+    /**
+     * Converts the leaf operands of a wide AND/OR in parallel and schedules them together with
+     * the nested AND/OR operands, which are still converted by the main loop.
+     *
+     * @param pending  the stack of pending items.
+     * @param operands the operands of the AND/OR.
+     * @throws QueryConversionException if an operand cannot be converted.
+     */
+    private void pushConvertedLeaves(Deque<Object> pending, List<Expression> operands) throws QueryConversionException {
+        List<Object> converted = ParallelUtils.convertAll(
+                operands,
+                options.getParallelThreshold(),
+                options.getParallelPool(),
+                operand -> isLogicalExpression(operand)
+                        ? null
+                        : parseExpression(new Document(), operand, null)
+        );
 
-        } else if (isLogicalExpression(topExpression)
-                && !isLogicalExpression(leftExpression)
-                && !isLogicalExpression(rightExpression)
-        ) {
-            resultList.add(parseExpression(new Document(), rightExpression, null));
-            resultList.add(parseExpression(new Document(), leftExpression, null));
-            return resultList;
+        for (int i = operands.size() - 1; i >= 0; i--) {
+            pending.push(isLogicalExpression(operands.get(i))
+                    ? operands.get(i)
+                    : new ConvertedOperand(converted.get(i)));
+        }
+    }
+
+    /**
+     * Converts the literals of an IN / NOT IN list, in parallel for large lists.
+     * Duplicate values are dropped and, if configured, the values are sorted.
+     *
+     * @param expressions    the list items.
+     * @param leftExpression the tested expression, used to normalise the literals for the field type.
+     * @return the converted values.
+     * @throws QueryConversionException if an item cannot be converted.
+     */
+    private List<Object> convertInList(List<? extends Expression> expressions, Expression leftExpression)
+            throws QueryConversionException {
+
+        List<Object> values = ParallelUtils.convertAll(
+                expressions,
+                options.getParallelThreshold(),
+                options.getParallelPool(),
+                expression -> parseExpression(new Document(), expression, leftExpression)
+        );
+
+        List<Object> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        if (options.isSortInLists()) {
+            QueryUtils.sortValues(distinct);
         }
+        return distinct;
+    }
 
-        return Collections.emptyList();
+    private boolean isParallel(int size) {
+        return options.getParallelThreshold() > 0 && size >= options.getParallelThreshold();
     }
 
-    private boolean isLogicalExpression(Expression expression) {
+    private static boolean isLogicalExpression(Expression expression) {
         return expression instanceof AndExpression || expression instanceof OrExpression;
     }
+
+    /**
+     * Single-dispatch translation of an expression node, see {@link #parseExpression}.
+     * <p>
+     * Nodes without a dedicated method are translated by {@link #translateOther}; the traversal hooks of
+     * {@link ExpressionVisitorAdapter} and the nodes it would otherwise descend into are overridden for that.
+     * The visitor is stateless, so a single instance is shared by parallel conversions.
+     */
+    private final class TranslationVisitor extends ExpressionVisitorAdapter<Object> {
+
+        @Override
+        public <S> Object visit(EqualsTo equalsTo, S context) {
+            return translate(() -> translateComparison(equalsTo, "eq", (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(NotEqualsTo notEqualsTo, S context) {
+            return translate(() -> translateComparison(notEqualsTo, "ne", (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(GreaterThan greaterThan, S context) {
+            return translate(() -> translateComparison(greaterThan, "gt", (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(MinorThan minorThan, S context) {
+            return translate(() -> translateComparison(minorThan, "lt", (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(GreaterThanEquals greaterThanEquals, S context) {
+            return translate(() -> translateComparison(greaterThanEquals, "gte", (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(MinorThanEquals minorThanEquals, S context) {
+            return translate(() -> translateComparison(minorThanEquals, "lte", (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(LikeExpression likeExpression, S context) {
+            return translate(() -> translateLike(likeExpression, (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(IsNullExpression isNullExpression, S context) {
+            return translate(() -> translateIsNull(isNullExpression, (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(InExpression inExpression, S context) {
+            return translate(() -> translateIn(inExpression, (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(Between between, S context) {
+            return NegationPushDown.apply(between).accept(this, context);
+        }
+
+        @Override
+        public <S> Object visit(AndExpression andExpression, S context) {
+            return translate(() -> {
+                processLogicalOperators(andExpression, ((TranslationContext) context).query());
+                return ((TranslationContext) context).query();
+            });
+        }
+
+        @Override
+        public <S> Object visit(OrExpression orExpression, S context) {
+            return translate(() -> {
+                processLogicalOperators(orExpression, ((TranslationContext) context).query());
+                return ((TranslationContext) context).query();
+            });
+        }
+
+        @Override
+        public <S> Object visit(NotExpression notExpression, S context) {
+            return translate(() -> translateNot(notExpression, (TranslationContext) context));
+        }
+
+        @Override
+        public <S> Object visit(Function function, S context) {
+            return translate(() -> translateFunction(function, (TranslationContext) context));
+        }
+
+        // ----=== Everything else ===----
+
+        @Override
+        protected <S> Object visitExpression(Expression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        protected <S> Object visitBinaryExpression(BinaryExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        protected <S> Object visitExpressions(Expression expression, S context, Collection<Expression> subExpressions) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(SignedExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(CastExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(CollateExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(ExtractExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(IntervalExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(TimezoneExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(JsonExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(RowGetExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(IsBooleanExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(ExistsExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(MemberOfExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(ParenthesedSelect expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(Select expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(TrimFunction expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(TranscodingFunction expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(LambdaExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(StructType expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(OracleNamedFunctionParameter expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(ConnectByRootOperator expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(ConnectByPriorOperator expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(HighExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(LowExpression expression, S context) {
+            return other(expression, context);
+        }
+
+        @Override
+        public <S> Object visit(Inverse expression, S context) {
+            return other(expression, context);
+        }
+
+        private <S> Object other(Expression expression, S context) {
+            return translate(() -> translateOther(expression, (TranslationContext) context));
+        }
+
+        private Object translate(Translation translation) {
+            try {
+                return translation.translate();
+            } catch (QueryConversionException e) {
+                throw new UncheckedConversionException(e);
+            }
+        }
+    }
+
+    /**
+     * Translation of a single node that may fail with a {@link QueryConversionException}.
+     */
+    @FunctionalInterface
+    private interface Translation {
+        Object translate() throws QueryConversionException;
+    }
+
+    /**
+     * Carries a {@link QueryConversionException} out of the {@link TranslationVisitor}.
+     */
+    private static final class UncheckedConversionException extends RuntimeException {
+        UncheckedConversionException(QueryConversionException cause) {
+            super(null, cause, false, false);
+        }
+
+        @Override
+        public synchronized QueryConversionException getCause() {
+            return (QueryConversionException) super.getCause();
+        }
+    }
+
+    /**
+     * The arguments of {@link #parseExpression} passed along the {@link TranslationVisitor}.
+     *
+     * @param query     the MongoDB query document to update.
+     * @param otherSide expression on the other side of the comparison, if applicable.
+     */
+    private record TranslationContext(Document query, Expression otherSide) {
+    }
+
+    /**
+     * An AND/OR node whose operands are being converted.
+     *
+     * @param operator the MongoDB operator ({@code $and} or {@code $or}).
+     * @param size     the number of operands.
+     */
+    private record LogicalGroup(String operator, int size) {
+    }
+
+    /**
+     * An operand that has already been converted.
+     *
+     * @param value the converted operand.
+     */
+    private record ConvertedOperand(Object value) {
+    }
 }
@@ -0,0 +1,82 @@
+package com.koroli.queryconverter.query;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Result of a query conversion: the formatted MongoDB query together with
+ * information collected about it during the conversion.
+ */
+@Value
+@Builder
+public class ConversionResult {
+
+    /**
+     * The formatted MongoDB query.
+     */
+    String query;
+
+    /**
+     * Index coverage of the query, or {@code null} if no index catalog is configured
+     * or the query is not a plain find.
+     */
+    IndexCoverage indexCoverage;
+
+    /**
+     * Whether the WHERE clause was detected to be unsatisfiable: the query returns no documents
+     * and the caller may skip sending it to the server.
+     */
+    boolean alwaysEmpty;
+
+    /**
+     * Whether every LIKE predicate of the WHERE clause can be answered from an index range:
+     * it compiles to an equality or to a case-sensitive regex anchored on a literal prefix, such as {@code ^abc}.
+     * {@code null} if the WHERE clause has no LIKE predicate.
+     */
+    Boolean likeIndexBounded;
+
+    /**
+     * Collation the query must run with, e.g. {@code { "locale": "en", "strength": 2 }} for case-insensitive
+     * predicates, or {@code null} if it runs with the default binary comparison.
+     * The collation is also part of {@link #getQuery()} and of the chunk queries.
+     */
+    Document collation;
+
+    /**
+     * Variables of the {@code let} option the literals of the aggregation {@code $match} were hoisted into,
+     * referenced as {@code $$p0}, {@code $$p1}, ... in the pipeline, or {@code null} if no literal was hoisted.
+     * The variables are also part of {@link #getQuery()}.
+     */
+    Document letVariables;
+
+    /**
+     * Queries of the chunks an oversized {@code $in} list was split into, empty if the query is not split.
+     * Each chunk selects a disjoint set of values, so the caller runs all of them and merges the results:
+     * concatenates found documents (re-applying sort and limit), sums counts, or unions distinct values.
+     * Aggregations get one pipeline per chunk; those that group or join are not split.
+     */
+    @Singular
+    List<String> chunkedQueries;
+
+    /**
+     * Checks if the query was split into chunks.
+     *
+     * @return {@code true} if {@link #getChunkedQueries()} holds the chunk queries, otherwise {@code false}.
+     */
+    public boolean isChunked() {
+        return !chunkedQueries.isEmpty();
+    }
+
+    /**
+     * Checks if the query can be answered from an index alone.
+     *
+     * @return {@code true} if the query is covered, otherwise {@code false}.
+     */
+    public boolean isCovered() {
+        return indexCoverage != null && indexCoverage.isCovered();
+    }
+}
@@ -0,0 +1,42 @@
+package com.koroli.queryconverter.query;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Result of checking whether a query can be answered from a single index alone.
+ * <p>
+ * Coverage is decided from the index catalog only. A multikey index never covers a query, but an index is known to be
+ * multikey only if the catalog snapshot marks it so; otherwise a query reported as covered may still fetch documents.
+ */
+@Value
+public class IndexCoverage {
+    boolean covered;
+    String indexName;
+    String uncoveredField;
+    List<String> fields;
+
+    /**
+     * Creates a coverage result for a query answered entirely by the given index.
+     *
+     * @param indexName the covering index.
+     * @param fields    the filtered, sorted and projected fields.
+     * @return the covered {@link IndexCoverage}.
+     */
+    public static IndexCoverage covered(String indexName, List<String> fields) {
+        return new IndexCoverage(true, indexName, null, List.copyOf(fields));
+    }
+
+    /**
+     * Creates a coverage result for a query that needs to fetch documents.
+     *
+     * @param indexName      the closest candidate index, or {@code null} if there is none.
+     * @param uncoveredField the first field that breaks coverage.
+     * @param fields         the filtered, sorted and projected fields.
+     * @return the uncovered {@link IndexCoverage}.
+     */
+    public static IndexCoverage uncovered(String indexName, String uncoveredField, List<String> fields) {
+        return new IndexCoverage(false, indexName, uncoveredField, List.copyOf(fields));
+    }
+}
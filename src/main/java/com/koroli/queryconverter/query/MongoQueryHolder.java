@@ -7,6 +7,7 @@ import com.koroli.queryconverter.query.components.MongoQueryProjection;
 import com.koroli.queryconverter.query.components.MongoQueryUpdate;
 import lombok.Getter;
 import lombok.Setter;
+import org.bson.Document;
 
 /**
  * Holds all query components for building a MongoDB query.
@@ -40,6 +41,31 @@ public class MongoQueryHolder {
     private boolean distinct = false;
     private boolean countAll = false;
 
+    /**
+     * Whether the WHERE clause can never be satisfied, so the query returns no documents
+     */
+    private boolean alwaysEmpty = false;
+
+    /**
+     * Whether the LIKE predicates of the WHERE clause can use index ranges, {@code null} if there are none
+     */
+    private Boolean likeIndexBounded;
+
+    /**
+     * Collation the query runs with, {@code null} for the default binary comparison
+     */
+    private Document collation;
+
+    /**
+     * Variables of the aggregation {@code let} option, {@code null} if no literal was hoisted
+     */
+    private Document letVariables;
+
+    /**
+     * Index coverage of the query, detected while formatting
+     */
+    private IndexCoverage indexCoverage;
+
     /**
      * Constructs a new MongoDBQueryHolder.
      *
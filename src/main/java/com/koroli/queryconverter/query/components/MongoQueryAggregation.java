@@ -19,4 +19,14 @@ public class MongoQueryAggregation {
     private List<Document> joinPipeline = new ArrayList<>();
     private List<Document> prevSteps = new ArrayList<>();
     private boolean requiresMultistepAggregation = false;
+
+    /**
+     * Whether the ORDER BY was applied to the base documents ahead of the joins, and is not repeated after them
+     */
+    private boolean sortAheadOfJoins = false;
+
+    /**
+     * Whether OFFSET and LIMIT were applied to the base documents ahead of the joins, and are not repeated after them
+     */
+    private boolean pageAheadOfJoins = false;
 }
@@ -4,6 +4,9 @@ import lombok.Getter;
 import lombok.Setter;
 import org.bson.Document;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Stores filter-related query components for MongoDB.
  * Includes query filters, sorting, limit, and offset.
@@ -15,4 +18,9 @@ public class MongoQueryFilters {
     private Document sort = new Document();
     private long limit = -1;
     private long offset = -1;
+
+    /**
+     * Filters of the chunks an oversized {@code $in} list was split into; empty if the filter is not split.
+     */
+    private List<Document> chunkFilters = new ArrayList<>();
 }
\ No newline at end of file
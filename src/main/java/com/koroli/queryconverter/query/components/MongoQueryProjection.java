@@ -4,6 +4,9 @@ import lombok.Getter;
 import lombok.Setter;
 import org.bson.Document;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Stores projection-related query components for MongoDB.
  * Includes fields to project and alias mappings.
@@ -13,4 +16,6 @@ import org.bson.Document;
 public class MongoQueryProjection {
     private Document projection = new Document();
     private Document aliasProjection = new Document();
+    private List<String> projectedFields = new ArrayList<>();
+    private List<String> computedFields = new ArrayList<>();
 }
@@ -0,0 +1,57 @@
+package com.koroli.queryconverter.utils;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache holding at most a fixed number of entries.
+ * <p>
+ * Used for values that are expensive to build from user-supplied strings, such as compiled regular
+ * expressions and date formatters. When the cache is full, an arbitrary entry is evicted, which keeps
+ * lookups lock-free and the memory bounded regardless of how many distinct keys are seen.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public final class BoundedCache<K, V> {
+
+    private final ConcurrentHashMap<K, V> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    /**
+     * Creates a cache holding at most {@code maxSize} entries.
+     *
+     * @param maxSize the maximum number of entries.
+     */
+    public BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached value for the key, building and caching it if absent.
+     * An exception thrown by the loader is propagated and nothing is cached.
+     *
+     * @param key    the key.
+     * @param loader builds the value from the key, must not return {@code null}.
+     * @return the cached value.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = entries.get(key);
+        if (value != null) {
+            return value;
+        }
+
+        value = loader.apply(key);
+        if (entries.size() >= maxSize) {
+            Iterator<K> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+
+        V previous = entries.putIfAbsent(key, value);
+        return previous != null ? previous : value;
+    }
+}
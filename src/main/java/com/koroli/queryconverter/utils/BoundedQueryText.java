@@ -0,0 +1,139 @@
+package com.koroli.queryconverter.utils;
+
+import com.koroli.queryconverter.exceptions.QueryBudgetExceededException;
+import com.koroli.queryconverter.model.BudgetLimit;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.BsonValueCodecProvider;
+import org.bson.codecs.CollectionCodecProvider;
+import org.bson.codecs.DocumentCodecProvider;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.IterableCodecProvider;
+import org.bson.codecs.MapCodecProvider;
+import org.bson.codecs.ValueCodecProvider;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.json.JsonWriter;
+import org.bson.json.JsonWriterSettings;
+
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Text of a formatted query that fails as soon as its UTF-8 size exceeds a limit, so an oversized query is rejected
+ * while it is written rather than after it has been formatted in full. Documents are streamed into the text with
+ * the same codecs as {@link Document#toJson(JsonWriterSettings)}.
+ */
+final class BoundedQueryText {
+
+    private static final Encoder<Document> DOCUMENT_ENCODER = CodecRegistries.withUuidRepresentation(
+            CodecRegistries.fromProviders(List.of(
+                    new ValueCodecProvider(),
+                    new CollectionCodecProvider(),
+                    new IterableCodecProvider(),
+                    new BsonValueCodecProvider(),
+                    new DocumentCodecProvider(),
+                    new MapCodecProvider()
+            )),
+            UuidRepresentation.STANDARD
+    ).get(Document.class);
+
+    private final StringBuilder text = new StringBuilder();
+    private final long maxBytes;
+    private long bytes;
+
+    /**
+     * @param maxBytes the maximum size of the text in bytes; {@code 0} or less means unlimited.
+     */
+    BoundedQueryText(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Appends the string representation of a value.
+     *
+     * @param value the value.
+     * @return this text.
+     * @throws QueryBudgetExceededException if the text exceeds the limit.
+     */
+    BoundedQueryText append(Object value) throws QueryBudgetExceededException {
+        String string = String.valueOf(value);
+        for (int i = 0; i < string.length(); i++) {
+            if (!write(string.charAt(i))) {
+                throw exceeded();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the JSON representation of a document.
+     *
+     * @param document the document.
+     * @param settings the JSON writer settings.
+     * @return this text.
+     * @throws QueryBudgetExceededException if the text exceeds the limit.
+     */
+    BoundedQueryText appendJson(Document document, JsonWriterSettings settings) throws QueryBudgetExceededException {
+        try {
+            DOCUMENT_ENCODER.encode(new JsonWriter(new LimitWriter(), settings), document, EncoderContext.builder().build());
+        } catch (LimitReached e) {
+            throw exceeded();
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    /**
+     * Appends a character and counts its UTF-8 size; a surrogate pair counts as two halves of 2 bytes each.
+     *
+     * @return {@code false} if the text exceeds the limit.
+     */
+    private boolean write(char c) {
+        text.append(c);
+        bytes += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+        return maxBytes <= 0 || bytes <= maxBytes;
+    }
+
+    private QueryBudgetExceededException exceeded() {
+        return new QueryBudgetExceededException(BudgetLimit.OUTPUT_BYTES, maxBytes, bytes);
+    }
+
+    /**
+     * Writer of the JSON encoder into the text.
+     */
+    private final class LimitWriter extends Writer {
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (!BoundedQueryText.this.write(buffer[i])) {
+                    throw new LimitReached();
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+            // written directly into the text
+        }
+
+        @Override
+        public void close() {
+            // written directly into the text
+        }
+    }
+
+    /**
+     * Stops the JSON encoder once the limit is exceeded.
+     */
+    private static final class LimitReached extends RuntimeException {
+        private LimitReached() {
+            super(null, null, false, false);
+        }
+    }
+}
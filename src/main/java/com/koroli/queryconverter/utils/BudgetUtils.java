@@ -0,0 +1,156 @@
+package com.koroli.queryconverter.utils;
+
+import com.koroli.queryconverter.exceptions.QueryBudgetExceededException;
+import com.koroli.queryconverter.holders.ConversionBudget;
+import com.koroli.queryconverter.model.BudgetLimit;
+import lombok.experimental.UtilityClass;
+import net.sf.jsqlparser.expression.CaseExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.WhenClause;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.update.Update;
+import net.sf.jsqlparser.statement.update.UpdateSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Utility class for enforcing a {@link ConversionBudget}.
+ * <p>
+ * {@link #checkStatement(Statement, ConversionBudget)} is a single pass over the parsed statement that runs
+ * before the statement is analysed and stops at the first exceeded limit, so an oversized query is rejected
+ * at a cost proportional to the budget rather than to the query. The size of the output is checked while
+ * the query text is written, see {@link MongoQueryFormatter}.
+ */
+@UtilityClass
+public class BudgetUtils {
+
+    /**
+     * Checks the number of joins, expression nodes, nesting depth and IN list lengths of the statement,
+     * including the expressions of sub-selects, CASE and CAST. Every join adds a {@code $lookup} and
+     * an {@code $unwind} stage, so the pipeline stage limit is also checked against that lower bound.
+     *
+     * @param statement the parsed statement.
+     * @param budget    the conversion budget.
+     * @throws QueryBudgetExceededException if a limit is exceeded.
+     */
+    public static void checkStatement(Statement statement, ConversionBudget budget)
+            throws QueryBudgetExceededException {
+
+        List<Join> joins = switch (statement) {
+            case PlainSelect plainSelect -> plainSelect.getJoins();
+            case Update update -> update.getJoins();
+            case Delete delete -> delete.getJoins();
+            default -> null;
+        };
+        if (joins != null) {
+            check(BudgetLimit.JOINS, budget.getMaxJoins(), joins.size());
+            check(BudgetLimit.PIPELINE_STAGES, budget.getMaxPipelineStages(), 2L * joins.size());
+        }
+
+        if (budget.getMaxAstNodes() <= 0
+                && budget.getMaxNestingDepth() <= 0
+                && budget.getMaxInListLength() <= 0
+        ) {
+            return;
+        }
+
+        Deque<Expression> pending = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        for (Expression root : collectRoots(statement)) {
+            pending.push(root);
+            depths.push(1);
+        }
+
+        long nodes = 0;
+        while (!pending.isEmpty()) {
+            Expression expression = pending.pop();
+            int depth = depths.pop();
+
+            check(BudgetLimit.AST_NODES, budget.getMaxAstNodes(), ++nodes);
+            check(BudgetLimit.NESTING_DEPTH, budget.getMaxNestingDepth(), depth);
+
+            if (expression instanceof InExpression inExpression
+                    && inExpression.getRightExpression() instanceof ExpressionList<?> list
+            ) {
+                check(BudgetLimit.IN_LIST_LENGTH, budget.getMaxInListLength(), list.size());
+            }
+
+            ExpressionUtils.forEachChild(expression, child -> {
+                pending.push(child);
+                depths.push(isSameLevel(expression, child) ? depth : depth + 1);
+            });
+        }
+    }
+
+    /**
+     * Checks the number of stages of the generated aggregation pipeline.
+     *
+     * @param stages the number of pipeline stages.
+     * @param budget the conversion budget.
+     * @throws QueryBudgetExceededException if the limit is exceeded.
+     */
+    public static void checkPipelineStages(int stages, ConversionBudget budget) throws QueryBudgetExceededException {
+        check(BudgetLimit.PIPELINE_STAGES, budget.getMaxPipelineStages(), stages);
+    }
+
+    private static void check(BudgetLimit limit, long maximum, long actual) throws QueryBudgetExceededException {
+        if (maximum > 0 && actual > maximum) {
+            throw new QueryBudgetExceededException(limit, maximum, actual);
+        }
+    }
+
+    /**
+     * Operands of a chain of the same AND/OR operator, items of lists (parentheses, function arguments)
+     * and the clauses of a CASE do not add a nesting level.
+     */
+    private static boolean isSameLevel(Expression parent, Expression child) {
+        return (parent instanceof AndExpression && child instanceof AndExpression)
+                || (parent instanceof OrExpression && child instanceof OrExpression)
+                || parent instanceof ExpressionList<?>
+                || (parent instanceof CaseExpression && child instanceof WhenClause);
+    }
+
+    private static List<Expression> collectRoots(Statement statement) {
+        List<Expression> roots = new ArrayList<>();
+
+        switch (statement) {
+            case Select select -> ExpressionUtils.forEachChild(select, roots::add);
+            case Update update -> {
+                roots.add(update.getWhere());
+                for (UpdateSet updateSet : update.getUpdateSets()) {
+                    roots.add(updateSet.getValues());
+                }
+                addJoinConditions(update.getJoins(), roots);
+            }
+            case Delete delete -> {
+                roots.add(delete.getWhere());
+                addJoinConditions(delete.getJoins(), roots);
+            }
+            default -> {
+                // no expressions to check
+            }
+        }
+        roots.removeIf(Objects::isNull);
+        return roots;
+    }
+
+    private static void addJoinConditions(List<Join> joins, List<Expression> roots) {
+        if (joins != null) {
+            for (Join join : joins) {
+                roots.addAll(join.getOnExpressions());
+            }
+        }
+    }
+}
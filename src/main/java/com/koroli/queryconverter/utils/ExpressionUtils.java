@@ -4,13 +4,23 @@ import com.koroli.queryconverter.exceptions.QueryConversionException;
 import com.koroli.queryconverter.holders.AliasHolder;
 import com.koroli.queryconverter.model.FieldType;
 import lombok.experimental.UtilityClass;
-import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.*;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.ParenthesedExpressionList;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.ParenthesedSelect;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
 import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.statement.select.SetOperationList;
 
-import java.util.Arrays;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Utility class for handling and manipulating SQL expressions.
@@ -20,6 +30,8 @@ public class ExpressionUtils {
 
     private static final Set<String> AGGREGATE_FUNCTIONS = Set.of("sum(", "avg(", "min(", "max(", "count(");
 
+    private static final Set<String> AGGREGATE_FUNCTION_NAMES = Set.of("sum", "avg", "min", "max", "count");
+
     /**
      * Converts a non-function expression to a node representation, prepending "$" if it is a column.
      *
@@ -55,6 +67,19 @@ public class ExpressionUtils {
         return AGGREGATE_FUNCTIONS.stream().anyMatch(fieldForAgg::startsWith);
     }
 
+    /**
+     * Checks if the given expression is a call of an aggregate function, such as MAX(), SUM(), etc.
+     * Unlike {@link #isAggregateExpression(String)}, the expression is not deparsed.
+     *
+     * @param expression the expression to check.
+     * @return {@code true} if the expression is an aggregate function call, otherwise {@code false}.
+     */
+    public static boolean isAggregateExpression(Expression expression) {
+        return expression instanceof Function function
+                && function.getName() != null
+                && AGGREGATE_FUNCTION_NAMES.contains(function.getName().toLowerCase());
+    }
+
     /**
      * Removes the table alias from a column name, leaving only the column name.
      *
@@ -122,4 +147,172 @@ public class ExpressionUtils {
             join.setInner(true);
         }
     }
+
+    /**
+     * Removes redundant parentheses around an expression, e.g. {@code ((a = 1))}.
+     *
+     * @param expression the expression to unwrap.
+     * @return the innermost expression.
+     */
+    public static Expression unwrapParentheses(Expression expression) {
+        Expression current = expression;
+        while (current instanceof ParenthesedExpressionList<?> list && list.size() == 1) {
+            current = list.getFirst();
+        }
+        return current;
+    }
+
+    /**
+     * Collects the operands of nested binary operators of the same kind in their original order,
+     * e.g. {@code a AND (b AND c) AND d} gives {@code [a, b, c, d]}. Uses an explicit stack,
+     * so arbitrarily long chains do not exhaust the call stack.
+     *
+     * @param expression the expression to flatten.
+     * @param type       the operator class to flatten (e.g. {@code AndExpression.class}).
+     * @return the operands; a single-element list if the expression is not of the given type.
+     */
+    public static List<Expression> flattenOperands(Expression expression, Class<? extends BinaryExpression> type) {
+        List<Expression> operands = new ArrayList<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Expression current = unwrapParentheses(pending.pop());
+            if (type.isInstance(current)) {
+                BinaryExpression binary = (BinaryExpression) current;
+                pending.push(binary.getRightExpression());
+                pending.push(binary.getLeftExpression());
+            } else {
+                operands.add(current);
+            }
+        }
+        return operands;
+    }
+
+    /**
+     * Removes the base table alias from every column of the expression ({@code t.a} becomes {@code a}).
+     * Columns qualified with another alias, e.g. of a joined table, are left unchanged.
+     *
+     * @param expression the expression to process.
+     * @param aliasBase  the alias of the base table.
+     */
+    public static void stripAliasFromExpression(Expression expression, String aliasBase) {
+        if (aliasBase == null) {
+            return;
+        }
+
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+
+        while (!pending.isEmpty()) {
+            Expression current = pending.pop();
+            if (current instanceof Column column
+                    && column.getTable() != null
+                    && aliasBase.equals(column.getTable().getFullyQualifiedName())
+            ) {
+                column.setTable(null);
+            }
+            forEachChild(current, pending::push);
+        }
+    }
+
+    /**
+     * Checks if the node is an operator or function whose sub-expressions are all passed by {@link #forEachChild}.
+     * Nodes for which this returns {@code false} are either leaves or nodes whose value is not determined by their
+     * sub-expressions alone: CASE, CAST and sub-selects pass their sub-expressions too, but are not traversable.
+     *
+     * @param expression the expression node.
+     * @return {@code true} if the node is fully traversed by {@link #forEachChild}, otherwise {@code false}.
+     */
+    public static boolean isTraversable(Expression expression) {
+        return expression instanceof BinaryExpression
+                || expression instanceof NotExpression
+                || expression instanceof SignedExpression
+                || expression instanceof IsNullExpression
+                || expression instanceof InExpression
+                || expression instanceof Between
+                || expression instanceof Function
+                || expression instanceof ExpressionList<?>;
+    }
+
+    /**
+     * Passes the direct sub-expressions of an expression node to the consumer.
+     *
+     * @param expression the expression node.
+     * @param consumer   the consumer of the sub-expressions.
+     */
+    public static void forEachChild(Expression expression, Consumer<Expression> consumer) {
+        switch (expression) {
+            case BinaryExpression binary -> {
+                consumer.accept(binary.getLeftExpression());
+                consumer.accept(binary.getRightExpression());
+            }
+            case NotExpression not -> consumer.accept(not.getExpression());
+            case SignedExpression signed -> consumer.accept(signed.getExpression());
+            case IsNullExpression isNull -> consumer.accept(isNull.getLeftExpression());
+            case InExpression in -> {
+                consumer.accept(in.getLeftExpression());
+                consumer.accept(in.getRightExpression());
+            }
+            case Between between -> {
+                consumer.accept(between.getLeftExpression());
+                consumer.accept(between.getBetweenExpressionStart());
+                consumer.accept(between.getBetweenExpressionEnd());
+            }
+            case Function function when function.getParameters() != null -> consumer.accept(function.getParameters());
+            case ExpressionList<?> list -> list.forEach(consumer::accept);
+            case CaseExpression caseExpression -> {
+                acceptIfPresent(caseExpression.getSwitchExpression(), consumer);
+                caseExpression.getWhenClauses().forEach(consumer::accept);
+                acceptIfPresent(caseExpression.getElseExpression(), consumer);
+            }
+            case WhenClause whenClause -> {
+                consumer.accept(whenClause.getWhenExpression());
+                consumer.accept(whenClause.getThenExpression());
+            }
+            case CastExpression cast -> consumer.accept(cast.getLeftExpression());
+            case ParenthesedSelect parenthesedSelect -> consumer.accept(parenthesedSelect.getSelect());
+            case SetOperationList setOperationList -> setOperationList.getSelects().forEach(consumer::accept);
+            case PlainSelect plainSelect -> forEachSelectChild(plainSelect, consumer);
+            case null, default -> {
+                // leaf node
+            }
+        }
+    }
+
+    /**
+     * Passes the expressions of the clauses of a SELECT, including the sub-selects it reads from.
+     */
+    private static void forEachSelectChild(PlainSelect plainSelect, Consumer<Expression> consumer) {
+        if (plainSelect.getFromItem() instanceof Select fromSelect) {
+            consumer.accept(fromSelect);
+        }
+        for (SelectItem<?> selectItem : plainSelect.getSelectItems()) {
+            acceptIfPresent(selectItem.getExpression(), consumer);
+        }
+        if (plainSelect.getJoins() != null) {
+            for (Join join : plainSelect.getJoins()) {
+                if (join.getRightItem() instanceof Select joinSelect) {
+                    consumer.accept(joinSelect);
+                }
+                join.getOnExpressions().forEach(consumer::accept);
+            }
+        }
+        acceptIfPresent(plainSelect.getWhere(), consumer);
+        if (plainSelect.getGroupBy() != null) {
+            acceptIfPresent(plainSelect.getGroupBy().getGroupByExpressionList(), consumer);
+        }
+        acceptIfPresent(plainSelect.getHaving(), consumer);
+        if (plainSelect.getOrderByElements() != null) {
+            for (OrderByElement orderByElement : plainSelect.getOrderByElements()) {
+                consumer.accept(orderByElement.getExpression());
+            }
+        }
+    }
+
+    private static void acceptIfPresent(Expression expression, Consumer<Expression> consumer) {
+        if (expression != null) {
+            consumer.accept(expression);
+        }
+    }
 }
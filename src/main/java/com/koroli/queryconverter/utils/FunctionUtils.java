@@ -17,6 +17,7 @@ import net.sf.jsqlparser.expression.operators.relational.InExpression;
 import org.bson.Document;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -32,94 +33,87 @@ public class FunctionUtils {
     private static final String NOT_REGEX_MATCH = "notRegexMatch";
 
     /**
-     * Identifies if the given expression is an {@link ObjectOperator}.
+     * Compiled user-supplied regular expressions, keyed by expression.
+     */
+    private static final BoundedCache<String, Pattern> REGEX_PATTERNS = new BoundedCache<>(256);
+
+    /**
+     * Identifies if a comparison with an ObjectId function on one side is an {@link ObjectOperator},
+     * e.g. {@code objectid('_id') = '...'} or {@code _id = toObjectId('...')}.
      *
-     * @param whereProcessor the {@link WhereProcessor}.
-     * @param expression     the expression to evaluate.
+     * @param comparisonOperator the comparison.
+     * @param function           the function side of the comparison.
      * @return the {@link ObjectOperator} or {@code null} if not applicable.
      */
     public static ObjectOperator identifyObjectOperator(
-            WhereProcessor whereProcessor,
-            Expression expression
+            ComparisonOperator comparisonOperator,
+            Function function
     ) {
-        return switch (expression) {
-            case ComparisonOperator comparisonOperator   -> handleComparisonOperator(comparisonOperator);
-            case InExpression inExpression               -> handleInExpression(whereProcessor, inExpression);
-            case Function function                       -> handleStandaloneFunction(function);
-            default -> null;
-        };
-    }
-
-    private static ObjectOperator handleComparisonOperator(ComparisonOperator comparisonOperator) {
-        String rightExpression = ParsingUtils.extractStringValue(comparisonOperator.getRightExpression());
-
-        if (comparisonOperator.getLeftExpression() instanceof Function function) {
+        if (function == comparisonOperator.getLeftExpression()) {
             String functionName = function.getName();
             if ("toobjectid".equalsIgnoreCase(functionName) || "objectid".equals(functionName)) {
                 String column = ParsingUtils.extractStringValue(function.getParameters().getExpressions().get(0));
                 return ObjectOperator.builder()
                         .column(column)
-                        .value(rightExpression)
-                        .comparisonExpression(comparisonOperator)
-                        .build();
-            }
-        } else if (comparisonOperator.getRightExpression() instanceof Function function) {
-            String functionName = ParsingUtils.translateFunctionName(function.getName());
-            if ("toobjectid".equalsIgnoreCase(functionName)) {
-                String column = ParsingUtils.extractStringValue(comparisonOperator.getLeftExpression());
-                String value = ParsingUtils.extractStringValue(function.getParameters().getExpressions().get(0));
-                return ObjectOperator.builder()
-                        .column(column)
-                        .value(value)
+                        .value(ParsingUtils.extractStringValue(comparisonOperator.getRightExpression()))
                         .comparisonExpression(comparisonOperator)
                         .build();
             }
+        } else if ("toobjectid".equalsIgnoreCase(ParsingUtils.translateFunctionName(function.getName()))) {
+            String column = ParsingUtils.extractStringValue(comparisonOperator.getLeftExpression());
+            String value = ParsingUtils.extractStringValue(function.getParameters().getExpressions().get(0));
+            return ObjectOperator.builder()
+                    .column(column)
+                    .value(value)
+                    .comparisonExpression(comparisonOperator)
+                    .build();
         }
         return null;
     }
 
-    private static ObjectOperator handleInExpression(
+    /**
+     * Identifies if an IN list tested against an ObjectId function is an {@link ObjectOperator},
+     * e.g. {@code objectid('_id') IN ('...', '...')}.
+     *
+     * @param whereProcessor the {@link WhereProcessor} converting the list items.
+     * @param inExpression   the IN expression.
+     * @param function       the left side of the IN expression.
+     * @return the {@link ObjectOperator} or {@code null} if not applicable.
+     * @throws QueryConversionException if a list item cannot be converted.
+     */
+    public static ObjectOperator identifyObjectOperator(
             WhereProcessor whereProcessor,
-            InExpression inExpression
-    ) {
-        Expression leftExpression = inExpression.getLeftExpression();
-
-        if (leftExpression instanceof Function function) {
-            if ("objectid".equalsIgnoreCase(function.getName())
-                    && function.getParameters() instanceof ExpressionList<?> expressionList
-                    && expressionList.getExpressions().size() == 1
-                    && expressionList.getExpressions().getFirst() instanceof StringValue stringValue) {
+            InExpression inExpression,
+            Function function
+    ) throws QueryConversionException {
 
-                String column = ParsingUtils.extractStringValue(stringValue);
-                if (inExpression.getRightExpression() instanceof ExpressionList<?> rightExpressions) {
-                    List<Object> parsedValues = rightExpressions.getExpressions().stream()
-                            .map(expression -> parseExpressionSafe(whereProcessor, expression, leftExpression))
-                            .toList();
+        if ("objectid".equalsIgnoreCase(function.getName())
+                && function.getParameters() instanceof ExpressionList<?> expressionList
+                && expressionList.getExpressions().size() == 1
+                && expressionList.getExpressions().getFirst() instanceof StringValue stringValue
+                && inExpression.getRightExpression() instanceof ExpressionList<?> rightExpressions) {
 
-                    return ObjectOperator.builder()
-                            .column(column)
-                            .value(parsedValues)
-                            .comparisonExpression(inExpression)
-                            .build();
-                }
+            List<Object> parsedValues = new ArrayList<>(rightExpressions.size());
+            for (Expression expression : rightExpressions.getExpressions()) {
+                parsedValues.add(whereProcessor.parseExpression(new Document(), expression, function));
             }
-        }
-        return null;
-    }
 
-    private static Object parseExpressionSafe(
-            WhereProcessor processor,
-            Expression expression,
-            Expression context
-    ) {
-        try {
-            return processor.parseExpression(new Document(), expression, context);
-        } catch (QueryConversionException e) {
-            throw new RuntimeException(e);
+            return ObjectOperator.builder()
+                    .column(ParsingUtils.extractStringValue(stringValue))
+                    .value(parsedValues)
+                    .comparisonExpression(inExpression)
+                    .build();
         }
+        return null;
     }
 
-    private static ObjectOperator handleStandaloneFunction(Function function) {
+    /**
+     * Identifies if a standalone function is an {@link ObjectOperator}, e.g. {@code toObjectId('...')}.
+     *
+     * @param function the function.
+     * @return the {@link ObjectOperator} or {@code null} if not applicable.
+     */
+    public static ObjectOperator identifyObjectOperator(Function function) {
         String functionName = ParsingUtils.translateFunctionName(function.getName());
         if ("toobjectid".equalsIgnoreCase(functionName)) {
             String value = ParsingUtils.extractStringValue(function.getParameters().getExpressions().getFirst());
@@ -133,70 +127,74 @@ public class FunctionUtils {
     }
 
     /**
-     * Determines if the given expression is a {@link DateOperator}.
+     * Determines if a comparison with a {@code date(column, format)} function on its left side is a {@link DateOperator}.
      *
-     * @param expression the expression to evaluate.
+     * @param comparisonOperator the comparison.
+     * @param function           the left side of the comparison.
      * @return the {@link DateOperator} or {@code null} if not applicable.
      * @throws QueryConversionException if the expression cannot be parsed.
      */
-    public static DateOperator identifyDateOperator(Expression expression) throws QueryConversionException {
-        if (expression instanceof ComparisonOperator comparisonOperator) {
-            String rightExpression = ParsingUtils.extractStringValue(comparisonOperator.getRightExpression());
+    public static DateOperator identifyDateOperator(
+            ComparisonOperator comparisonOperator,
+            Function function
+    ) throws QueryConversionException {
 
-            if (comparisonOperator.getLeftExpression() instanceof Function function
-                    && "date".equalsIgnoreCase(function.getName())
-                    && function.getParameters() instanceof ExpressionList<?> expressionList
-                    && expressionList.size() == 2
-                    && expressionList.get(1) instanceof StringValue stringValue
-            ) {
-                String column = ParsingUtils.extractStringValue(expressionList.getExpressions().getFirst());
-                return DateOperator.builder()
-                        .format(stringValue.getValue())
-                        .value(rightExpression)
-                        .column(column)
-                        .operator(comparisonOperator)
-                        .build();
-            }
+        if ("date".equalsIgnoreCase(function.getName())
+                && function.getParameters() instanceof ExpressionList<?> expressionList
+                && expressionList.size() == 2
+                && expressionList.get(1) instanceof StringValue stringValue
+        ) {
+            String column = ParsingUtils.extractStringValue(expressionList.getExpressions().getFirst());
+            return DateOperator.builder()
+                    .format(stringValue.getValue())
+                    .value(ParsingUtils.extractStringValue(comparisonOperator.getRightExpression()))
+                    .column(column)
+                    .operator(comparisonOperator)
+                    .build();
         }
         return null;
     }
 
     /**
-     * Checks if the expression is a regex operator and returns the corresponding {@link RegexOperator}.
+     * Checks if {@code function = true} is a regex match and returns the corresponding {@link RegexOperator}.
      *
-     * @param expression the expression to evaluate.
+     * @param equalsTo the comparison.
+     * @param function the left side of the comparison.
      * @return the {@link RegexOperator} or {@code null} if not applicable.
-     * @throws QueryConversionException if the regex is invalid.
+     * @throws QueryConversionException if the regex is invalid or compared with {@code false}.
      */
-    public static RegexOperator identifyRegexOperator(Expression expression) throws QueryConversionException {
-        if (expression instanceof EqualsTo equalsTo) {
-            String rightExpression = equalsTo.getRightExpression().toString();
+    public static RegexOperator identifyRegexOperator(EqualsTo equalsTo, Function function) throws QueryConversionException {
+        if (!isRegexFunction(function)) {
+            return null;
+        }
 
-            if (equalsTo.getLeftExpression() instanceof Function function) {
-                String functionName = function.getName();
+        boolean rightExpressionValue = Boolean.parseBoolean(equalsTo.getRightExpression().toString());
+        ValidationUtils.validateTrue(rightExpressionValue, "False is not allowed for regexMatch function");
+        return getRegexOperator(function, NOT_REGEX_MATCH.equalsIgnoreCase(function.getName()));
+    }
 
-                if ((REGEX_MATCH.equalsIgnoreCase(functionName)
-                        || NOT_REGEX_MATCH.equalsIgnoreCase(functionName))
-                        && (function.getParameters().getExpressions().size() == 2
-                        || function.getParameters().getExpressions().size() == 3)
-                        && function.getParameters().getExpressions().get(1) instanceof StringValue
-                ) {
-                    boolean rightExpressionValue = Boolean.parseBoolean(rightExpression);
-                    ValidationUtils.validateTrue(rightExpressionValue, "False is not allowed for regexMatch function");
-                    return getRegexOperator(function, NOT_REGEX_MATCH.equalsIgnoreCase(function.getName()));
-                }
-            }
-        } else if (expression instanceof Function function) {
-            if ((REGEX_MATCH.equalsIgnoreCase(function.getName())
-                    || NOT_REGEX_MATCH.equalsIgnoreCase(function.getName()))
-                    && (function.getParameters().getExpressions().size() == 2
-                    || function.getParameters().getExpressions().size() == 3)
-                    && function.getParameters().getExpressions().get(1) instanceof StringValue
-            ) {
-                return getRegexOperator(function, NOT_REGEX_MATCH.equalsIgnoreCase(function.getName()));
-            }
+    /**
+     * Checks if a standalone function is a regex match and returns the corresponding {@link RegexOperator}.
+     *
+     * @param function the function.
+     * @return the {@link RegexOperator} or {@code null} if not applicable.
+     * @throws QueryConversionException if the regex is invalid.
+     */
+    public static RegexOperator identifyRegexOperator(Function function) throws QueryConversionException {
+        return isRegexFunction(function)
+                ? getRegexOperator(function, NOT_REGEX_MATCH.equalsIgnoreCase(function.getName()))
+                : null;
+    }
+
+    private static boolean isRegexFunction(Function function) {
+        String functionName = function.getName();
+        if (!REGEX_MATCH.equalsIgnoreCase(functionName) && !NOT_REGEX_MATCH.equalsIgnoreCase(functionName)) {
+            return false;
         }
-        return null;
+
+        List<? extends Expression> parameters = function.getParameters().getExpressions();
+        return (parameters.size() == 2 || parameters.size() == 3)
+                && parameters.get(1) instanceof StringValue;
     }
 
     private static RegexOperator getRegexOperator(Function function, boolean isNot) throws QueryConversionException {
@@ -204,7 +202,7 @@ public class FunctionUtils {
         String regex = NormalizationUtils.sanitizeString(((StringValue) function.getParameters().getExpressions().get(1)).getValue());
 
         try {
-            Pattern.compile(regex);
+            REGEX_PATTERNS.get(regex, Pattern::compile);
         } catch (PatternSyntaxException e) {
             throw new QueryConversionException(e);
         }
@@ -265,7 +263,7 @@ public class FunctionUtils {
         }
 
         String generatedAlias = alias == null
-                ? functionName + "_" + field.replaceAll("\\.", "_")
+                ? functionName + "_" + field.replace('.', '_')
                 : alias;
 
         return new AbstractMap.SimpleEntry<>(field, generatedAlias);
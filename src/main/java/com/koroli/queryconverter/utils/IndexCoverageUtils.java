@@ -0,0 +1,121 @@
+package com.koroli.queryconverter.utils;
+
+import com.koroli.queryconverter.catalog.IndexCatalog;
+import com.koroli.queryconverter.catalog.IndexInfo;
+import com.koroli.queryconverter.query.IndexCoverage;
+import com.koroli.queryconverter.query.MongoQueryHolder;
+import lombok.experimental.UtilityClass;
+import org.bson.Document;
+
+import java.util.*;
+
+/**
+ * Utility class for detecting covered queries, i.e. queries that can be answered from a single index
+ * without fetching any document.
+ */
+@UtilityClass
+public class IndexCoverageUtils {
+
+    /**
+     * Logical operators whose operands are nested filter documents.
+     */
+    private static final Set<String> LOGICAL_OPERATORS = Set.of("$and", "$or", "$nor");
+
+    /**
+     * Checks whether every filtered, sorted and projected field of a find query is part of one index.
+     *
+     * @param queryHolder  the MongoDB query holder.
+     * @param indexCatalog the catalog of available indexes.
+     * @return the {@link IndexCoverage} of the query.
+     */
+    public static IndexCoverage analyze(MongoQueryHolder queryHolder, IndexCatalog indexCatalog) {
+        List<String> projectedFields = queryHolder.getProjectionWrapper().getProjectedFields();
+        List<String> computedFields = queryHolder.getProjectionWrapper().getComputedFields();
+
+        Set<String> fields = new LinkedHashSet<>();
+        String breakingOperator = collectFilterFields(queryHolder.getFilterWrapper().getQuery(), fields);
+        fields.addAll(queryHolder.getFilterWrapper().getSort().keySet());
+        fields.addAll(projectedFields);
+
+        List<String> fieldList = new ArrayList<>(fields);
+
+        if (breakingOperator != null) {
+            return IndexCoverage.uncovered(null, breakingOperator, fieldList);
+        }
+        if (projectedFields.isEmpty() && computedFields.isEmpty()) {
+            return IndexCoverage.uncovered(null, "*", fieldList);
+        }
+        if (!computedFields.isEmpty()) {
+            return IndexCoverage.uncovered(null, computedFields.getFirst(), fieldList);
+        }
+
+        IndexInfo bestIndex = null;
+        String bestMissingField = fieldList.isEmpty() ? null : fieldList.getFirst();
+        int bestMissingCount = Integer.MAX_VALUE;
+
+        for (IndexInfo index : indexCatalog.getIndexes(queryHolder.getCollection())) {
+            if (!index.isCoverable()) {
+                continue;
+            }
+
+            String firstMissing = null;
+            int missingCount = 0;
+            for (String field : fieldList) {
+                if (!index.containsField(field)) {
+                    missingCount++;
+                    if (firstMissing == null) {
+                        firstMissing = field;
+                    }
+                }
+            }
+
+            if (missingCount == 0) {
+                return IndexCoverage.covered(index.getName(), fieldList);
+            }
+            if (missingCount < bestMissingCount) {
+                bestIndex = index;
+                bestMissingField = firstMissing;
+                bestMissingCount = missingCount;
+            }
+        }
+
+        return IndexCoverage.uncovered(
+                bestIndex != null ? bestIndex.getName() : null,
+                bestMissingField,
+                fieldList
+        );
+    }
+
+    /**
+     * Collects the field paths referenced by a filter document.
+     *
+     * @param filter the filter document.
+     * @param fields the set to collect field paths into.
+     * @return the first operator that prevents coverage (e.g. {@code $expr}), or {@code null}.
+     */
+    private static String collectFilterFields(Document filter, Set<String> fields) {
+        Deque<Document> pending = new ArrayDeque<>();
+        pending.push(filter);
+
+        while (!pending.isEmpty()) {
+            for (Map.Entry<String, Object> entry : pending.pop().entrySet()) {
+                String key = entry.getKey();
+
+                if (LOGICAL_OPERATORS.contains(key) && entry.getValue() instanceof List<?> operands) {
+                    for (Object operand : operands) {
+                        if (operand instanceof Document document) {
+                            pending.push(document);
+                        }
+                    }
+                } else if (key.startsWith("$")) {
+                    return key;
+                } else if (entry.getValue() instanceof Document condition && condition.containsKey("$elemMatch")) {
+                    return key;
+                } else {
+                    fields.add(key);
+                }
+            }
+        }
+        return null;
+    }
+}
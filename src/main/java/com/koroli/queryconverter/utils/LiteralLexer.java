@@ -0,0 +1,294 @@
+package com.koroli.queryconverter.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Single-pass lexer for numeric and date literals.
+ * <p>
+ * Recognises the common literal shapes by scanning characters, without the exceptions that
+ * {@link Long#parseLong(String)}, {@link Double#parseDouble(String)} or
+ * {@link java.time.format.DateTimeFormatter} use to report a mismatch.
+ * Methods return {@code null} for input they do not recognise, so the caller can decide whether
+ * to reject it or try a slower, more permissive parser.
+ */
+@UtilityClass
+public class LiteralLexer {
+
+    /**
+     * Largest integer mantissa that a double represents exactly (2^53).
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Powers of ten that a double represents exactly.
+     */
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Parses a decimal number literal: {@code Long} for integers that fit, {@code Double} otherwise.
+     * Accepts the same decimal syntax as {@link Double#parseDouble(String)}: surrounding whitespace,
+     * sign, fraction, exponent, {@code d}/{@code f} suffix, {@code NaN} and {@code Infinity}.
+     *
+     * @param value the literal.
+     * @return the number, or {@code null} if the literal is not a decimal number (e.g. a hexadecimal float).
+     */
+    public static Number parseNumber(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        boolean trimmed = start > 0 || end < value.length();
+        boolean negative = false;
+        char first = value.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+
+        if (value.startsWith("NaN", start) && start + 3 == end) {
+            return Double.NaN;
+        }
+        if (value.startsWith("Infinity", start) && start + 8 == end) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+
+        // like Long.parseLong, surrounding whitespace makes the literal a double
+        boolean integer = !trimmed;
+        boolean overflow = false;
+        long mantissa = 0;
+        int fractionDigits = 0;
+        int digits = 0;
+        int index = start;
+
+        for (; index < end && isDigit(value.charAt(index)); index++, digits++) {
+            int digit = value.charAt(index) - '0';
+            if (!overflow && mantissa <= (Long.MAX_VALUE - digit) / 10) {
+                mantissa = mantissa * 10 + digit;
+            } else {
+                overflow = true;
+            }
+        }
+
+        if (index < end && value.charAt(index) == '.') {
+            integer = false;
+            for (index++; index < end && isDigit(value.charAt(index)); index++, digits++) {
+                int digit = value.charAt(index) - '0';
+                if (!overflow && mantissa <= (Long.MAX_VALUE - digit) / 10) {
+                    mantissa = mantissa * 10 + digit;
+                    fractionDigits++;
+                } else {
+                    overflow = true;
+                }
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+
+        int exponent = 0;
+        if (index < end && (value.charAt(index) == 'e' || value.charAt(index) == 'E')) {
+            integer = false;
+            index++;
+            boolean negativeExponent = false;
+            if (index < end && (value.charAt(index) == '-' || value.charAt(index) == '+')) {
+                negativeExponent = value.charAt(index) == '-';
+                index++;
+            }
+            int exponentStart = index;
+            for (; index < end && isDigit(value.charAt(index)); index++) {
+                exponent = Math.min(exponent * 10 + (value.charAt(index) - '0'), 100_000);
+            }
+            if (index == exponentStart) {
+                return null;
+            }
+            exponent = negativeExponent ? -exponent : exponent;
+        }
+
+        if (index < end && "dDfF".indexOf(value.charAt(index)) >= 0) {
+            integer = false;
+            index++;
+        }
+        if (index != end) {
+            return null;
+        }
+
+        if (integer && !overflow) {
+            return negative ? -mantissa : mantissa;
+        }
+        if (integer && negative && isLongMinValue(value, start, end)) {
+            return Long.MIN_VALUE;
+        }
+
+        int scale = exponent - fractionDigits;
+        if (!overflow && mantissa < MAX_EXACT_MANTISSA && Math.abs(scale) < EXACT_POWERS_OF_TEN.length) {
+            double result = scale >= 0
+                    ? mantissa * EXACT_POWERS_OF_TEN[scale]
+                    : mantissa / EXACT_POWERS_OF_TEN[-scale];
+            return negative ? -result : result;
+        }
+
+        // the syntax is valid, so this cannot throw
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * Parses a date literal in one of the forms {@code yyyyMMdd}, {@code yyyy-MM-dd} or
+     * {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]} with an optional offset ({@code Z}, {@code +HH:MM})
+     * and region id ({@code [Europe/Paris]}), which are ignored. The local date-time is interpreted
+     * in the given zone.
+     *
+     * @param value the literal.
+     * @param zone  the zone of the local date-time.
+     * @return the date, or {@code null} if the literal is not one of the supported forms or is out of range.
+     */
+    public static Date parseDate(String value, ZoneId zone) {
+        int length = value.length();
+
+        if (length == 8 && allDigits(value, 0, 8)) {
+            return toDate(number(value, 0, 4), number(value, 4, 2), number(value, 6, 2), 0, 0, 0, 0, zone);
+        }
+
+        if (length < 10
+                || !allDigits(value, 0, 4) || value.charAt(4) != '-'
+                || !allDigits(value, 5, 2) || value.charAt(7) != '-'
+                || !allDigits(value, 8, 2)
+        ) {
+            return null;
+        }
+
+        int year = number(value, 0, 4);
+        int month = number(value, 5, 2);
+        int day = number(value, 8, 2);
+
+        if (length == 10) {
+            return toDate(year, month, day, 0, 0, 0, 0, zone);
+        }
+
+        if (length < 16
+                || value.charAt(10) != 'T'
+                || !allDigits(value, 11, 2) || value.charAt(13) != ':'
+                || !allDigits(value, 14, 2)
+        ) {
+            return null;
+        }
+
+        int hour = number(value, 11, 2);
+        int minute = number(value, 14, 2);
+        int second = 0;
+        int nanos = 0;
+        int index = 16;
+
+        if (index < length && value.charAt(index) == ':') {
+            if (index + 3 > length || !allDigits(value, index + 1, 2)) {
+                return null;
+            }
+            second = number(value, index + 1, 2);
+            index += 3;
+
+            if (index < length && value.charAt(index) == '.') {
+                int fractionStart = ++index;
+                while (index < length && isDigit(value.charAt(index)) && index - fractionStart < 9) {
+                    nanos = nanos * 10 + (value.charAt(index++) - '0');
+                }
+                if (index == fractionStart) {
+                    return null;
+                }
+                for (int i = index - fractionStart; i < 9; i++) {
+                    nanos *= 10;
+                }
+            }
+        }
+
+        return isZoneSuffix(value, index)
+                ? toDate(year, month, day, hour, minute, second, nanos, zone)
+                : null;
+    }
+
+    /**
+     * Checks that the rest of the literal is empty or an ISO offset, optionally followed by a region id.
+     */
+    private static boolean isZoneSuffix(String value, int index) {
+        int length = value.length();
+
+        if (index < length && value.charAt(index) == 'Z') {
+            index++;
+        } else if (index < length && (value.charAt(index) == '+' || value.charAt(index) == '-')) {
+            int offsetStart = index + 1;
+            if (offsetStart + 2 > length || !allDigits(value, offsetStart, 2)) {
+                return false;
+            }
+            index = offsetStart + 2;
+            for (int part = 0; part < 2 && index < length && value.charAt(index) == ':'; part++) {
+                if (index + 3 > length || !allDigits(value, index + 1, 2)) {
+                    return false;
+                }
+                index += 3;
+            }
+        }
+
+        if (index < length && value.charAt(index) == '[') {
+            return value.charAt(length - 1) == ']' && length - index > 2;
+        }
+        return index == length;
+    }
+
+    private static Date toDate(int year, int month, int day, int hour, int minute, int second, int nanos, ZoneId zone) {
+        if (month < 1 || month > 12
+                || day < 1 || day > Year.of(year).atMonth(month).lengthOfMonth()
+                || hour > 23 || minute > 59 || second > 59
+        ) {
+            return null;
+        }
+
+        LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+        return Date.from(dateTime.atZone(zone).toInstant());
+    }
+
+    private static boolean isLongMinValue(String value, int start, int end) {
+        int index = start;
+        while (index < end - 1 && value.charAt(index) == '0') {
+            index++;
+        }
+        return value.regionMatches(index, "9223372036854775808", 0, end - index) && end - index == 19;
+    }
+
+    private static boolean allDigits(String value, int start, int count) {
+        if (start + count > value.length()) {
+            return false;
+        }
+        for (int i = start; i < start + count; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int number(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -1,11 +1,15 @@
 package com.koroli.queryconverter.utils;
 
+import com.koroli.queryconverter.catalog.IndexCatalog;
+import com.koroli.queryconverter.exceptions.QueryBudgetExceededException;
 import com.koroli.queryconverter.holders.SQLCommandInfo;
 import com.koroli.queryconverter.query.MongoQueryHolder;
+import com.koroli.queryconverter.query.components.MongoQueryAggregation;
 import lombok.experimental.UtilityClass;
 import org.bson.Document;
 import org.bson.json.JsonWriterSettings;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -23,39 +27,107 @@ public class MongoQueryFormatter {
      * @param sqlCommandInfo          The SQL command information.
      * @param aggregationAllowDiskUse Whether disk usage is allowed for aggregation.
      * @param aggregationBatchSize    The batch size for aggregation.
+     * @param indexCatalog            The catalog used to detect covered queries, may be {@code null}.
+     * @param maxOutputBytes          The maximum size of the query text in bytes, {@code 0} for unlimited.
      * @return A formatted MongoDB query string.
+     * @throws QueryBudgetExceededException if the query text exceeds the maximum size.
      */
     public static String formatQuery(
             MongoQueryHolder queryHolder,
             SQLCommandInfo sqlCommandInfo,
             Boolean aggregationAllowDiskUse,
-            Integer aggregationBatchSize
-    ) {
-        StringBuilder formattedQuery = new StringBuilder();
+            Integer aggregationBatchSize,
+            IndexCatalog indexCatalog,
+            long maxOutputBytes
+    ) throws QueryBudgetExceededException {
+        return formatQuery(
+                queryHolder,
+                sqlCommandInfo,
+                aggregationAllowDiskUse,
+                aggregationBatchSize,
+                indexCatalog,
+                queryHolder.getFilterWrapper().getQuery(),
+                maxOutputBytes
+        );
+    }
+
+    /**
+     * Formats one query per chunk of an oversized {@code $in} list: a find, count or distinct per chunk,
+     * or a whole pipeline per chunk for aggregations, so that every chunk travels in its own command.
+     *
+     * @param queryHolder             The MongoDB query holder containing query details.
+     * @param sqlCommandInfo          The SQL command information.
+     * @param aggregationAllowDiskUse Whether disk usage is allowed for aggregation.
+     * @param aggregationBatchSize    The batch size for aggregation.
+     * @param maxOutputBytes          The maximum size of each query text in bytes, {@code 0} for unlimited.
+     * @return The formatted chunk queries, or an empty list if the query is not split.
+     * @throws QueryBudgetExceededException if a query text exceeds the maximum size.
+     */
+    public static List<String> formatChunkedQueries(
+            MongoQueryHolder queryHolder,
+            SQLCommandInfo sqlCommandInfo,
+            Boolean aggregationAllowDiskUse,
+            Integer aggregationBatchSize,
+            long maxOutputBytes
+    ) throws QueryBudgetExceededException {
+        List<Document> chunkFilters = queryHolder.getFilterWrapper().getChunkFilters();
+        if (chunkFilters.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> queries = new ArrayList<>(chunkFilters.size());
+        for (Document chunkFilter : chunkFilters) {
+            queries.add(formatQuery(
+                    queryHolder,
+                    sqlCommandInfo,
+                    aggregationAllowDiskUse,
+                    aggregationBatchSize,
+                    null,
+                    chunkFilter,
+                    maxOutputBytes
+            ));
+        }
+        return queries;
+    }
+
+    private static String formatQuery(
+            MongoQueryHolder queryHolder,
+            SQLCommandInfo sqlCommandInfo,
+            Boolean aggregationAllowDiskUse,
+            Integer aggregationBatchSize,
+            IndexCatalog indexCatalog,
+            Document query,
+            long maxOutputBytes
+    ) throws QueryBudgetExceededException {
+        BoundedQueryText formattedQuery = new BoundedQueryText(maxOutputBytes);
         JsonWriterSettings settings = JsonWriterSettings.builder()
                 .indent(true)
                 .build();
 
         String collection = queryHolder.getCollection();
-        Document query = queryHolder.getFilterWrapper().getQuery();
         Document projection = queryHolder.getProjectionWrapper().getProjection();
         Document sort = queryHolder.getFilterWrapper().getSort();
         Document updateSet = queryHolder.getUpdateWrapper().getUpdateSet();
         List<String> updateUnSet = queryHolder.getUpdateWrapper().getFieldsToUnset();
+        Document collation = queryHolder.getCollation();
 
         // 1. distinct query
         if (queryHolder.isDistinct()) {
             formattedQuery
                     .append("db.").append(collection).append(".distinct(")
                     .append("\"").append(getDistinctFieldName(queryHolder)).append("\", ")
-                    .append(query.toJson(settings)).append(")");
+                    .appendJson(query, settings).append(")");
         }
 
         // 2. count query
         else if (queryHolder.isCountAll() && !isAggregate(queryHolder, sqlCommandInfo)) {
             formattedQuery
                     .append("db.").append(collection).append(".count(")
-                    .append(query.toJson(settings)).append(")");
+                    .appendJson(query, settings);
+            if (collation != null) {
+                formattedQuery.append(", ").appendJson(new Document("collation", collation), settings);
+            }
+            formattedQuery.append(")");
         }
 
         // 3. aggregate query
@@ -64,9 +136,9 @@ public class MongoQueryFormatter {
                     .append("db.").append(collection).append(".aggregate(")
                     .append("[");
 
-            List<Document> pipeline = getAggregationPipeline(queryHolder, sqlCommandInfo);
+            List<Document> pipeline = getAggregationPipeline(queryHolder, sqlCommandInfo, query);
             for (int i = 0; i < pipeline.size(); i++) {
-                formattedQuery.append(pipeline.get(i).toJson(settings));
+                formattedQuery.appendJson(pipeline.get(i), settings);
                 if (i < pipeline.size() - 1) {
                     formattedQuery.append(", ");
                 }
@@ -74,9 +146,15 @@ public class MongoQueryFormatter {
             formattedQuery.append("]");
 
             Document options = getAggregationOptions(aggregationAllowDiskUse, aggregationBatchSize);
+            if (collation != null) {
+                options.put("collation", collation);
+            }
+            if (queryHolder.getLetVariables() != null) {
+                options.put("let", queryHolder.getLetVariables());
+            }
 
             if (!options.isEmpty()) {
-                formattedQuery.append(new Document("options", options).toJson(settings));
+                formattedQuery.appendJson(new Document("options", options), settings);
             }
 
             formattedQuery.append(")");
@@ -93,16 +171,24 @@ public class MongoQueryFormatter {
                 };
             }
 
+            if ("find".equals(command) && indexCatalog != null && !indexCatalog.isEmpty()) {
+                queryHolder.setIndexCoverage(IndexCoverageUtils.analyze(queryHolder, indexCatalog));
+            }
+
             formattedQuery.append("db.").append(collection).append(".").append(command).append("(")
-                    .append(query.toJson(settings));
+                    .appendJson(query, settings);
 
             if (projection != null && !projection.isEmpty() && "find".equals(command)) {
-                formattedQuery.append(", ").append(projection.toJson(settings));
+                formattedQuery.append(", ").appendJson(projection, settings);
             }
             formattedQuery.append(")");
 
+            if (collation != null && "find".equals(command)) {
+                formattedQuery.append(".collation(").appendJson(collation, settings).append(")");
+            }
+
             if (sort != null && !sort.isEmpty() && "find".equals(command)) {
-                formattedQuery.append(".sort(").append(sort.toJson(settings)).append(")");
+                formattedQuery.append(".sort(").appendJson(sort, settings).append(")");
             }
 
             if (queryHolder.getFilterWrapper().getOffset() > 0 && "find".equals(command)) {
@@ -121,13 +207,26 @@ public class MongoQueryFormatter {
                 if (updateUnSet != null && !updateUnSet.isEmpty()) {
                     updateDocument.put("$unset", updateUnSet);
                 }
-                formattedQuery.append(", ").append(updateDocument.toJson(settings)).append(")");
+                formattedQuery.append(", ").appendJson(updateDocument, settings).append(")");
             }
         }
 
         return formattedQuery.toString();
     }
 
+    /**
+     * Counts the stages of the aggregation pipeline that will be generated for the query.
+     *
+     * @param queryHolder    The MongoDB query holder.
+     * @param sqlCommandInfo The SQL command information.
+     * @return The number of pipeline stages, or {@code 0} if the query is not an aggregation.
+     */
+    public static int countPipelineStages(MongoQueryHolder queryHolder, SQLCommandInfo sqlCommandInfo) {
+        return isAggregate(queryHolder, sqlCommandInfo)
+                ? getAggregationPipeline(queryHolder, sqlCommandInfo, queryHolder.getFilterWrapper().getQuery()).size()
+                : 0;
+    }
+
     /**
      * Constructs aggregation options for MongoDB queries.
      *
@@ -154,7 +253,7 @@ public class MongoQueryFormatter {
      * @param sqlCommandInfo The SQL command information.
      * @return True if the query is an aggregate query, false otherwise.
      */
-    private boolean isAggregate(MongoQueryHolder queryHolder, SQLCommandInfo sqlCommandInfo) {
+    public static boolean isAggregate(MongoQueryHolder queryHolder, SQLCommandInfo sqlCommandInfo) {
         return sqlCommandInfo.getAliasHolder() != null
                 && !sqlCommandInfo.getAliasHolder().isEmpty()
                 || !sqlCommandInfo.getGroupByFields().isEmpty()
@@ -163,7 +262,7 @@ public class MongoQueryFormatter {
                 || queryHolder.getAggregationWrapper().getPrevSteps() != null
                 && !queryHolder.getAggregationWrapper().getPrevSteps().isEmpty()
                 || sqlCommandInfo.isTotalGroup()
-                && !ValidationUtils.isCountAllQuery(sqlCommandInfo.getSelectItems());
+                && !sqlCommandInfo.getSelectList().isCountAll();
     }
 
     /**
@@ -171,17 +270,18 @@ public class MongoQueryFormatter {
      *
      * @param queryHolder The MongoDB query holder.
      * @param sqlCommandInfo     The SQL command information.
+     * @param query       The filter of the initial {@code $match}.
      * @return A list of Documents representing the aggregation pipeline.
      */
-    private List<Document> getAggregationPipeline(MongoQueryHolder queryHolder, SQLCommandInfo sqlCommandInfo) {
+    private List<Document> getAggregationPipeline(MongoQueryHolder queryHolder, SQLCommandInfo sqlCommandInfo, Document query) {
         List<Document> pipeline = new LinkedList<>();
 
         if (queryHolder.getAggregationWrapper().getPrevSteps() != null) {
             pipeline.addAll(queryHolder.getAggregationWrapper().getPrevSteps());
         }
 
-        if (queryHolder.getFilterWrapper().getQuery() != null && !queryHolder.getFilterWrapper().getQuery().isEmpty()) {
-            pipeline.add(new Document("$match", queryHolder.getFilterWrapper().getQuery()));
+        if (query != null && !query.isEmpty()) {
+            pipeline.add(new Document("$match", query));
         }
 
         if (sqlCommandInfo.getJoins() != null && !sqlCommandInfo.getJoins().isEmpty()) {
@@ -210,15 +310,19 @@ public class MongoQueryFormatter {
             pipeline.add(new Document("$match", queryHolder.getAggregationWrapper().getHaving()));
         }
 
-        if (queryHolder.getFilterWrapper().getSort() != null && !queryHolder.getFilterWrapper().getSort().isEmpty()) {
+        MongoQueryAggregation aggregation = queryHolder.getAggregationWrapper();
+        if (queryHolder.getFilterWrapper().getSort() != null
+                && !queryHolder.getFilterWrapper().getSort().isEmpty()
+                && !aggregation.isSortAheadOfJoins()
+        ) {
             pipeline.add(new Document("$sort", queryHolder.getFilterWrapper().getSort()));
         }
 
-        if (queryHolder.getFilterWrapper().getOffset() > 0) {
+        if (queryHolder.getFilterWrapper().getOffset() > 0 && !aggregation.isPageAheadOfJoins()) {
             pipeline.add(new Document("$skip", queryHolder.getFilterWrapper().getOffset()));
         }
 
-        if (queryHolder.getFilterWrapper().getLimit() > 0) {
+        if (queryHolder.getFilterWrapper().getLimit() > 0 && !aggregation.isPageAheadOfJoins()) {
             pipeline.add(new Document("$limit", queryHolder.getFilterWrapper().getLimit()));
         }
 
@@ -10,8 +10,8 @@ import net.sf.jsqlparser.schema.Column;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -26,15 +26,6 @@ public class NormalizationUtils {
      */
     private static final Character NEGATIVE_SIGN = '-';
 
-    /**
-     * List of date-time formatters for parsing date strings.
-     */
-    private static final List<DateTimeFormatter> DATE_FORMATTERS = List.of(
-            DateTimeFormatter.ISO_DATE_TIME,
-            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-            DateTimeFormatter.ofPattern("yyyyMMdd")
-    );
-
     /**
      * Normalizes an {@link Expression} into a specific data type or value.
      *
@@ -127,7 +118,7 @@ public class NormalizationUtils {
             return Optional.ofNullable(convertToBoolean(value)).orElse(value);
         }
         return switch (fieldType) {
-            case STRING  -> sanitizeString(value);
+            case STRING, CASE_INSENSITIVE_STRING -> sanitizeString(value);
             case NUMBER  -> convertToNumber(value);
             case DATE    -> convertToDate(value);
             case BOOLEAN -> Boolean.valueOf(value.toString());
@@ -194,8 +185,13 @@ public class NormalizationUtils {
      * @return the boolean representation, or {@code null} if not convertible.
      */
     private static Object convertToBoolean(Object value) {
-        String stringValue = value.toString();
-        if ("true".equalsIgnoreCase(stringValue) || "false".equalsIgnoreCase(stringValue)) {
+        if (value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof String stringValue
+                && (stringValue.length() == 4 || stringValue.length() == 5)
+                && ("true".equalsIgnoreCase(stringValue) || "false".equalsIgnoreCase(stringValue))
+        ) {
             return Boolean.valueOf(stringValue);
         }
         return null;
@@ -203,18 +199,28 @@ public class NormalizationUtils {
 
     /**
      * Converts an object to a date if possible.
+     * <p>
+     * The common forms are recognised by {@link LiteralLexer}; only other ISO date-time forms
+     * (e.g. extended years) fall back to {@link DateTimeFormatter#ISO_DATE_TIME}.
      *
      * @param value the value to convert.
      * @return the date representation.
      * @throws QueryConversionException if conversion fails.
      */
     private static Object convertToDate(Object value) throws QueryConversionException {
+        if (value instanceof Date date) {
+            return date;
+        }
         if (value instanceof String stringValue) {
-            for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+            Date date = LiteralLexer.parseDate(stringValue, ZoneId.systemDefault());
+            if (date != null) {
+                return date;
+            }
+            if (stringValue.indexOf('T') > 0) {
                 try {
-                    LocalDateTime dateTime = LocalDateTime.parse(stringValue, formatter);
+                    LocalDateTime dateTime = LocalDateTime.parse(stringValue, DateTimeFormatter.ISO_DATE_TIME);
                     return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
-                } catch (Exception ignored) {
+                } catch (DateTimeParseException ignored) {
                     // noop
                 }
             }
@@ -223,14 +229,11 @@ public class NormalizationUtils {
         throw new QueryConversionException("Cannot convert value to date: " + value);
     }
 
-    List<java.util.function.Function<String, ?>> parsers = List.of(
-            Long::parseLong,
-            Double::parseDouble,
-            Float::parseFloat
-    );
-
     /**
      * Converts an object to a number if possible.
+     * <p>
+     * Integers that fit are converted to {@link Long}, other decimal literals to {@link Double}.
+     * Only hexadecimal floating-point literals fall back to {@link Double#parseDouble(String)}.
      *
      * @param value the value to convert.
      * @return the numeric representation.
@@ -238,9 +241,13 @@ public class NormalizationUtils {
      */
     private static Object convertToNumber(Object value) throws QueryConversionException {
         if (value instanceof String stringValue) {
-            for (var parser : parsers) {
+            Number number = LiteralLexer.parseNumber(stringValue);
+            if (number != null) {
+                return number;
+            }
+            if (stringValue.indexOf('x') >= 0 || stringValue.indexOf('X') >= 0) {
                 try {
-                    return parser.apply(stringValue);
+                    return Double.parseDouble(stringValue);
                 } catch (NumberFormatException ignored) {
                     // noop
                 }
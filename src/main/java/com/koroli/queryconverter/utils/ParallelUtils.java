@@ -0,0 +1,143 @@
+package com.koroli.queryconverter.utils;
+
+import com.koroli.queryconverter.exceptions.QueryConversionException;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Utility class for converting large lists of independent expressions on a fork-join pool.
+ * <p>
+ * Unless the caller supplies its own pool, conversions run on a pool dedicated to the converter,
+ * so they do not compete with other work on {@link ForkJoinPool#commonPool()}.
+ */
+@UtilityClass
+public class ParallelUtils {
+
+    /**
+     * Number of items converted sequentially by a single fork-join task.
+     */
+    private static final int SEQUENTIAL_CHUNK_SIZE = 2048;
+
+    /**
+     * Returns the fork-join pool dedicated to conversions, created on first use with one worker per processor.
+     *
+     * @return the shared conversion {@link ForkJoinPool}.
+     */
+    public static ForkJoinPool conversionPool() {
+        return ConversionPoolHolder.POOL;
+    }
+
+    /**
+     * Conversion of a single item that may fail with a {@link QueryConversionException}.
+     *
+     * @param <T> the item type.
+     * @param <R> the result type.
+     */
+    @FunctionalInterface
+    public interface Converter<T, R> {
+        R convert(T item) throws QueryConversionException;
+    }
+
+    /**
+     * Converts every item of the list, in parallel if the list has at least {@code threshold} items.
+     * The order of the results matches the order of the items.
+     *
+     * @param items     the items to convert.
+     * @param threshold minimum list size for parallel conversion; {@code 0} or less disables it.
+     * @param pool      the fork-join pool parallel conversions run on.
+     * @param converter the conversion of a single item, must be thread-safe.
+     * @param <T>       the item type.
+     * @param <R>       the result type.
+     * @return the converted items.
+     * @throws QueryConversionException the first conversion error encountered.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> List<R> convertAll(
+            List<? extends T> items,
+            int threshold,
+            ForkJoinPool pool,
+            Converter<T, R> converter
+    ) throws QueryConversionException {
+
+        Object[] results = new Object[items.size()];
+
+        if (threshold <= 0 || items.size() < threshold) {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = converter.convert(items.get(i));
+            }
+            return (List<R>) Arrays.asList(results);
+        }
+
+        try {
+            pool.invoke(new ConvertTask<>(items, results, converter, 0, results.length));
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof QueryConversionException conversionException) {
+                    throw conversionException;
+                }
+            }
+            throw e;
+        }
+        return (List<R>) Arrays.asList(results);
+    }
+
+    /**
+     * Lazily creates the dedicated pool; its daemon workers never keep the JVM alive.
+     */
+    private static final class ConversionPoolHolder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(
+                Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("query-converter-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null,
+                false
+        );
+    }
+
+    /**
+     * Converts the items of the range {@code [from, to)} into the shared result array.
+     */
+    private static final class ConvertTask<T, R> extends RecursiveAction {
+        private final transient List<? extends T> items;
+        private final transient Object[] results;
+        private final transient Converter<T, R> converter;
+        private final int from;
+        private final int to;
+
+        private ConvertTask(List<? extends T> items, Object[] results, Converter<T, R> converter, int from, int to) {
+            this.items = items;
+            this.results = results;
+            this.converter = converter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_CHUNK_SIZE) {
+                try {
+                    for (int i = from; i < to; i++) {
+                        results[i] = converter.convert(items.get(i));
+                    }
+                } catch (QueryConversionException e) {
+                    throw new IllegalStateException(e);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new ConvertTask<>(items, results, converter, from, middle),
+                    new ConvertTask<>(items, results, converter, middle, to)
+            );
+        }
+    }
+}
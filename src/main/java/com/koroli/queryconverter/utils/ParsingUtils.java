@@ -11,8 +11,6 @@ import net.sf.jsqlparser.statement.select.AllColumns;
 
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility class for parsing SQL expressions and handling related operations
@@ -20,11 +18,6 @@ import java.util.regex.Pattern;
 @UtilityClass
 public class ParsingUtils {
 
-    /**
-     * Pattern to identify strings surrounded by double quotes
-     */
-    private static final Pattern QUOTED_STRING_PATTERN = Pattern.compile("^\"(.+)*\"$");
-
     /**
      * Mapping of function names to their translated equivalents
      */
@@ -43,14 +36,26 @@ public class ParsingUtils {
         if (expression instanceof StringValue stringValue) {
             return stringValue.getValue();
         } else if (expression instanceof Column column) {
-            Matcher matcher = QUOTED_STRING_PATTERN.matcher(column.toString());
-            return matcher.matches()
-                    ? matcher.group(1)
-                    : column.toString();
+            String name = column.toString();
+            return isDoubleQuoted(name) && name.length() > 2
+                    ? name.substring(1, name.length() - 1)
+                    : name;
         }
         return expression.toString();
     }
 
+    /**
+     * Checks whether a string is surrounded by double quotes.
+     *
+     * @param value the string to check.
+     * @return {@code true} if the string starts and ends with a double quote, otherwise {@code false}.
+     */
+    public static boolean isDoubleQuoted(String value) {
+        return value.length() >= 2
+                && value.charAt(0) == '"'
+                && value.charAt(value.length() - 1) == '"';
+    }
+
     /**
      * Translates a function name to its equivalent custom name if available.
      *
@@ -1,16 +1,18 @@
 package com.koroli.queryconverter.utils;
 
 import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.holders.SelectListInfo;
+import com.koroli.queryconverter.model.SelectItemKind;
 import lombok.experimental.UtilityClass;
 import net.sf.jsqlparser.expression.Alias;
-import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.Function;
-import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.statement.select.SelectItem;
 import org.bson.Document;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @UtilityClass
 public class ProcessorUtils {
@@ -66,54 +68,38 @@ public class ProcessorUtils {
     /**
      * Creates MongoDB projections based on select items and group by fields.
      *
-     * @param selectItems   the list of select items.
+     * @param selectList    the SELECT list.
      * @param groupByFields the list of group by fields.
      * @return a MongoDB Document representing projections.
      * @throws QueryConversionException if an error occurs during processing.
      */
-    public Document createProjectionsFromSelectItems(List<SelectItem<?>> selectItems, List<String> groupByFields) throws QueryConversionException {
-        /*Document projections = new Document();
-
-        for (SelectItem<?> selectItem : selectItems) {
-            Expression expression = selectItem.getExpression();
-            String alias = selectItem.getAlias() != null
-                    ? selectItem.getAlias().getName()
-                    : ParsingUtils.extractStringValue(expression);
-
-            if (expression instanceof Function function) {
-                ProcessorUtils.processAggregationFunction(function, projections, selectItem.getAlias());
-            } else {
-                projections.put(alias, "$" + alias);
-            }
-        }
-
-        return projections;*/
-
+    public Document createProjectionsFromSelectItems(SelectListInfo selectList, List<String> groupByFields) throws QueryConversionException {
         Document projections = new Document();
-
-        List<SelectItem<?>> functionItems = selectItems.stream()
-                .filter(selectItem -> selectItem.getExpression() instanceof Function)
-                .toList();
-
-        List<SelectItem<?>> nonFunctionItems = selectItems.stream()
-                .filter(selectItem -> !functionItems.contains(selectItem))
-                .toList();
-
         Document idDocument = new Document();
 
-        for (SelectItem<?> selectItem : nonFunctionItems) {
-            Column column = (Column) selectItem.getExpression();
-            String columnName = ParsingUtils.extractStringValue(column);
-            idDocument.put(columnName.replaceAll("\\.", "_"), "$" + columnName);
+        for (int i = 0; i < selectList.size(); i++) {
+            switch (selectList.getKind(i)) {
+                case COLUMN -> {
+                    String columnName = selectList.getName(i);
+                    idDocument.put(columnName.replace('.', '_'), "$" + columnName);
+                }
+                case AGGREGATE, FUNCTION -> {
+                    // functions are appended after the _id
+                }
+                default -> throw new QueryConversionException(
+                        "Unsupported project expression: " + selectList.getItem(i).getExpression());
+            }
         }
 
         if (!idDocument.isEmpty()) {
             projections.append("_id", idDocument.size() == 1 ? idDocument.values().iterator().next() : idDocument);
         }
 
-        for (SelectItem<?> selectItem : functionItems) {
-            Function function = (Function) selectItem.getExpression();
-            ProcessorUtils.processAggregationFunction(function, projections, selectItem.getAlias());
+        for (int i = 0; i < selectList.size(); i++) {
+            if (selectList.getKind(i) == SelectItemKind.AGGREGATE || selectList.getKind(i) == SelectItemKind.FUNCTION) {
+                SelectItem<?> selectItem = selectList.getItem(i);
+                ProcessorUtils.processAggregationFunction((Function) selectItem.getExpression(), projections, selectItem.getAlias());
+            }
         }
 
         return projections;
@@ -122,41 +108,41 @@ public class ProcessorUtils {
     /**
      * Creates alias projections for the provided select items and group by fields.
      *
-     * @param selectItems   the list of select items.
+     * @param selectList    the SELECT list.
      * @param groupByFields the list of group by fields.
      * @return a MongoDB Document representing alias projections.
      * @throws QueryConversionException if an error occurs during processing.
      */
-    public Document createAliasProjection(List<SelectItem<?>> selectItems, List<String> groupByFields) throws QueryConversionException {
+    public Document createAliasProjection(SelectListInfo selectList, List<String> groupByFields) throws QueryConversionException {
         Document aliasProjection = new Document();
-
-        List<SelectItem<?>> functionItems = selectItems.stream()
-                .filter(selectItem -> selectItem.getExpression() instanceof Function)
-                .toList();
-
-        List<SelectItem<?>> nonFunctionItems = selectItems.stream()
-                .filter(selectItem -> !(selectItem.getExpression() instanceof Function))
-                .toList();
-
-        for (SelectItem<?> selectItem : nonFunctionItems) {
-            Column column = (Column) selectItem.getExpression();
-            String columnName = ParsingUtils.extractStringValue(column);
-            Alias alias = selectItem.getAlias();
-            String nameOrAlias = alias != null ? alias.getName() : columnName;
-
-            aliasProjection.put(
-                    nameOrAlias,
-                    groupByFields.contains(columnName)
-                            ? "$_id." + columnName.replaceAll("\\.", "_")
-                            : "$" + columnName);
+        Set<String> groupByFieldSet = new HashSet<>(groupByFields);
+
+        for (int i = 0; i < selectList.size(); i++) {
+            switch (selectList.getKind(i)) {
+                case COLUMN -> {
+                    String columnName = selectList.getName(i);
+                    aliasProjection.put(
+                            selectList.getAliasOrName(i),
+                            groupByFieldSet.contains(columnName)
+                                    ? "$_id." + columnName.replace('.', '_')
+                                    : "$" + columnName);
+                }
+                case AGGREGATE, FUNCTION -> {
+                    // functions are appended after the columns
+                }
+                default -> throw new QueryConversionException(
+                        "Unsupported project expression: " + selectList.getItem(i).getExpression());
+            }
         }
 
-        for (SelectItem<?> selectItem : functionItems) {
-            Function function = (Function) selectItem.getExpression();
-            Alias alias = selectItem.getAlias();
-            Map.Entry<String, String> fieldToAliasMapping = FunctionUtils.generateAggregationField(function, alias);
+        for (int i = 0; i < selectList.size(); i++) {
+            if (selectList.getKind(i) == SelectItemKind.AGGREGATE || selectList.getKind(i) == SelectItemKind.FUNCTION) {
+                Function function = (Function) selectList.getItem(i).getExpression();
+                Map.Entry<String, String> fieldToAliasMapping =
+                        FunctionUtils.generateAggregationField(function, selectList.getAlias(i));
 
-            aliasProjection.put(fieldToAliasMapping.getValue(), 1);
+                aliasProjection.put(fieldToAliasMapping.getValue(), 1);
+            }
         }
 
         aliasProjection.put("_id", 0);
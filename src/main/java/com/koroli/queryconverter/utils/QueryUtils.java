@@ -1,6 +1,7 @@
 package com.koroli.queryconverter.utils;
 
 import com.koroli.queryconverter.exceptions.QueryConversionException;
+import com.koroli.queryconverter.model.LikePattern;
 import lombok.experimental.UtilityClass;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.LongValue;
@@ -8,11 +9,12 @@ import net.sf.jsqlparser.statement.select.Limit;
 import net.sf.jsqlparser.statement.select.Offset;
 import net.sf.jsqlparser.statement.select.PlainSelect;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility class for query-related operations
@@ -21,27 +23,14 @@ import java.util.regex.Pattern;
 public class QueryUtils {
 
     /**
-     * Regular expression pattern for LIKE range conversions
-     */
-    private static final Pattern LIKE_RANGE_PATTERN = Pattern.compile("(\\[.+?\\])");
-
-    /**
-     * Converts a SQL LIKE query pattern into an equivalent regex format
+     * Converts a SQL LIKE query pattern into an equivalent regex format.
+     * Literal characters are escaped and the regex is anchored only where the pattern is, see {@link LikePattern}.
      *
      * @param likePattern the SQL LIKE pattern
      * @return a regex pattern equivalent to the provided LIKE pattern
      */
     public static String convertLikeToRegex(String likePattern) {
-        String convertedPattern = likePattern.replace("%", ".*").replace("_", ".");
-        Matcher matcher = LIKE_RANGE_PATTERN.matcher(convertedPattern);
-
-        StringBuilder regexBuilder = new StringBuilder();
-        while (matcher.find()) {
-            matcher.appendReplacement(regexBuilder, matcher.group(1) + "{1}");
-        }
-        matcher.appendTail(regexBuilder);
-
-        return regexBuilder.toString();
+        return LikePattern.compile(likePattern, null, false).getRegex();
     }
 
     /**
@@ -99,4 +88,40 @@ public class QueryUtils {
                 .map(expression -> ParsingUtils.extractStringValue((Expression) expression))
                 .toList();
     }
+
+    /**
+     * Sorts literal values in place: numbers by value, strings, dates and booleans in natural order.
+     * Lists mixing values of different kinds are left unchanged.
+     *
+     * @param values the values to sort.
+     */
+    public static void sortValues(List<Object> values) {
+        if (values.stream().allMatch(Number.class::isInstance)) {
+            values.sort((a, b) -> compareNumbers((Number) a, (Number) b));
+        } else if (values.stream().allMatch(String.class::isInstance)) {
+            values.sort(Comparator.comparing(String.class::cast));
+        } else if (values.stream().allMatch(Date.class::isInstance)) {
+            values.sort(Comparator.comparing(Date.class::cast));
+        } else if (values.stream().allMatch(Boolean.class::isInstance)) {
+            values.sort(Comparator.comparing(Boolean.class::cast));
+        }
+    }
+
+    /**
+     * Compares numbers by value: exactly if both are finite, otherwise with {@link Double#compare},
+     * which orders infinities at the ends and {@code NaN} last.
+     */
+    private static int compareNumbers(Number a, Number b) {
+        return isFinite(a) && isFinite(b)
+                ? new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()))
+                : Double.compare(a.doubleValue(), b.doubleValue());
+    }
+
+    private static boolean isFinite(Number number) {
+        return switch (number) {
+            case Double d -> Double.isFinite(d);
+            case Float f  -> Float.isFinite(f);
+            default       -> true;
+        };
+    }
 }
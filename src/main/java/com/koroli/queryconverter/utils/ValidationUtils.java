@@ -2,8 +2,7 @@ package com.koroli.queryconverter.utils;
 
 import com.koroli.queryconverter.exceptions.QueryConversionException;
 import lombok.experimental.UtilityClass;
-import net.sf.jsqlparser.expression.Expression;
-import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.*;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.statement.select.AllColumns;
 import net.sf.jsqlparser.statement.select.SelectItem;
@@ -58,7 +57,37 @@ public class ValidationUtils {
      */
     public static boolean isColumnExpression(Expression expression) {
         return expression instanceof Column column
-                && !column.getName(false).matches("^(\".*\"|true|false)$");
+                && !isQuotedOrBooleanName(column.getName(false));
+    }
+
+    /**
+     * Checks whether a column name is actually a double-quoted string or a boolean literal.
+     */
+    private static boolean isQuotedOrBooleanName(String name) {
+        return ParsingUtils.isDoubleQuoted(name)
+                || "true".equals(name)
+                || "false".equals(name);
+    }
+
+    /**
+     * Determines if the given expression is a literal value known at conversion time
+     *
+     * @param expression the {@link Expression} to evaluate
+     * @return {@code true} if the expression is a literal, otherwise {@code false}
+     */
+    public static boolean isLiteralExpression(Expression expression) {
+        return switch (expression) {
+            case Column column -> !isColumnExpression(column);
+            case SignedExpression signedExpression -> isLiteralExpression(signedExpression.getExpression());
+            case StringValue ignored -> true;
+            case LongValue ignored -> true;
+            case DoubleValue ignored -> true;
+            case BooleanValue ignored -> true;
+            case NullValue ignored -> true;
+            case DateValue ignored -> true;
+            case TimestampValue ignored -> true;
+            case null, default -> false;
+        };
     }
 
     /**
@@ -83,7 +112,11 @@ public class ValidationUtils {
         if (selectItems != null && selectItems.size() == 1) {
             Expression expression = selectItems.getFirst().getExpression();
             if (expression instanceof Function function) {
-                return "count(*)".equalsIgnoreCase(function.toString());
+                return "count".equalsIgnoreCase(function.getName())
+                        && !function.isDistinct()
+                        && function.getParameters() != null
+                        && function.getParameters().size() == 1
+                        && function.getParameters().getFirst() instanceof AllColumns;
             }
         }
         return false;
@@ -97,6 +130,6 @@ public class ValidationUtils {
      */
     public static boolean isTotalGroup(List<SelectItem<?>> selectItems) {
         return selectItems != null
-                && selectItems.stream().anyMatch(item -> ExpressionUtils.isAggregateExpression(item.toString()));
+                && selectItems.stream().anyMatch(item -> ExpressionUtils.isAggregateExpression(item.getExpression()));
     }
 }